@@ -23,6 +23,30 @@ SET time_zone = "+00:00";
 
 -- --------------------------------------------------------
 
+--
+-- Structure de la table `audit`
+--
+
+DROP TABLE IF EXISTS `audit`;
+CREATE TABLE IF NOT EXISTS `audit` (
+  `id_audit` bigint NOT NULL AUTO_INCREMENT,
+  `segment` bigint NOT NULL,
+  `position` int NOT NULL,
+  `horodatage` datetime(3) NOT NULL,
+  `utilisateur` varchar(50) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
+  `table_cible` varchar(30) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `operation` enum('insertion','modification','suppression') COLLATE utf8mb4_unicode_ci NOT NULL,
+  `cle` varchar(50) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `image_avant` text COLLATE utf8mb4_unicode_ci,
+  `image_apres` text COLLATE utf8mb4_unicode_ci,
+  PRIMARY KEY (`id_audit`),
+  UNIQUE KEY `idx_audit_origine` (`segment`,`position`),
+  KEY `idx_audit_table_cle` (`table_cible`,`cle`),
+  KEY `idx_audit_horodatage` (`horodatage`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- --------------------------------------------------------
+
 --
 -- Structure de la table `emprunt`
 --
@@ -173,6 +197,44 @@ INSERT INTO `livre` (`isbn`, `titre`, `auteur`, `categorie`, `nombre_pages`, `no
 
 -- --------------------------------------------------------
 
+--
+-- Structure de la table `notification`
+--
+
+DROP TABLE IF EXISTS `notification`;
+CREATE TABLE IF NOT EXISTS `notification` (
+  `id_lecteur` int NOT NULL,
+  `jour` date NOT NULL,
+  `date_envoi` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `nombre_emprunts` int NOT NULL,
+  PRIMARY KEY (`id_lecteur`,`jour`),
+  KEY `idx_notification_jour` (`jour`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- --------------------------------------------------------
+
+--
+-- Structure de la table `reservation`
+--
+
+DROP TABLE IF EXISTS `reservation`;
+CREATE TABLE IF NOT EXISTS `reservation` (
+  `id_reservation` int NOT NULL AUTO_INCREMENT,
+  `isbn` int NOT NULL,
+  `id_lecteur` int NOT NULL,
+  `date_reservation` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `statut` enum('en attente','attribuee','honoree','expiree','annulee') COLLATE utf8mb4_unicode_ci DEFAULT 'en attente',
+  `numero_exemplaire` int DEFAULT NULL,
+  `date_expiration` datetime DEFAULT NULL,
+  PRIMARY KEY (`id_reservation`),
+  KEY `idx_reservation_file` (`statut`,`isbn`,`date_reservation`),
+  KEY `idx_reservation_exemplaire` (`numero_exemplaire`,`statut`),
+  KEY `idx_reservation_lecteur` (`id_lecteur`),
+  KEY `idx_reservation_expiration` (`statut`,`date_expiration`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- --------------------------------------------------------
+
 --
 -- Structure de la table `responsable`
 --
@@ -210,6 +272,20 @@ ALTER TABLE `emprunt`
   ADD CONSTRAINT `emprunt_ibfk_2` FOREIGN KEY (`numero_exemplaire`) REFERENCES `exemplaire` (`numero_exemplaire`) ON DELETE RESTRICT ON UPDATE CASCADE,
   ADD CONSTRAINT `emprunt_ibfk_3` FOREIGN KEY (`id_responsable`) REFERENCES `responsable` (`id_responsable`) ON DELETE SET NULL ON UPDATE CASCADE;
 
+--
+-- Contraintes pour la table `notification`
+--
+ALTER TABLE `notification`
+  ADD CONSTRAINT `notification_ibfk_1` FOREIGN KEY (`id_lecteur`) REFERENCES `lecteur` (`id_lecteur`) ON DELETE CASCADE ON UPDATE CASCADE;
+
+--
+-- Contraintes pour la table `reservation`
+--
+ALTER TABLE `reservation`
+  ADD CONSTRAINT `reservation_ibfk_1` FOREIGN KEY (`isbn`) REFERENCES `livre` (`isbn`) ON DELETE CASCADE ON UPDATE CASCADE,
+  ADD CONSTRAINT `reservation_ibfk_2` FOREIGN KEY (`id_lecteur`) REFERENCES `lecteur` (`id_lecteur`) ON DELETE CASCADE ON UPDATE CASCADE,
+  ADD CONSTRAINT `reservation_ibfk_3` FOREIGN KEY (`numero_exemplaire`) REFERENCES `exemplaire` (`numero_exemplaire`) ON DELETE SET NULL ON UPDATE CASCADE;
+
 --
 -- Contraintes pour la table `exemplaire`
 --
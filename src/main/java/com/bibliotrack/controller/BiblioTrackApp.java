@@ -1,17 +1,30 @@
 package com.bibliotrack.controller;
 
+import com.bibliotrack.model.audit.ExpediteurAudit;
+import com.bibliotrack.model.audit.JournalAudit;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import java.time.Duration;
+import java.time.Instant;
+
 public class BiblioTrackApp extends Application {
 
+    // Expédie le journal d'audit vers la base en tâche de fond
+    private ExpediteurAudit expediteurAudit;
+
     // La méthode start est appelée au démarrage de l'application
     @Override
     public void start(Stage primaryStage) throws Exception {
 
+        // Démarrer l'expédition du journal d'audit (rejoue les segments en attente)
+        expediteurAudit = new ExpediteurAudit(JournalAudit.getInstance(), 5);
+        expediteurAudit.demarrer();
+
         // Charger le fichier FXML qui définit l'interface utilisateur
         FXMLLoader loader = new FXMLLoader(getClass().getResource("main-view.fxml"));
 
@@ -24,10 +37,35 @@ public class BiblioTrackApp extends Application {
         // Créer une scène avec le nœud racine (root) et des dimensions (800x600)
         primaryStage.setScene(new Scene(root, 800, 600));
 
+        // Mesurer le temps écoulé entre le lancement de la JVM et l'affichage de la fenêtre
+        primaryStage.setOnShown(e -> mesurerDemarrage());
+
         // Afficher la fenêtre principale
         primaryStage.show();
     }
 
+    // La méthode stop est appelée à la fermeture de l'application
+    @Override
+    public void stop() throws Exception {
+
+        // Expédier les derniers événements d'audit puis fermer le journal
+        if (expediteurAudit != null) {
+            expediteurAudit.arreter();
+            JournalAudit.getInstance().close();
+        }
+    }
+
+    // Affiche le temps de démarrage ; en mode mesure, quitte aussitôt (mesure et génération AppCDS)
+    private void mesurerDemarrage() {
+        if (!Boolean.getBoolean("bibliotrack.mesureDemarrage")) {
+            return;
+        }
+        ProcessHandle.current().info().startInstant().ifPresent(debut ->
+                System.out.println("Temps jusqu'à la fenêtre: " + Duration.between(debut, Instant.now()).toMillis()
+                        + " ms (démarrage rapide: " + MainController.DEMARRAGE_RAPIDE + ")"));
+        Platform.exit();
+    }
+
     // Méthode main qui lance l'application
     public static void main(String[] args) {
 
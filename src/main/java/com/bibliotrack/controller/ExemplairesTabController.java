@@ -0,0 +1,59 @@
+package com.bibliotrack.controller;
+
+import com.bibliotrack.model.Exemplaire;
+import com.bibliotrack.model.resilience.AccesBaseException;
+import com.bibliotrack.model.resilience.DonneesLues;
+import javafx.fxml.FXML;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+
+import java.util.List;
+
+/**
+ * Contrôleur du contenu de l'onglet Exemplaires (exemplaires-tab.fxml)
+ */
+public class ExemplairesTabController {
+    @FXML private TextField filtreExemplaires;  // Champ de filtre de la table des exemplaires
+    @FXML private TableView<LigneExemplaire> exemplairesTable;  // Table pour afficher les exemplaires
+    @FXML private TableColumn<LigneExemplaire, String> numExemplaireColumn;  // Colonne pour le numéro d'exemplaire
+    @FXML private TableColumn<LigneExemplaire, String> etatColumn;  // Colonne pour l'état de l'exemplaire
+    @FXML private TableColumn<LigneExemplaire, String> disponibleColumn;  // Colonne pour la disponibilité de l'exemplaire
+    @FXML private TableColumn<LigneExemplaire, String> livreColumn;  // Colonne pour le livre associé à l'exemplaire
+    private TriFiltreTable<LigneExemplaire> exemplairesTri;  // Tri et filtre de la table des exemplaires
+
+    private MainController principal;  // Fenêtre principale, pour le statut de la base
+
+    // Configure les colonnes de la table des exemplaires (textes précalculés, tri et filtre en arrière-plan)
+    @FXML
+    public void initialize() {
+        exemplairesTri = new TriFiltreTable<>(exemplairesTable, LigneExemplaire::getCleRecherche);
+        LigneExemplaire.configurerColonnes(exemplairesTri, numExemplaireColumn, etatColumn, disponibleColumn, livreColumn);
+        filtreExemplaires.textProperty().addListener((obs, ancien, texte) -> exemplairesTri.setFiltre(texte));
+    }
+
+    /**
+     * Charge les exemplaires depuis la base de données et les affiche dans la table
+     * @param principal contrôleur de la fenêtre principale
+     * @param enArrierePlan vrai pour lire la base hors du thread JavaFX
+     */
+    void charger(MainController principal, boolean enArrierePlan) {
+        this.principal = principal;
+        if (enArrierePlan) {
+            MainController.executerEnArrierePlan(Exemplaire::listerExemplaires, this::afficherExemplairesLus,
+                    principal::signalerEchec);
+        } else {
+            try {
+                afficherExemplairesLus(Exemplaire.listerExemplaires());  // Remplir la table avec les données des exemplaires
+            } catch (AccesBaseException e) {
+                principal.signalerEchec(e);
+            }
+        }
+    }
+
+    // Affiche les exemplaires lus, en signalant s'ils viennent du cache
+    private void afficherExemplairesLus(DonneesLues<List<Exemplaire>> exemplaires) {
+        exemplairesTri.setLignes(LigneExemplaire.depuis(exemplaires.getDonnees()));
+        principal.signalerDonnees(exemplaires);
+    }
+}
@@ -0,0 +1,87 @@
+package com.bibliotrack.controller;
+
+import com.bibliotrack.model.Exemplaire;
+import javafx.scene.control.TableColumn;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Ligne de la table des exemplaires : les textes affichés sont calculés une seule fois,
+ * à la construction. Les valeurs communes à de nombreuses lignes (état, disponibilité)
+ * sont partagées.
+ */
+public class LigneExemplaire {
+    private static final ValeurFixe<String> OUI = new ValeurFixe<>("Oui");
+    private static final ValeurFixe<String> NON = new ValeurFixe<>("Non");
+    private static final Map<Exemplaire.EtatExemplaire, ValeurFixe<String>> ETATS =
+            new EnumMap<>(Exemplaire.EtatExemplaire.class);
+
+    static {
+        for (Exemplaire.EtatExemplaire etat : Exemplaire.EtatExemplaire.values()) {
+            ETATS.put(etat, new ValeurFixe<>(etat.getLibelle()));
+        }
+    }
+
+    private final Exemplaire exemplaire;        // Exemplaire affiché
+    private final ValeurFixe<String> numero;    // Texte de la colonne Numéro
+    private final ValeurFixe<String> livre;     // Texte de la colonne Livre
+    private final String cleRecherche;          // Texte en minuscules utilisé par le filtre
+
+    public LigneExemplaire(Exemplaire exemplaire) {
+        this.exemplaire = exemplaire;
+        this.numero = new ValeurFixe<>(String.valueOf(exemplaire.getNumeroExemplaire()));
+        this.livre = new ValeurFixe<>(String.valueOf(exemplaire.getLivre()));
+        this.cleRecherche = (exemplaire.getNumeroExemplaire() + " " + exemplaire.getEtat().getLibelle() + " " +
+                exemplaire.getLivre()).toLowerCase(Locale.ROOT);
+    }
+
+    public Exemplaire getExemplaire() {
+        return exemplaire;
+    }
+
+    public String getCleRecherche() {
+        return cleRecherche;
+    }
+
+    /**
+     * Convertit une liste d'exemplaires en lignes de table
+     * @param exemplaires les exemplaires à afficher
+     * @return les lignes correspondantes
+     */
+    public static List<LigneExemplaire> depuis(List<Exemplaire> exemplaires) {
+        List<LigneExemplaire> lignes = new ArrayList<>(exemplaires.size());
+        for (Exemplaire exemplaire : exemplaires) {
+            lignes.add(new LigneExemplaire(exemplaire));
+        }
+        return lignes;
+    }
+
+    /**
+     * Configure les colonnes de la table des exemplaires et leur tri
+     * @param table gestionnaire de tri et de filtre de la table
+     * @param numExemplaireColumn colonne Numéro
+     * @param etatColumn colonne État
+     * @param disponibleColumn colonne Disponible
+     * @param livreColumn colonne Livre
+     */
+    public static void configurerColonnes(TriFiltreTable<LigneExemplaire> table,
+                                          TableColumn<LigneExemplaire, String> numExemplaireColumn,
+                                          TableColumn<LigneExemplaire, String> etatColumn,
+                                          TableColumn<LigneExemplaire, String> disponibleColumn,
+                                          TableColumn<LigneExemplaire, String> livreColumn) {
+        numExemplaireColumn.setCellValueFactory(c -> c.getValue().numero);
+        etatColumn.setCellValueFactory(c -> ETATS.get(c.getValue().exemplaire.getEtat()));
+        disponibleColumn.setCellValueFactory(c -> c.getValue().exemplaire.isDisponible() ? OUI : NON);
+        livreColumn.setCellValueFactory(c -> c.getValue().livre);
+
+        table.declarerColonne(numExemplaireColumn, Comparator.comparingInt(l -> l.exemplaire.getNumeroExemplaire()));
+        table.declarerColonne(etatColumn, Comparator.comparing(l -> l.exemplaire.getEtat()));
+        table.declarerColonne(disponibleColumn, Comparator.comparing(l -> l.exemplaire.isDisponible()));
+        table.declarerColonne(livreColumn, Comparator.comparing(l -> l.livre.getValue(), String.CASE_INSENSITIVE_ORDER));
+    }
+}
@@ -0,0 +1,71 @@
+package com.bibliotrack.controller;
+
+import com.bibliotrack.model.Livre;
+import javafx.scene.control.TableColumn;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Ligne de la table des livres : les textes affichés sont calculés une seule fois,
+ * à la construction, et servis aux cellules sans réflexion ni allocation.
+ */
+public class LigneLivre {
+    private final Livre livre;                  // Livre affiché
+    private final ValeurFixe<String> isbn;      // Texte de la colonne ISBN
+    private final ValeurFixe<String> titre;     // Texte de la colonne Titre
+    private final ValeurFixe<String> auteur;    // Texte de la colonne Auteur
+    private final String cleRecherche;          // Texte en minuscules utilisé par le filtre
+
+    public LigneLivre(Livre livre) {
+        this.livre = livre;
+        this.isbn = new ValeurFixe<>(String.valueOf(livre.getIsbn()));
+        this.titre = new ValeurFixe<>(livre.getTitre());
+        this.auteur = new ValeurFixe<>(livre.getAuteur());
+        this.cleRecherche = (livre.getIsbn() + " " + livre.getTitre() + " " + livre.getAuteur())
+                .toLowerCase(Locale.ROOT);
+    }
+
+    public Livre getLivre() {
+        return livre;
+    }
+
+    public String getCleRecherche() {
+        return cleRecherche;
+    }
+
+    /**
+     * Convertit une liste de livres en lignes de table
+     * @param livres les livres à afficher
+     * @return les lignes correspondantes
+     */
+    public static List<LigneLivre> depuis(List<Livre> livres) {
+        List<LigneLivre> lignes = new ArrayList<>(livres.size());
+        for (Livre livre : livres) {
+            lignes.add(new LigneLivre(livre));
+        }
+        return lignes;
+    }
+
+    /**
+     * Configure les colonnes de la table des livres et leur tri
+     * @param table gestionnaire de tri et de filtre de la table
+     * @param isbnColumn colonne ISBN
+     * @param titreColumn colonne Titre
+     * @param auteurColumn colonne Auteur
+     */
+    public static void configurerColonnes(TriFiltreTable<LigneLivre> table,
+                                          TableColumn<LigneLivre, String> isbnColumn,
+                                          TableColumn<LigneLivre, String> titreColumn,
+                                          TableColumn<LigneLivre, String> auteurColumn) {
+        isbnColumn.setCellValueFactory(c -> c.getValue().isbn);
+        titreColumn.setCellValueFactory(c -> c.getValue().titre);
+        auteurColumn.setCellValueFactory(c -> c.getValue().auteur);
+
+        table.declarerColonne(isbnColumn, Comparator.comparingInt(l -> l.livre.getIsbn()));
+        table.declarerColonne(titreColumn, Comparator.comparing(l -> l.titre.getValue(), String.CASE_INSENSITIVE_ORDER));
+        table.declarerColonne(auteurColumn, Comparator.comparing(l -> l.auteur.getValue(), String.CASE_INSENSITIVE_ORDER));
+    }
+}
@@ -0,0 +1,124 @@
+package com.bibliotrack.controller;
+
+import com.bibliotrack.model.Livre;
+import com.bibliotrack.model.recommandation.ModeleCooccurrence;
+import com.bibliotrack.model.recommandation.Recommandations;
+import com.bibliotrack.model.resilience.AccesBaseException;
+import com.bibliotrack.model.resilience.DonneesLues;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contrôleur du contenu de l'onglet Livres (livres-tab.fxml)
+ */
+public class LivresTabController {
+    @FXML private TextField filtreLivres;  // Champ de filtre de la table des livres
+    @FXML private TableView<LigneLivre> livresTable;  // Table pour afficher les livres
+    @FXML private TableColumn<LigneLivre, String> isbnColumn;  // Colonne pour l'ISBN
+    @FXML private TableColumn<LigneLivre, String> titreColumn;  // Colonne pour le titre du livre
+    @FXML private TableColumn<LigneLivre, String> auteurColumn;  // Colonne pour l'auteur du livre
+    @FXML private Label recommandationsLivre;  // Livres empruntés par les lecteurs du livre sélectionné
+    private TriFiltreTable<LigneLivre> livresTri;  // Tri et filtre de la table des livres
+    private Map<Integer, Livre> livresParIsbn = Map.of();  // Livres chargés, pour nommer les recommandations
+    private boolean reconstructionLancee;  // Modèle de recommandation demandé (au premier livre sélectionné)
+    private boolean recommandationsPretes;  // Modèle reconstruit depuis l'historique, ou reconstruction échouée
+
+    private MainController principal;  // Fenêtre principale, pour le statut de la base
+
+    // Configure les colonnes de la table des livres (textes précalculés, tri et filtre en arrière-plan)
+    @FXML
+    public void initialize() {
+        livresTri = new TriFiltreTable<>(livresTable, LigneLivre::getCleRecherche);
+        LigneLivre.configurerColonnes(livresTri, isbnColumn, titreColumn, auteurColumn);
+        filtreLivres.textProperty().addListener((obs, ancien, texte) -> livresTri.setFiltre(texte));
+        livresTable.getSelectionModel().selectedItemProperty()
+                .addListener((obs, ancienne, ligne) -> afficherRecommandations(ligne));
+    }
+
+    /**
+     * Charge les livres depuis la base de données et les affiche dans la table
+     * @param principal contrôleur de la fenêtre principale
+     * @param enArrierePlan vrai pour lire la base hors du thread JavaFX
+     */
+    void charger(MainController principal, boolean enArrierePlan) {
+        this.principal = principal;
+        if (enArrierePlan) {
+            MainController.executerEnArrierePlan(Livre::listerLivres, this::afficherLivresLus, principal::signalerEchec);
+        } else {
+            try {
+                afficherLivresLus(Livre.listerLivres());  // Remplir la table avec les données des livres
+            } catch (AccesBaseException e) {
+                principal.signalerEchec(e);
+            }
+        }
+    }
+
+    // Affiche les livres le plus souvent empruntés par les lecteurs du livre sélectionné
+    private void afficherRecommandations(LigneLivre ligne) {
+        if (ligne == null) {
+            recommandationsLivre.setText("");
+            return;
+        }
+        if (!recommandationsPretes) {
+            preparerRecommandations();
+            recommandationsLivre.setText("Préparation des recommandations...");
+            return;
+        }
+        List<String> titres = new ArrayList<>();
+        for (int isbn : Recommandations.getInstance().recommander(ligne.getLivre().getIsbn(), 5)) {
+            Livre livre = livresParIsbn.get(isbn);
+            titres.add(livre == null ? "ISBN " + isbn : livre.getTitre());
+        }
+        recommandationsLivre.setText(titres.isEmpty()
+                ? "Aucune lecture associée à ce livre pour l'instant"
+                : "Les lecteurs de ce livre ont aussi emprunté : " + String.join(", ", titres));
+    }
+
+    // Reconstruit le modèle de recommandation à la première consultation plutôt qu'au démarrage,
+    // puis affiche les recommandations du livre alors sélectionné
+    private void preparerRecommandations() {
+        if (reconstructionLancee) {
+            return;
+        }
+        reconstructionLancee = true;
+        MainController.executerEnArrierePlan(LivresTabController::reconstruireRecommandations, modele -> {
+            recommandationsPretes = true;
+            afficherRecommandations(livresTable.getSelectionModel().getSelectedItem());
+        }, erreur -> {
+            // Le modèle se limite alors aux emprunts enregistrés depuis le lancement
+            System.err.println("Erreur lors de la reconstruction des recommandations: " + erreur.getMessage());
+            recommandationsPretes = true;
+            afficherRecommandations(livresTable.getSelectionModel().getSelectedItem());
+        });
+    }
+
+    // Reconstruit le modèle de recommandation et affiche sa taille et sa durée de construction
+    private static ModeleCooccurrence reconstruireRecommandations() throws SQLException {
+        long debut = System.nanoTime();
+        ModeleCooccurrence modele = Recommandations.getInstance().reconstruire();
+        System.out.println("Recommandations reconstruites en " + (System.nanoTime() - debut) / 1_000_000
+                + " ms: " + modele);
+        return modele;
+    }
+
+    // Affiche les livres lus, en signalant s'ils viennent du cache
+    private void afficherLivresLus(DonneesLues<List<Livre>> livres) {
+        List<LigneLivre> lignes = LigneLivre.depuis(livres.getDonnees());
+        Map<Integer, Livre> index = new HashMap<>();
+        for (LigneLivre ligne : lignes) {
+            index.put(ligne.getLivre().getIsbn(), ligne.getLivre());
+        }
+        livresParIsbn = index;
+        livresTri.setLignes(lignes);
+        principal.signalerDonnees(livres);
+    }
+}
@@ -1,95 +1,155 @@
 package com.bibliotrack.controller;
 
-import com.bibliotrack.model.Exemplaire;
-import com.bibliotrack.model.Livre;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.bibliotrack.model.Succursale;
+import com.bibliotrack.model.resilience.AccesBaseException;
+import com.bibliotrack.model.resilience.DonneesLues;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.List;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 public class MainController {
+    // Mode démarrage rapide : onglets construits à la première sélection, données chargées en arrière-plan
+    static final boolean DEMARRAGE_RAPIDE = Boolean.getBoolean("bibliotrack.demarrageRapide");
+
     // Déclarations des éléments d'interface utilisateur
     @FXML private TabPane mainTabPane;  // Le panneau de tabulation principal
     @FXML private Label connectionStatus;  // Étiquette pour afficher le statut de connexion à la base de données
 
-    // Onglet Livres
+    // Onglets, dont le contenu a son propre contrôleur (livres-tab.fxml, exemplaires-tab.fxml)
     @FXML private Tab livresTab;  // L'onglet Livres
-    @FXML private TableView<Livre> livresTable;  // Table pour afficher les livres
-    @FXML private TableColumn<Livre, Integer> isbnColumn;  // Colonne pour l'ISBN
-    @FXML private TableColumn<Livre, String> titreColumn;  // Colonne pour le titre du livre
-    @FXML private TableColumn<Livre, String> auteurColumn;  // Colonne pour l'auteur du livre
-
-    // Onglet Exemplaires
     @FXML private Tab exemplairesTab;  // L'onglet Exemplaires
-    @FXML private TableView<Exemplaire> exemplairesTable;  // Table pour afficher les exemplaires
-    @FXML private TableColumn<Exemplaire, Integer> numExemplaireColumn;  // Colonne pour le numéro d'exemplaire
-    @FXML private TableColumn<Exemplaire, String> etatColumn;  // Colonne pour l'état de l'exemplaire
-    @FXML private TableColumn<Exemplaire, String> disponibleColumn;  // Colonne pour la disponibilité de l'exemplaire
-    @FXML private TableColumn<Exemplaire, String> livreColumn;  // Colonne pour le livre associé à l'exemplaire
 
     // Méthode d'initialisation appelée lors du démarrage de l'application
     @FXML
     public void initialize() {
-        // Vérifier la connexion à la base de données
-        checkDatabaseConnection();
+        if (!DEMARRAGE_RAPIDE) {
+            // Vérifier la connexion, construire les deux onglets et charger les données immédiatement
+            checkDatabaseConnection();
+            initialiserOngletLivres();
+            initialiserOngletExemplaires();
+            return;
+        }
+
+        // Vérifier la connexion sans retarder l'affichage de la fenêtre
+        executerEnArrierePlan(MainController::testerConnexion, this::afficherStatutConnexion);
+
+        // Construire uniquement l'onglet visible, les autres à leur première sélection
+        initialiserOnglet(mainTabPane.getSelectionModel().getSelectedItem());
+        mainTabPane.getSelectionModel().selectedItemProperty()
+                .addListener((obs, ancien, nouveau) -> initialiserOnglet(nouveau));
+    }
+
+    // Construit le contenu d'un onglet s'il ne l'a pas encore été
+    private void initialiserOnglet(Tab onglet) {
+        if (onglet == null || onglet.getContent() != null) {
+            return;
+        }
+        if (onglet == livresTab) {
+            initialiserOngletLivres();
+        } else if (onglet == exemplairesTab) {
+            initialiserOngletExemplaires();
+        }
+    }
+
+    // Construit l'onglet Livres puis charge ses données
+    private void initialiserOngletLivres() {
+        LivresTabController onglet = chargerContenu(livresTab, "livres-tab.fxml");
+        onglet.charger(this, DEMARRAGE_RAPIDE);
+    }
+
+    // Construit l'onglet Exemplaires puis charge ses données
+    private void initialiserOngletExemplaires() {
+        ExemplairesTabController onglet = chargerContenu(exemplairesTab, "exemplaires-tab.fxml");
+        onglet.charger(this, DEMARRAGE_RAPIDE);
+    }
 
-        // Configurer les tables (Livres et Exemplaires)
-        setupLivresTable();
-        setupExemplairesTable();
+    // Charge le contenu FXML d'un onglet et retourne le contrôleur qu'il déclare
+    private <C> C chargerContenu(Tab onglet, String fxml) {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource(fxml));
+        try {
+            onglet.setContent(loader.load());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de charger " + fxml, e);
+        }
+        return loader.getController();
+    }
+
+    // Exécute une tâche hors du thread JavaFX puis transmet son résultat à l'interface
+    static <T> void executerEnArrierePlan(Callable<T> travail, Consumer<T> resultat) {
+        executerEnArrierePlan(travail, resultat, Throwable::printStackTrace);
+    }
 
-        // Charger les données dans les tables
-        loadLivresData();
-        loadExemplairesData();
+    // Exécute une tâche hors du thread JavaFX puis transmet son résultat, ou son échec, à l'interface
+    static <T> void executerEnArrierePlan(Callable<T> travail, Consumer<T> resultat, Consumer<Throwable> erreur) {
+        Task<T> tache = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return travail.call();
+            }
+        };
+        tache.setOnSucceeded(e -> resultat.accept(tache.getValue()));
+        tache.setOnFailed(e -> erreur.accept(tache.getException()));
+        Thread thread = new Thread(tache, "bibliotrack-chargement");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     // Vérifie la connexion à la base de données MySQL
     private void checkDatabaseConnection() {
-        try (Connection conn = DriverManager.getConnection(
-                "jdbc:mysql://localhost/bibliodb", "root", "")) {
+        afficherStatutConnexion(testerConnexion());
+    }
+
+    // Tente une connexion à la base de données, sans toucher à l'interface
+    private static boolean testerConnexion() {
+        try (Connection conn = Succursale.PRINCIPALE.getConnection()) {
+            System.out.println("Connexion réussie");
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Met à jour l'étiquette de statut de connexion
+    private void afficherStatutConnexion(boolean connecte) {
+        if (connecte) {
             // Si la connexion est réussie, mettre à jour l'interface utilisateur
             connectionStatus.setText("Connecté à la base de données");
             connectionStatus.setStyle("-fx-text-fill: green;");
-            System.out.println("Connexion réussie");
-        } catch (SQLException e) {
+        } else {
             // Si la connexion échoue, afficher un message d'erreur
             connectionStatus.setText("Échec de connexion à la base de données");
             connectionStatus.setStyle("-fx-text-fill: red;");
-            e.printStackTrace();
         }
     }
 
-    // Configure les colonnes de la table des livres
-    private void setupLivresTable() {
-        isbnColumn.setCellValueFactory(new PropertyValueFactory<>("isbn"));
-        titreColumn.setCellValueFactory(new PropertyValueFactory<>("titre"));
-        auteurColumn.setCellValueFactory(new PropertyValueFactory<>("auteur"));
-    }
-
-    // Configure les colonnes de la table des exemplaires
-    private void setupExemplairesTable() {
-        numExemplaireColumn.setCellValueFactory(new PropertyValueFactory<>("numeroExemplaire"));
-        etatColumn.setCellValueFactory(new PropertyValueFactory<>("etat"));
-        disponibleColumn.setCellValueFactory(new PropertyValueFactory<>("disponible"));
-        livreColumn.setCellValueFactory(new PropertyValueFactory<>("livre"));
-    }
-
-    // Charge les données des livres depuis la base de données et les affiche dans la table
-    private void loadLivresData() {
-        List<Livre> livres = Livre.getAllLivres();  // Récupérer tous les livres de la base de données
-        ObservableList<Livre> livresData = FXCollections.observableArrayList(livres);  // Convertir la liste en ObservableList
-        livresTable.setItems(livresData);  // Remplir la table avec les données des livres
+    // Signale des données servies depuis le cache, faute d'avoir pu interroger la base
+    void signalerDonnees(DonneesLues<?> donnees) {
+        if (donnees.isPerimees()) {
+            LocalTime heure = LocalTime.ofInstant(donnees.getDateLecture(), ZoneId.systemDefault());
+            connectionStatus.setText("Données du " + heure.format(DateTimeFormatter.ofPattern("HH:mm:ss"))
+                    + ", base indisponible (" + donnees.getCause().getNature().getLibelle() + ")");
+            connectionStatus.setStyle("-fx-text-fill: darkorange;");
+        }
     }
 
-    // Charge les données des exemplaires depuis la base de données et les affiche dans la table
-    private void loadExemplairesData() {
-        List<Exemplaire> exemplaires = Exemplaire.getAllExemplaires();  // Récupérer tous les exemplaires de la base de données
-        ObservableList<Exemplaire> exemplairesData = FXCollections.observableArrayList(exemplaires);  // Convertir la liste en ObservableList
-        exemplairesTable.setItems(exemplairesData);  // Remplir la table avec les données des exemplaires
+    // Signale l'échec d'un chargement plutôt que d'afficher une table vide
+    void signalerEchec(Throwable e) {
+        if (!(e instanceof AccesBaseException)) {
+            e.printStackTrace();
+        }
+        connectionStatus.setText("Chargement impossible: " + e.getMessage());
+        connectionStatus.setStyle("-fx-text-fill: red;");
     }
 }
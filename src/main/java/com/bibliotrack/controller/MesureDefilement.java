@@ -0,0 +1,97 @@
+package com.bibliotrack.controller;
+
+import com.bibliotrack.model.Exemplaire;
+import com.bibliotrack.model.Livre;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.stage.Stage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mesure le nombre d'images par seconde pendant le défilement continu de la table
+ * des exemplaires, remplie de lignes générées (500 000 par défaut, sans base de données).
+ *
+ * Lancement : java --module-path ... -m com.bibliotrack.controller/com.bibliotrack.controller.MesureDefilement [lignes] [secondes]
+ */
+public class MesureDefilement extends Application {
+
+    @Override
+    public void start(Stage stage) {
+        List<String> args = getParameters().getRaw();
+        int nombreLignes = args.size() > 0 ? Integer.parseInt(args.get(0)) : 500_000;
+        int dureeSecondes = args.size() > 1 ? Integer.parseInt(args.get(1)) : 10;
+
+        TableView<LigneExemplaire> table = new TableView<>();
+        table.setFixedCellSize(24);
+        TableColumn<LigneExemplaire, String> numero = new TableColumn<>("Numéro");
+        TableColumn<LigneExemplaire, String> etat = new TableColumn<>("État");
+        TableColumn<LigneExemplaire, String> disponible = new TableColumn<>("Disponible");
+        TableColumn<LigneExemplaire, String> livre = new TableColumn<>("Livre");
+        table.getColumns().addAll(List.of(numero, etat, disponible, livre));
+
+        TriFiltreTable<LigneExemplaire> tri = new TriFiltreTable<>(table, LigneExemplaire::getCleRecherche);
+        LigneExemplaire.configurerColonnes(tri, numero, etat, disponible, livre);
+        tri.setLignes(genererLignes(nombreLignes));
+
+        stage.setTitle("BiblioTrack - mesure du défilement");
+        stage.setScene(new Scene(table, 800, 600));
+        stage.show();
+
+        new AnimationTimer() {
+            private long debut;
+            private long images;
+            private int position;
+
+            @Override
+            public void handle(long maintenant) {
+                if (table.getItems().isEmpty()) {
+                    return; // Lignes pas encore publiées par le thread de tri
+                }
+                if (debut == 0) {
+                    debut = maintenant;
+                }
+                // Avance d'environ une page par image, en boucle sur toute la table
+                position = (position + 25) % table.getItems().size();
+                table.scrollTo(position);
+                images++;
+
+                double ecoule = (maintenant - debut) / 1e9;
+                if (ecoule >= dureeSecondes) {
+                    stop();
+                    Runtime rt = Runtime.getRuntime();
+                    System.out.printf("%d lignes : %.1f images/s sur %.1f s, mémoire utilisée %d Mo%n",
+                            table.getItems().size(), images / ecoule, ecoule,
+                            (rt.totalMemory() - rt.freeMemory()) / (1024 * 1024));
+                    Platform.exit();
+                }
+            }
+        }.start();
+    }
+
+    // Génère des exemplaires répartis sur un millier de livres
+    private static List<LigneExemplaire> genererLignes(int nombre) {
+        Exemplaire.EtatExemplaire[] etats = Exemplaire.EtatExemplaire.values();
+        Livre[] livres = new Livre[1000];
+        for (int i = 0; i < livres.length; i++) {
+            livres[i] = new Livre(1000 + i, "Titre " + i, "Auteur " + (i % 97), Livre.Categorie.ROMAN,
+                    100 + i, 0, LocalDate.of(2000, 1, 1));
+        }
+        List<LigneExemplaire> lignes = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            lignes.add(new LigneExemplaire(new Exemplaire(i + 1, etats[i % etats.length], i % 3 != 0,
+                    LocalDate.of(2020, 1, 1), livres[i % livres.length])));
+        }
+        return lignes;
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
@@ -0,0 +1,141 @@
+package com.bibliotrack.controller;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Tri et filtre d'une TableView hors du thread JavaFX.
+ *
+ * Pour chaque colonne triable, un index (copie des lignes triée selon la colonne) est
+ * construit en arrière-plan dès le chargement des données. Un clic sur un en-tête ou une
+ * saisie dans le filtre se résume alors à un parcours de cet index, lui aussi exécuté en
+ * arrière-plan ; seul le remplacement du contenu de la table a lieu sur le thread JavaFX.
+ * @param <L> type des lignes de la table
+ */
+public class TriFiltreTable<L> {
+    private final TableView<L> table;
+    private final Function<L, String> cleRecherche;     // Texte en minuscules comparé au filtre
+    private final ObservableList<L> affichage = FXCollections.observableArrayList();
+    private final Map<TableColumn<L, ?>, Comparator<L>> comparateurs = new HashMap<>();
+    private final ExecutorService executeur = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "bibliotrack-tri");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Etat partagé avec le thread de tri ; n'est modifié que sur le thread JavaFX
+    private volatile Object[] lignes = new Object[0];
+    private volatile Map<TableColumn<L, ?>, Object[]> index = Map.of();
+    private String filtre = "";
+    private long generation;    // Numéro de la dernière demande, pour ignorer les résultats périmés
+
+    /**
+     * @param table la table à gérer
+     * @param cleRecherche texte en minuscules de chaque ligne, comparé au filtre
+     */
+    public TriFiltreTable(TableView<L> table, Function<L, String> cleRecherche) {
+        this.table = table;
+        this.cleRecherche = cleRecherche;
+        table.setItems(affichage);
+        table.setSortPolicy(t -> {
+            rafraichir();
+            return true;
+        });
+    }
+
+    /**
+     * Déclare une colonne triable
+     * @param colonne la colonne
+     * @param comparateur ordre croissant de la colonne
+     */
+    public void declarerColonne(TableColumn<L, ?> colonne, Comparator<L> comparateur) {
+        comparateurs.put(colonne, comparateur);
+    }
+
+    /**
+     * Remplace les lignes de la table ; les index de tri sont reconstruits en arrière-plan
+     * @param nouvellesLignes les lignes à afficher
+     */
+    public void setLignes(List<L> nouvellesLignes) {
+        Object[] source = nouvellesLignes.toArray();
+        lignes = source;
+        index = Map.of();
+        long demande = ++generation;
+        Map<TableColumn<L, ?>, Comparator<L>> colonnes = new HashMap<>(comparateurs);
+
+        executeur.execute(() -> {
+            Map<TableColumn<L, ?>, Object[]> construits = new HashMap<>();
+            for (Map.Entry<TableColumn<L, ?>, Comparator<L>> colonne : colonnes.entrySet()) {
+                construits.put(colonne.getKey(), trier(source, colonne.getValue()));
+            }
+            Platform.runLater(() -> {
+                if (lignes == source) {
+                    index = construits;
+                }
+            });
+        });
+        rafraichir(demande);
+    }
+
+    /**
+     * Applique un filtre textuel (insensible à la casse) aux lignes affichées
+     * @param texte le texte recherché
+     */
+    public void setFiltre(String texte) {
+        filtre = texte == null ? "" : texte.trim().toLowerCase(Locale.ROOT);
+        rafraichir();
+    }
+
+    private void rafraichir() {
+        rafraichir(++generation);
+    }
+
+    // Calcule en arrière-plan les lignes à afficher selon le tri et le filtre courants
+    @SuppressWarnings("unchecked")
+    private void rafraichir(long demande) {
+        TableColumn<L, ?> colonne = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+        boolean decroissant = colonne != null && colonne.getSortType() == TableColumn.SortType.DESCENDING;
+        Comparator<L> comparateur = colonne == null ? null : comparateurs.get(colonne);
+        Object[] source = lignes;
+        Object[] dejaTrie = colonne == null ? source : index.get(colonne);
+        String recherche = filtre;
+
+        executeur.execute(() -> {
+            Object[] ordre = dejaTrie != null ? dejaTrie
+                    : comparateur != null ? trier(source, comparateur) : source;
+            List<L> resultat = new ArrayList<>(ordre.length);
+            for (int i = 0; i < ordre.length; i++) {
+                L ligne = (L) ordre[decroissant ? ordre.length - 1 - i : i];
+                if (recherche.isEmpty() || cleRecherche.apply(ligne).contains(recherche)) {
+                    resultat.add(ligne);
+                }
+            }
+            Platform.runLater(() -> {
+                if (demande == generation) {
+                    affichage.setAll(resultat);
+                }
+            });
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <L> Object[] trier(Object[] source, Comparator<L> comparateur) {
+        Object[] trie = source.clone();
+        Arrays.sort(trie, (a, b) -> comparateur.compare((L) a, (L) b));
+        return trie;
+    }
+}
@@ -0,0 +1,40 @@
+package com.bibliotrack.controller;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+
+/**
+ * Valeur observable immuable, calculée une seule fois par ligne.
+ * Remplace les propriétés créées à chaque mise à jour de cellule : une valeur
+ * qui ne change jamais n'a pas besoin de conserver ses écouteurs.
+ * @param <T> type de la valeur
+ */
+final class ValeurFixe<T> implements ObservableValue<T> {
+    private final T valeur;
+
+    ValeurFixe(T valeur) {
+        this.valeur = valeur;
+    }
+
+    @Override
+    public T getValue() {
+        return valeur;
+    }
+
+    @Override
+    public void addListener(ChangeListener<? super T> listener) {
+    }
+
+    @Override
+    public void removeListener(ChangeListener<? super T> listener) {
+    }
+
+    @Override
+    public void addListener(InvalidationListener listener) {
+    }
+
+    @Override
+    public void removeListener(InvalidationListener listener) {
+    }
+}
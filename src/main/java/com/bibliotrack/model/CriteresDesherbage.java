@@ -0,0 +1,121 @@
+package com.bibliotrack.model;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Critères de sélection des exemplaires lors d'une opération de désherbage.
+ * Les critères non renseignés ne filtrent pas ; les critères renseignés se cumulent.
+ */
+public class CriteresDesherbage {
+    private Set<Exemplaire.EtatExemplaire> etats = EnumSet.noneOf(Exemplaire.EtatExemplaire.class); // Etats retenus
+    private LocalDate creeAvant;            // Exemplaires ajoutés avant cette date
+    private LocalDate nonEmprunteDepuis;    // Exemplaires sans emprunt depuis cette date
+    private Livre.Categorie categorie;      // Catégorie du livre
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public Set<Exemplaire.EtatExemplaire> getEtats() {
+        return etats;
+    }
+
+    public void setEtats(Set<Exemplaire.EtatExemplaire> etats) {
+        this.etats = etats.isEmpty() ? EnumSet.noneOf(Exemplaire.EtatExemplaire.class) : EnumSet.copyOf(etats);
+    }
+
+    public LocalDate getCreeAvant() {
+        return creeAvant;
+    }
+
+    public void setCreeAvant(LocalDate creeAvant) {
+        this.creeAvant = creeAvant;
+    }
+
+    public LocalDate getNonEmprunteDepuis() {
+        return nonEmprunteDepuis;
+    }
+
+    public void setNonEmprunteDepuis(LocalDate nonEmprunteDepuis) {
+        this.nonEmprunteDepuis = nonEmprunteDepuis;
+    }
+
+    public Livre.Categorie getCategorie() {
+        return categorie;
+    }
+
+    public void setCategorie(Livre.Categorie categorie) {
+        this.categorie = categorie;
+    }
+
+    // ==================== TRADUCTION SQL ====================
+
+    /**
+     * Construit la clause WHERE correspondant aux critères, portant sur les alias e (EXEMPLAIRE) et l (LIVRE)
+     * @return la clause, commençant par " WHERE 1 = 1"
+     */
+    String clauseWhere() {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        if (!etats.isEmpty()) {
+            where.append(" AND e.etat IN (").append("?, ".repeat(etats.size() - 1)).append("?)");
+        }
+        if (creeAvant != null) {
+            where.append(" AND e.date_creation < ?");
+        }
+        if (nonEmprunteDepuis != null) {
+            where.append(" AND NOT EXISTS (SELECT 1 FROM EMPRUNT em " +
+                    "WHERE em.numero_exemplaire = e.numero_exemplaire AND em.date_emprunt >= ?)");
+        }
+        if (categorie != null) {
+            where.append(" AND l.categorie = ?");
+        }
+        return where.toString();
+    }
+
+    /**
+     * Renseigne les paramètres de la clause WHERE
+     * @param stmt requête contenant la clause
+     * @param premier indice du premier paramètre de la clause
+     * @return indice du paramètre suivant
+     * @throws SQLException en cas d'erreur de paramétrage
+     */
+    int parametrer(PreparedStatement stmt, int premier) throws SQLException {
+        int i = premier;
+        for (Exemplaire.EtatExemplaire etat : etats) {
+            stmt.setString(i++, etat.getLibelle());
+        }
+        if (creeAvant != null) {
+            stmt.setDate(i++, Date.valueOf(creeAvant));
+        }
+        if (nonEmprunteDepuis != null) {
+            stmt.setDate(i++, Date.valueOf(nonEmprunteDepuis));
+        }
+        if (categorie != null) {
+            stmt.setString(i++, categorie.getLibelle());
+        }
+        return i;
+    }
+
+    @Override
+    public String toString() {
+        List<String> criteres = new ArrayList<>();
+        if (!etats.isEmpty()) {
+            criteres.add("état " + etats);
+        }
+        if (creeAvant != null) {
+            criteres.add("ajouté avant le " + creeAvant);
+        }
+        if (nonEmprunteDepuis != null) {
+            criteres.add("non emprunté depuis le " + nonEmprunteDepuis);
+        }
+        if (categorie != null) {
+            criteres.add("catégorie " + categorie.getLibelle());
+        }
+        return criteres.isEmpty() ? "tous les exemplaires" : String.join(", ", criteres);
+    }
+}
@@ -0,0 +1,323 @@
+package com.bibliotrack.model;
+
+import com.bibliotrack.model.audit.EvenementAudit;
+import com.bibliotrack.model.audit.JournalAudit;
+
+import java.sql.*;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Opérations en masse sur l'état des exemplaires : changement d'état et suppression
+ * (désherbage) d'un ensemble d'exemplaires choisis par critères.
+ *
+ * Les exemplaires sont d'abord sélectionnés sans verrou, puis traités par lots de
+ * {@link #TAILLE_LOT} exemplaires, chacun dans sa propre transaction courte : le lot est
+ * verrouillé en revérifiant les critères, puis modifié par une requête ensembliste. Le prêt
+ * et le retour des autres exemplaires ne sont ainsi jamais bloqués plus d'un lot, et un
+ * exemplaire modifié entre-temps (emprunté, changé d'état) n'est pas traité à tort.
+ * En cas d'erreur, le lot en cours est annulé ; les lots précédents restent appliqués.
+ */
+public class Desherbage {
+    public static final int TAILLE_LOT = 1000;
+
+    /**
+     * Suivi de l'avancement d'une opération en masse
+     */
+    @FunctionalInterface
+    public interface Progression {
+        void avancer(int traites, int total);
+    }
+
+    /**
+     * Aperçu de l'impact d'une opération avant son application
+     */
+    public static class Apercu {
+        private final Map<Exemplaire.EtatExemplaire, Integer> parEtat =
+                new EnumMap<>(Exemplaire.EtatExemplaire.class);
+        private int total;              // Exemplaires correspondant aux critères
+        private int empruntes;          // Dont exemplaires actuellement sortis
+        private int avecHistorique;     // Dont exemplaires ayant déjà été empruntés (non supprimables)
+        private int livres;             // Nombre de livres (ISBN) concernés
+
+        public Map<Exemplaire.EtatExemplaire, Integer> getParEtat() {
+            return parEtat;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getEmpruntes() {
+            return empruntes;
+        }
+
+        public int getAvecHistorique() {
+            return avecHistorique;
+        }
+
+        /**
+         * @return le nombre d'exemplaires qu'une suppression retirerait effectivement
+         */
+        public int getSupprimables() {
+            return total - avecHistorique;
+        }
+
+        public int getLivres() {
+            return livres;
+        }
+
+        @Override
+        public String toString() {
+            return total + " exemplaire(s) sur " + livres + " livre(s) " + parEtat +
+                    ", dont " + empruntes + " sorti(s) et " + avecHistorique + " avec historique d'emprunt";
+        }
+    }
+
+    /**
+     * Établit une connexion à la base de données
+     * @return Connection objet de connexion JDBC
+     * @throws SQLException en cas d'erreur de connexion
+     */
+    private static Connection getConnection() throws SQLException {
+        return Succursale.PRINCIPALE.getConnection();
+    }
+
+    // ==================== APERCU ====================
+
+    /**
+     * Calcule l'impact d'une opération sans rien modifier
+     * @param criteres critères de sélection des exemplaires
+     * @return l'aperçu, ou null en cas d'erreur
+     */
+    public static Apercu apercu(CriteresDesherbage criteres) {
+        String from = " FROM EXEMPLAIRE e JOIN LIVRE l ON e.isbn = l.isbn" + criteres.clauseWhere();
+        String totaux = "SELECT COUNT(*) AS nombre, " +
+                "COALESCE(SUM(e.disponible = FALSE), 0) AS empruntes, " +
+                "COALESCE(SUM(EXISTS (SELECT 1 FROM EMPRUNT h WHERE h.numero_exemplaire = e.numero_exemplaire)), 0) AS historique, " +
+                "COUNT(DISTINCT e.isbn) AS livres" + from;
+        String parEtat = "SELECT e.etat, COUNT(*) AS nombre" + from + " GROUP BY e.etat";
+
+        try (Connection conn = getConnection();
+             PreparedStatement stmtTotaux = conn.prepareStatement(totaux);
+             PreparedStatement stmtParEtat = conn.prepareStatement(parEtat)) {
+
+            Apercu apercu = new Apercu();
+            criteres.parametrer(stmtTotaux, 1);
+            try (ResultSet rs = stmtTotaux.executeQuery()) {
+                if (rs.next()) {
+                    apercu.total = rs.getInt("nombre");
+                    apercu.empruntes = rs.getInt("empruntes");
+                    apercu.avecHistorique = rs.getInt("historique");
+                    apercu.livres = rs.getInt("livres");
+                }
+            }
+
+            criteres.parametrer(stmtParEtat, 1);
+            try (ResultSet rs = stmtParEtat.executeQuery()) {
+                while (rs.next()) {
+                    apercu.parEtat.put(Exemplaire.EtatExemplaire.fromString(rs.getString("etat")), rs.getInt("nombre"));
+                }
+            }
+            return apercu;
+        } catch (SQLException e) {
+            System.err.println("Erreur lors du calcul de l'aperçu du désherbage: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // ==================== APPLICATION ====================
+
+    /**
+     * Change l'état de tous les exemplaires correspondant aux critères
+     * @param criteres critères de sélection des exemplaires
+     * @param nouvelEtat état à appliquer
+     * @param progression suivi de l'avancement (peut être null)
+     * @return le nombre d'exemplaires modifiés, ou -1 si l'opération a été interrompue par une erreur
+     */
+    public static int changerEtat(CriteresDesherbage criteres, Exemplaire.EtatExemplaire nouvelEtat,
+                                  Progression progression) {
+        try (Connection conn = getConnection()) {
+            int[] numeros = selectionner(conn, criteres, false);
+            conn.setAutoCommit(false);
+            int traites = 0;
+            for (int debut = 0; debut < numeros.length; debut += TAILLE_LOT) {
+                int[] lot = Arrays.copyOfRange(numeros, debut, Math.min(debut + TAILLE_LOT, numeros.length));
+                Lot verrouille;
+                try {
+                    verrouille = verrouiller(conn, criteres, false, lot, nouvelEtat);
+                    if (verrouille.numeros.length > 0) {
+                        try (PreparedStatement stmt = conn.prepareStatement("UPDATE EXEMPLAIRE SET etat = ? " +
+                                "WHERE numero_exemplaire IN " + marqueurs(verrouille.numeros.length))) {
+                            stmt.setString(1, nouvelEtat.getLibelle());
+                            for (int i = 0; i < verrouille.numeros.length; i++) {
+                                stmt.setInt(i + 2, verrouille.numeros[i]);
+                            }
+                            stmt.executeUpdate();
+                        }
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+
+                for (int i = 0; i < verrouille.numeros.length; i++) {
+                    JournalAudit.journaliser("exemplaire", EvenementAudit.Operation.MODIFICATION,
+                            String.valueOf(verrouille.numeros[i]), verrouille.images[i], verrouille.imagesApres[i]);
+                }
+                traites += verrouille.numeros.length;
+                if (progression != null) {
+                    progression.avancer(debut + lot.length, numeros.length);
+                }
+            }
+            System.out.println(traites + " exemplaire(s) passé(s) à l'état " + nouvelEtat.getLibelle());
+            return traites;
+        } catch (SQLException e) {
+            System.err.println("Erreur lors du changement d'état en masse, lot en cours annulé: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Supprime les exemplaires correspondant aux critères.
+     * Les exemplaires ayant un historique d'emprunt sont conservés (contrainte emprunt_ibfk_2).
+     * @param criteres critères de sélection des exemplaires
+     * @param progression suivi de l'avancement (peut être null)
+     * @return le nombre d'exemplaires supprimés, ou -1 si l'opération a été interrompue par une erreur
+     */
+    public static int supprimer(CriteresDesherbage criteres, Progression progression) {
+        try (Connection conn = getConnection()) {
+            int[] numeros = selectionner(conn, criteres, true);
+            conn.setAutoCommit(false);
+            int traites = 0;
+            for (int debut = 0; debut < numeros.length; debut += TAILLE_LOT) {
+                int[] lot = Arrays.copyOfRange(numeros, debut, Math.min(debut + TAILLE_LOT, numeros.length));
+                Lot verrouille;
+                try {
+                    // Images conservées pour le journal d'audit, lues sous le verrou de la suppression
+                    verrouille = verrouiller(conn, criteres, true, lot, null);
+                    if (verrouille.numeros.length > 0) {
+                        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM EXEMPLAIRE " +
+                                "WHERE numero_exemplaire IN " + marqueurs(verrouille.numeros.length))) {
+                            for (int i = 0; i < verrouille.numeros.length; i++) {
+                                stmt.setInt(i + 1, verrouille.numeros[i]);
+                            }
+                            stmt.executeUpdate();
+                        }
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+
+                for (int i = 0; i < verrouille.numeros.length; i++) {
+                    JournalAudit.journaliser("exemplaire", EvenementAudit.Operation.SUPPRESSION,
+                            String.valueOf(verrouille.numeros[i]), verrouille.images[i], null);
+                }
+                traites += verrouille.numeros.length;
+                if (progression != null) {
+                    progression.avancer(debut + lot.length, numeros.length);
+                }
+            }
+            System.out.println(traites + " exemplaire(s) supprimé(s)");
+            return traites;
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la suppression en masse, lot en cours annulé: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    // Exemplaires d'un lot verrouillés, avec leurs images d'audit avant et après l'opération
+    private static class Lot {
+        private int[] numeros;
+        private String[] images;
+        private String[] imagesApres;
+    }
+
+    // Clause FROM ... WHERE commune à la sélection et au verrouillage d'un lot
+    private static String depuis(CriteresDesherbage criteres, boolean sansHistorique) {
+        return " FROM EXEMPLAIRE e JOIN LIVRE l ON e.isbn = l.isbn" + criteres.clauseWhere() +
+                (sansHistorique ? " AND NOT EXISTS (SELECT 1 FROM EMPRUNT h " +
+                        "WHERE h.numero_exemplaire = e.numero_exemplaire)" : "");
+    }
+
+    /**
+     * Sélectionne, sans les verrouiller, les exemplaires correspondant aux critères
+     * @param conn connexion ouverte, en mode auto-commit
+     * @param criteres critères de sélection
+     * @param sansHistorique true pour exclure les exemplaires déjà empruntés
+     * @return les numéros des exemplaires, croissants
+     * @throws SQLException en cas d'erreur d'accès à la base
+     */
+    private static int[] selectionner(Connection conn, CriteresDesherbage criteres, boolean sansHistorique)
+            throws SQLException {
+        String query = "SELECT e.numero_exemplaire" + depuis(criteres, sansHistorique) + " ORDER BY e.numero_exemplaire";
+
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            criteres.parametrer(stmt, 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                int[] numeros = new int[1024];
+                int taille = 0;
+                while (rs.next()) {
+                    if (taille == numeros.length) {
+                        numeros = Arrays.copyOf(numeros, taille * 2);
+                    }
+                    numeros[taille++] = rs.getInt(1);
+                }
+                return Arrays.copyOf(numeros, taille);
+            }
+        }
+    }
+
+    /**
+     * Verrouille les exemplaires d'un lot qui correspondent encore aux critères.
+     * Seules les lignes d'EXEMPLAIRE sont verrouillées, pas les livres joints.
+     * @param conn connexion ouverte, hors mode auto-commit
+     * @param criteres critères de sélection
+     * @param sansHistorique true pour exclure les exemplaires déjà empruntés
+     * @param lot numéros sélectionnés, non vide
+     * @param nouvelEtat état appliqué au lot, ou null pour une suppression (sans image après)
+     * @return les exemplaires verrouillés, par numéro croissant
+     * @throws SQLException en cas d'erreur d'accès à la base
+     */
+    private static Lot verrouiller(Connection conn, CriteresDesherbage criteres, boolean sansHistorique, int[] lot,
+                                   Exemplaire.EtatExemplaire nouvelEtat) throws SQLException {
+        String query = "SELECT e.*" + depuis(criteres, sansHistorique) +
+                " AND e.numero_exemplaire IN " + marqueurs(lot.length) +
+                " ORDER BY e.numero_exemplaire FOR UPDATE OF e";
+
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            int suivant = criteres.parametrer(stmt, 1);
+            for (int i = 0; i < lot.length; i++) {
+                stmt.setInt(suivant + i, lot[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                Lot verrouille = new Lot();
+                verrouille.numeros = new int[lot.length];
+                verrouille.images = new String[lot.length];
+                verrouille.imagesApres = new String[lot.length];
+                int taille = 0;
+                while (rs.next()) {
+                    verrouille.numeros[taille] = rs.getInt("numero_exemplaire");
+                    verrouille.images[taille] = Exemplaire.imageAudit(rs);
+                    if (nouvelEtat != null) {
+                        verrouille.imagesApres[taille] = Exemplaire.imageAudit(rs, nouvelEtat.getLibelle());
+                    }
+                    taille++;
+                }
+                verrouille.numeros = Arrays.copyOf(verrouille.numeros, taille);
+                verrouille.images = Arrays.copyOf(verrouille.images, taille);
+                verrouille.imagesApres = Arrays.copyOf(verrouille.imagesApres, taille);
+                return verrouille;
+            }
+        }
+    }
+
+    // Liste de marqueurs "(?, ?, ...)" pour une clause IN
+    private static String marqueurs(int nombre) {
+        return "(" + "?, ".repeat(nombre - 1) + "?)";
+    }
+}
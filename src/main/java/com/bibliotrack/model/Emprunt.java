@@ -0,0 +1,324 @@
+package com.bibliotrack.model;
+
+import com.bibliotrack.model.audit.EvenementAudit;
+import com.bibliotrack.model.audit.JournalAudit;
+import com.bibliotrack.model.recommandation.Recommandations;
+import com.bibliotrack.model.resilience.AccesBaseException;
+import com.bibliotrack.model.resilience.AccesResilient;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+
+/**
+ * Classe représentant l'emprunt d'un exemplaire par un lecteur.
+ * La disponibilité de l'exemplaire est mise à jour par les déclencheurs
+ * after_emprunt_insert et after_emprunt_update.
+ */
+public class Emprunt {
+    // Attributs correspondant aux colonnes de la table EMPRUNT
+    private int idEmprunt;                      // Identifiant unique auto-généré
+    private LocalDateTime dateEmprunt;          // Date de sortie de l'exemplaire
+    private LocalDateTime dateRetourPrevue;     // Date de retour attendue
+    private LocalDateTime dateRetourEffectif;   // Date de retour réelle (null tant que l'emprunt est en cours)
+    private StatutEmprunt statut;               // Statut de l'emprunt
+    private int idLecteur;                      // Lecteur emprunteur
+    private int numeroExemplaire;               // Exemplaire emprunté
+    private Integer idResponsable;              // Responsable ayant enregistré l'emprunt (facultatif)
+
+    /**
+     * Enumération des statuts possibles d'un emprunt
+     * Correspond à l'ENUM('en cours','retard','rendu','perdu') dans la base de données
+     */
+    public enum StatutEmprunt {
+        EN_COURS("en cours"),
+        RETARD("retard"),
+        RENDU("rendu"),
+        PERDU("perdu");
+
+        private final String libelle; // Libellé correspondant à la valeur en base
+
+        StatutEmprunt(String libelle) {
+            this.libelle = libelle;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+
+        /**
+         * Convertit une chaîne de caractères en valeur d'énumération
+         * @param text Le texte à convertir
+         * @return Le statut correspondant (EN_COURS par défaut si non trouvé)
+         */
+        public static StatutEmprunt fromString(String text) {
+            for (StatutEmprunt s : StatutEmprunt.values()) {
+                if (s.libelle.equalsIgnoreCase(text)) {
+                    return s;
+                }
+            }
+            return EN_COURS; // Valeur par défaut
+        }
+    }
+
+    // ==================== CONSTRUCTEURS ====================
+
+    /**
+     * Constructeur par défaut nécessaire pour certaines opérations
+     */
+    public Emprunt() {
+    }
+
+    /**
+     * Constructeur pour un nouvel emprunt
+     * @param idLecteur Lecteur emprunteur
+     * @param numeroExemplaire Exemplaire emprunté
+     * @param dateRetourPrevue Date de retour attendue
+     */
+    public Emprunt(int idLecteur, int numeroExemplaire, LocalDateTime dateRetourPrevue) {
+        this.idLecteur = idLecteur;
+        this.numeroExemplaire = numeroExemplaire;
+        this.dateRetourPrevue = dateRetourPrevue;
+        this.dateEmprunt = LocalDateTime.now();
+        this.statut = StatutEmprunt.EN_COURS;
+    }
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public int getIdEmprunt() {
+        return idEmprunt;
+    }
+
+    public void setIdEmprunt(int idEmprunt) {
+        this.idEmprunt = idEmprunt;
+    }
+
+    public LocalDateTime getDateEmprunt() {
+        return dateEmprunt;
+    }
+
+    public void setDateEmprunt(LocalDateTime dateEmprunt) {
+        this.dateEmprunt = dateEmprunt;
+    }
+
+    public LocalDateTime getDateRetourPrevue() {
+        return dateRetourPrevue;
+    }
+
+    public void setDateRetourPrevue(LocalDateTime dateRetourPrevue) {
+        this.dateRetourPrevue = dateRetourPrevue;
+    }
+
+    public LocalDateTime getDateRetourEffectif() {
+        return dateRetourEffectif;
+    }
+
+    public void setDateRetourEffectif(LocalDateTime dateRetourEffectif) {
+        this.dateRetourEffectif = dateRetourEffectif;
+    }
+
+    public StatutEmprunt getStatut() {
+        return statut;
+    }
+
+    public void setStatut(StatutEmprunt statut) {
+        this.statut = statut;
+    }
+
+    public int getIdLecteur() {
+        return idLecteur;
+    }
+
+    public void setIdLecteur(int idLecteur) {
+        this.idLecteur = idLecteur;
+    }
+
+    public int getNumeroExemplaire() {
+        return numeroExemplaire;
+    }
+
+    public void setNumeroExemplaire(int numeroExemplaire) {
+        this.numeroExemplaire = numeroExemplaire;
+    }
+
+    public Integer getIdResponsable() {
+        return idResponsable;
+    }
+
+    public void setIdResponsable(Integer idResponsable) {
+        this.idResponsable = idResponsable;
+    }
+
+    // ==================== METHODES D'ACCES A LA BASE ====================
+
+    /**
+     * @return l'image d'audit de l'emprunt courant, construite sans accès à la base
+     */
+    private String imageAudit() {
+        return "id_emprunt=" + idEmprunt +
+                ";date_emprunt=" + dateEmprunt +
+                ";date_retour_prevue=" + dateRetourPrevue +
+                ";date_retour_effectif=" + dateRetourEffectif +
+                ";statut=" + (statut == null ? null : statut.getLibelle()) +
+                ";id_lecteur=" + idLecteur +
+                ";numero_exemplaire=" + numeroExemplaire +
+                ";id_responsable=" + idResponsable;
+    }
+
+    // ==================== METHODES METIER ====================
+
+    /**
+     * Enregistre la sortie de l'exemplaire (le déclencheur after_emprunt_insert le rend indisponible).
+     * Si l'exemplaire était mis de côté pour ce lecteur, sa réservation est honorée,
+     * et l'emprunt est pris en compte par les recommandations de lecture.
+     * Met à jour l'identifiant avec la valeur générée.
+     * @throws AccesBaseException si l'emprunt n'a pas pu être enregistré
+     */
+    public void ajouterEmprunt() throws AccesBaseException {
+        String query = "INSERT INTO EMPRUNT (date_emprunt, date_retour_prevue, statut, id_lecteur, " +
+                "numero_exemplaire, id_responsable) VALUES (?, ?, ?, ?, ?, ?)";
+
+        AccesResilient.getInstance().ecrire(conn -> {
+            conn.setAutoCommit(false);
+            int isbn;
+            try (PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(dateEmprunt));
+                stmt.setTimestamp(2, dateRetourPrevue == null ? null : Timestamp.valueOf(dateRetourPrevue));
+                stmt.setString(3, statut.getLibelle());
+                stmt.setInt(4, idLecteur);
+                stmt.setInt(5, numeroExemplaire);
+                if (idResponsable == null) {
+                    stmt.setNull(6, Types.INTEGER);
+                } else {
+                    stmt.setInt(6, idResponsable);
+                }
+                stmt.executeUpdate();
+
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        this.idEmprunt = generatedKeys.getInt(1);
+                    }
+                }
+                Reservation.honorer(conn, numeroExemplaire, idLecteur);
+                isbn = lireIsbn(conn, numeroExemplaire);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            System.out.println("Emprunt enregistré avec succès. Numéro: " + idEmprunt);
+            JournalAudit.journaliser("emprunt", EvenementAudit.Operation.INSERTION,
+                    String.valueOf(idEmprunt), null, imageAudit());
+            Recommandations.getInstance().enregistrerEmprunt(idLecteur, isbn);
+            return null;
+        });
+    }
+
+    /**
+     * Enregistre le retour de l'exemplaire.
+     * Dans la même transaction, le déclencheur after_emprunt_update rend l'exemplaire disponible
+     * puis l'exemplaire est attribué à la première réservation en attente sur son ISBN, s'il y en a une.
+     * @return la réservation à laquelle l'exemplaire a été attribué, ou null
+     * @throws AccesBaseException si le retour n'a pas pu être enregistré
+     */
+    public Reservation enregistrerRetour() throws AccesBaseException {
+        String query = "UPDATE EMPRUNT SET date_retour_effectif = ?, statut = ? " +
+                "WHERE id_emprunt = ? AND date_retour_effectif IS NULL";
+        String imageAvant = imageAudit();
+        LocalDateTime maintenant = LocalDateTime.now();
+
+        return AccesResilient.getInstance().ecrire(conn -> {
+            conn.setAutoCommit(false);
+            Reservation attribuee = null;
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(maintenant));
+                stmt.setString(2, StatutEmprunt.RENDU.getLibelle());
+                stmt.setInt(3, idEmprunt);
+
+                if (stmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    System.out.println("Aucun emprunt en cours trouvé avec ce numéro");
+                    return null;
+                }
+                attribuee = Reservation.attribuerExemplaire(conn, numeroExemplaire);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                if (attribuee != null) {
+                    Reservation.annulerAttribution(attribuee);
+                }
+                throw e;
+            }
+            dateRetourEffectif = maintenant;
+            statut = StatutEmprunt.RENDU;
+            System.out.println("Retour enregistré avec succès");
+            JournalAudit.journaliser("emprunt", EvenementAudit.Operation.MODIFICATION,
+                    String.valueOf(idEmprunt), imageAvant, imageAudit());
+            return attribuee;
+        });
+    }
+
+    // ISBN du livre auquel appartient l'exemplaire
+    private static int lireIsbn(Connection conn, int numeroExemplaire) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT isbn FROM EXEMPLAIRE WHERE numero_exemplaire = ?")) {
+            stmt.setInt(1, numeroExemplaire);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Exemplaire introuvable: " + numeroExemplaire);
+                }
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Recherche un emprunt par son identifiant
+     * @param idEmprunt Identifiant de l'emprunt recherché
+     * @return Emprunt trouvé ou null si non trouvé
+     * @throws AccesBaseException si la lecture a échoué
+     */
+    public static Emprunt trouverEmpruntParId(int idEmprunt) throws AccesBaseException {
+        String query = "SELECT * FROM EMPRUNT WHERE id_emprunt = ?";
+
+        return AccesResilient.getInstance().lire(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+
+                stmt.setInt(1, idEmprunt);
+                ResultSet rs = stmt.executeQuery();
+
+                if (rs.next()) {
+                    return depuisResultSet(rs);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Construit un emprunt à partir de la ligne courante d'un ResultSet sur EMPRUNT
+     * @param rs résultat positionné sur un emprunt
+     * @return l'emprunt correspondant
+     * @throws SQLException en cas d'erreur de lecture
+     */
+    static Emprunt depuisResultSet(ResultSet rs) throws SQLException {
+        Emprunt emprunt = new Emprunt();
+        emprunt.idEmprunt = rs.getInt("id_emprunt");
+        emprunt.dateEmprunt = rs.getTimestamp("date_emprunt").toLocalDateTime();
+        Timestamp prevue = rs.getTimestamp("date_retour_prevue");
+        emprunt.dateRetourPrevue = prevue == null ? null : prevue.toLocalDateTime();
+        Timestamp effectif = rs.getTimestamp("date_retour_effectif");
+        emprunt.dateRetourEffectif = effectif == null ? null : effectif.toLocalDateTime();
+        emprunt.statut = StatutEmprunt.fromString(rs.getString("statut"));
+        emprunt.idLecteur = rs.getInt("id_lecteur");
+        emprunt.numeroExemplaire = rs.getInt("numero_exemplaire");
+        int responsable = rs.getInt("id_responsable");
+        emprunt.idResponsable = rs.wasNull() ? null : responsable;
+        return emprunt;
+    }
+
+    @Override
+    public String toString() {
+        return "Emprunt #" + idEmprunt + " - exemplaire " + numeroExemplaire +
+                " (" + (statut == null ? "" : statut.getLibelle()) + ")";
+    }
+}
@@ -1,5 +1,11 @@
 package com.bibliotrack.model;
 
+import com.bibliotrack.model.audit.EvenementAudit;
+import com.bibliotrack.model.audit.JournalAudit;
+import com.bibliotrack.model.resilience.AccesBaseException;
+import com.bibliotrack.model.resilience.AccesResilient;
+import com.bibliotrack.model.resilience.DonneesLues;
+
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -10,12 +16,30 @@ import java.util.List;
  * Chaque exemplaire est associé à un livre et possède ses propres caractéristiques.
  */
 public class Exemplaire {
+    // Exemplaires joints à leur livre, triés par numéro
+    private static final String REQUETE_EXEMPLAIRES = "SELECT e.*, l.titre, l.auteur, l.categorie, l.nombre_pages, " +
+            "l.nombre_exemplaires, l.date_creation AS date_creation_livre " +
+            "FROM EXEMPLAIRE e JOIN LIVRE l ON e.isbn = l.isbn " +
+            "ORDER BY e.numero_exemplaire";
+    // Exemplaires disponibles d'un livre, triés par numéro
+    private static final String REQUETE_DISPONIBLES = "SELECT e.*, l.titre, l.auteur, l.categorie, l.nombre_pages, " +
+            "l.nombre_exemplaires, l.date_creation AS date_creation_livre " +
+            "FROM EXEMPLAIRE e JOIN LIVRE l ON e.isbn = l.isbn " +
+            "WHERE e.isbn = ? AND e.disponible = true " +
+            "ORDER BY e.numero_exemplaire";
+    // Exemplaire de numéro donné
+    private static final String REQUETE_PAR_NUMERO = "SELECT e.*, l.titre, l.auteur, l.categorie, l.nombre_pages, " +
+            "l.nombre_exemplaires, l.date_creation AS date_creation_livre " +
+            "FROM EXEMPLAIRE e JOIN LIVRE l ON e.isbn = l.isbn " +
+            "WHERE e.numero_exemplaire = ?";
+
     // Attributs correspondant aux colonnes de la table EXEMPLAIRE
     private int numeroExemplaire;    // Identifiant unique auto-généré
     private EtatExemplaire etat;     // État physique de l'exemplaire
     private boolean disponible;      // Indique si l'exemplaire peut être emprunté
     private LocalDate dateCreation;  // Date d'ajout dans le système
     private Livre livre;             // Référence au livre associé
+    private Succursale succursale;   // Succursale détenant l'exemplaire (principale si null)
 
     /**
      * Enumération des états possibles d'un exemplaire
@@ -119,150 +143,249 @@ public class Exemplaire {
         this.livre = livre;
     }
 
+    public Succursale getSuccursale() {
+        return succursale;
+    }
+
+    public void setSuccursale(Succursale succursale) {
+        this.succursale = succursale;
+    }
+
     // ==================== METHODES D'ACCES A LA BASE ====================
 
     /**
-     * Établit une connexion à la base de données
+     * Établit une connexion à la base de la succursale détenant l'exemplaire
      * @return Connection objet de connexion JDBC
      * @throws SQLException en cas d'erreur de connexion
      */
     private Connection getConnection() throws SQLException {
-        String url = "jdbc:mysql://localhost/bibliodb";
-        String username = "root";
-        String password = "";
+        return (succursale == null ? Succursale.PRINCIPALE : succursale).getConnection();
+    }
 
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(url, username, password);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("Driver JDBC non trouvé", e);
+    /**
+     * Exécute une écriture sur la base de la succursale détenant l'exemplaire.
+     * Celles de la bibliothèque principale passent par l'accès résilient.
+     * @param requete l'écriture
+     * @param <T> type du résultat
+     * @return le résultat de la requête
+     * @throws AccesBaseException en cas d'erreur d'accès à la base
+     */
+    private <T> T ecrire(AccesResilient.RequeteBase<T> requete) throws AccesBaseException {
+        if (succursale == null || succursale == Succursale.PRINCIPALE) {
+            return AccesResilient.getInstance().ecrire(requete);
+        }
+        try (Connection conn = succursale.getConnection()) {
+            return requete.executer(conn);
+        } catch (SQLException e) {
+            throw AccesBaseException.depuis(e);
+        }
+    }
+
+    /**
+     * Lit et verrouille l'état actuel d'un exemplaire sous la forme enregistrée dans le journal d'audit.
+     * À appeler dans la transaction de la modification, pour que l'image corresponde à la ligne modifiée.
+     * @param conn connexion ouverte, hors autocommit
+     * @param numeroExemplaire numéro de l'exemplaire
+     * @return l'image de la ligne, ou null si l'exemplaire n'existe pas
+     * @throws SQLException en cas d'erreur de lecture
+     */
+    static String lireImage(Connection conn, int numeroExemplaire) throws SQLException {
+        String query = "SELECT numero_exemplaire, etat, disponible, date_creation, isbn " +
+                "FROM EXEMPLAIRE WHERE numero_exemplaire = ? FOR UPDATE";
+
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, numeroExemplaire);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? imageAudit(rs) : null;
+            }
         }
     }
 
+    /**
+     * Construit l'image d'audit de la ligne courante d'un ResultSet sur EXEMPLAIRE
+     * @param rs résultat positionné sur un exemplaire
+     * @return l'image de la ligne
+     * @throws SQLException en cas d'erreur de lecture
+     */
+    static String imageAudit(ResultSet rs) throws SQLException {
+        return imageAudit(rs, rs.getString("etat"));
+    }
+
+    /**
+     * Construit l'image d'audit de la ligne courante d'un ResultSet sur EXEMPLAIRE, avec un autre état
+     * @param rs résultat positionné sur un exemplaire
+     * @param etat libellé de l'état à faire figurer dans l'image
+     * @return l'image de la ligne une fois l'état modifié
+     * @throws SQLException en cas d'erreur de lecture
+     */
+    static String imageAudit(ResultSet rs, String etat) throws SQLException {
+        return "numero_exemplaire=" + rs.getInt("numero_exemplaire") +
+                ";etat=" + etat +
+                ";disponible=" + rs.getBoolean("disponible") +
+                ";date_creation=" + rs.getDate("date_creation") +
+                ";isbn=" + rs.getInt("isbn");
+    }
+
+    /**
+     * @return l'image d'audit de l'exemplaire courant, construite sans accès à la base
+     */
+    private String imageAudit() {
+        return "numero_exemplaire=" + numeroExemplaire +
+                ";etat=" + (etat == null ? null : etat.getLibelle()) +
+                ";disponible=" + disponible +
+                ";date_creation=" + dateCreation +
+                ";isbn=" + (livre == null ? null : livre.getIsbn());
+    }
+
     // ==================== METHODES METIER ====================
 
     /**
      * Ajoute l'exemplaire courant dans la base de données
      * Met à jour le numéro d'exemplaire avec la valeur générée
+     * @throws AccesBaseException si l'exemplaire n'a pas pu être ajouté
      */
-    public void ajouterExemplaire() {
+    public void ajouterExemplaire() throws AccesBaseException {
         String query = "INSERT INTO EXEMPLAIRE (etat, disponible, date_creation, isbn) " +
                 "VALUES (?, ?, ?, ?)";
 
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        ecrire(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 
-            // Paramétrage de la requête
-            stmt.setString(1, etat.getLibelle());
-            stmt.setBoolean(2, disponible);
-            stmt.setDate(3, Date.valueOf(dateCreation));
-            stmt.setInt(4, livre.getIsbn());
+                // Paramétrage de la requête
+                stmt.setString(1, etat.getLibelle());
+                stmt.setBoolean(2, disponible);
+                stmt.setDate(3, Date.valueOf(dateCreation));
+                stmt.setInt(4, livre.getIsbn());
 
-            int affectedRows = stmt.executeUpdate();
+                int affectedRows = stmt.executeUpdate();
 
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        this.numeroExemplaire = generatedKeys.getInt(1);
+                if (affectedRows > 0) {
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            this.numeroExemplaire = generatedKeys.getInt(1);
+                        }
                     }
+                    System.out.println("Exemplaire ajouté avec succès. Numéro: " + this.numeroExemplaire);
+                    JournalAudit.journaliser("exemplaire", EvenementAudit.Operation.INSERTION,
+                            String.valueOf(numeroExemplaire), null, imageAudit());
                 }
-                System.out.println("Exemplaire ajouté avec succès. Numéro: " + this.numeroExemplaire);
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de l'ajout de l'exemplaire: " + e.getMessage());
-        }
+            return null;
+        });
     }
 
     /**
      * Supprime l'exemplaire courant de la base de données
+     * @throws AccesBaseException si l'exemplaire n'a pas pu être supprimé
      */
-    public void supprimerExemplaire() {
+    public void supprimerExemplaire() throws AccesBaseException {
         String query = "DELETE FROM EXEMPLAIRE WHERE numero_exemplaire = ?";
 
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, numeroExemplaire);
-            int rowsAffected = stmt.executeUpdate();
+        ecrire(conn -> {
+            conn.setAutoCommit(false);
+            String imageAvant;
+            int rowsAffected;
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                // Image de la ligne conservée pour le journal d'audit
+                imageAvant = lireImage(conn, numeroExemplaire);
+
+                stmt.setInt(1, numeroExemplaire);
+                rowsAffected = stmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
             if (rowsAffected > 0) {
                 System.out.println("Exemplaire supprimé avec succès");
+                JournalAudit.journaliser("exemplaire", EvenementAudit.Operation.SUPPRESSION,
+                        String.valueOf(numeroExemplaire), imageAvant, null);
             } else {
                 System.out.println("Aucun exemplaire trouvé avec ce numéro");
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la suppression de l'exemplaire: " + e.getMessage());
-        }
+            return null;
+        });
     }
 
     /**
      * Met à jour les informations de l'exemplaire dans la base de données
+     * @throws AccesBaseException si l'exemplaire n'a pas pu être mis à jour
      */
-    public void modifierInformationExemplaire() {
+    public void modifierInformationExemplaire() throws AccesBaseException {
         String query = "UPDATE EXEMPLAIRE SET etat = ?, disponible = ? " +
                 "WHERE numero_exemplaire = ?";
 
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, etat.getLibelle());
-            stmt.setBoolean(2, disponible);
-            stmt.setInt(3, numeroExemplaire);
-
-            int rowsAffected = stmt.executeUpdate();
+        ecrire(conn -> {
+            conn.setAutoCommit(false);
+            String imageAvant;
+            int rowsAffected;
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                imageAvant = lireImage(conn, numeroExemplaire);
+
+                stmt.setString(1, etat.getLibelle());
+                stmt.setBoolean(2, disponible);
+                stmt.setInt(3, numeroExemplaire);
+
+                rowsAffected = stmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
             if (rowsAffected > 0) {
                 System.out.println("Informations de l'exemplaire mises à jour avec succès");
+                JournalAudit.journaliser("exemplaire", EvenementAudit.Operation.MODIFICATION,
+                        String.valueOf(numeroExemplaire), imageAvant, imageAudit());
             } else {
                 System.out.println("Aucun exemplaire trouvé avec ce numéro");
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la mise à jour de l'exemplaire: " + e.getMessage());
-        }
+            return null;
+        });
     }
 
     /**
-     * Récupère tous les exemplaires de la base de données
+     * Récupère tous les exemplaires de la base de données.
+     * En cas d'échec, une liste vide est retournée : préférer {@link #listerExemplaires()}.
      * @return List<Exemplaire> liste des exemplaires trouvés
      */
     public static List<Exemplaire> getAllExemplaires() {
-        List<Exemplaire> exemplaires = new ArrayList<>();
-        String query = "SELECT e.*, l.titre, l.auteur, l.categorie, l.nombre_pages, " +
-                "l.nombre_exemplaires, l.date_creation " +
-                "FROM EXEMPLAIRE e JOIN LIVRE l ON e.isbn = l.isbn";
-
-        try (Connection conn = new Exemplaire().getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-
-            while (rs.next()) {
-                // Création du livre associé
-                Livre livre = new Livre(
-                        rs.getInt("isbn"),
-                        rs.getString("titre"),
-                        rs.getString("auteur"),
-                        Livre.Categorie.fromString(rs.getString("categorie")),
-                        rs.getInt("nombre_pages"),
-                        rs.getInt("nombre_exemplaires"),
-                        rs.getDate("date_creation").toLocalDate()
-                );
-
-                // Création de l'exemplaire
-                Exemplaire exemplaire = new Exemplaire(
-                        rs.getInt("numero_exemplaire"),
-                        EtatExemplaire.fromString(rs.getString("etat")),
-                        rs.getBoolean("disponible"),
-                        rs.getDate("date_creation").toLocalDate(),
-                        livre
-                );
+        try {
+            return listerExemplaires().getDonnees();
+        } catch (AccesBaseException e) {
+            System.err.println("Erreur lors de la récupération de la liste des exemplaires: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
 
-                exemplaires.add(exemplaire);
+    /**
+     * Récupère tous les exemplaires de la base principale, en tolérant les pannes passagères.
+     * Si la base ne répond plus, la dernière liste lue est retournée, marquée périmée.
+     * @return les exemplaires trouvés, triés par numéro
+     * @throws AccesBaseException si la lecture a échoué et qu'aucune liste n'a encore été lue
+     */
+    public static DonneesLues<List<Exemplaire>> listerExemplaires() throws AccesBaseException {
+        return AccesResilient.getInstance().lire("exemplaires", conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(REQUETE_EXEMPLAIRES)) {
+                return lireExemplaires(stmt, Succursale.PRINCIPALE);
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération de la liste des exemplaires: " + e.getMessage());
+        });
+    }
+
+    /**
+     * Récupère tous les exemplaires d'une succursale, triés par numéro
+     * @param succursale la succursale interrogée
+     * @return List<Exemplaire> liste des exemplaires trouvés
+     * @throws SQLException en cas d'erreur d'accès à la base de la succursale
+     */
+    static List<Exemplaire> listerExemplaires(Succursale succursale) throws SQLException {
+        try (Connection conn = succursale.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(REQUETE_EXEMPLAIRES)) {
+            return lireExemplaires(stmt, succursale);
         }
-        return exemplaires;
     }
+
     @Override
     public String toString() {
         return "Exemplaire #" + numeroExemplaire + " - " + etat.getLibelle() +
@@ -339,21 +462,47 @@ public class Exemplaire {
      * Récupère les exemplaires disponibles pour un livre donné
      * @param isbn ISBN du livre recherché
      * @return List<Exemplaire> liste des exemplaires disponibles
+     * @throws AccesBaseException si la lecture a échoué
      */
-    public static List<Exemplaire> getExemplairesDisponiblesByLivre(int isbn) {
-        List<Exemplaire> exemplaires = new ArrayList<>();
-        String query = "SELECT e.*, l.titre, l.auteur, l.categorie, l.nombre_pages, " +
-                "l.nombre_exemplaires, l.date_creation " +
-                "FROM EXEMPLAIRE e JOIN LIVRE l ON e.isbn = l.isbn " +
-                "WHERE e.isbn = ? AND e.disponible = true";
-
-        try (Connection conn = new Exemplaire().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+    public static List<Exemplaire> getExemplairesDisponiblesByLivre(int isbn) throws AccesBaseException {
+        return AccesResilient.getInstance().lire(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(REQUETE_DISPONIBLES)) {
+                stmt.setInt(1, isbn);
+                return lireExemplaires(stmt, Succursale.PRINCIPALE);
+            }
+        });
+    }
 
+    /**
+     * Récupère les exemplaires disponibles d'un livre dans une succursale, triés par numéro
+     * @param succursale la succursale interrogée
+     * @param isbn ISBN du livre recherché
+     * @return List<Exemplaire> liste des exemplaires disponibles
+     * @throws SQLException en cas d'erreur d'accès à la base de la succursale
+     */
+    static List<Exemplaire> listerDisponibles(Succursale succursale, int isbn) throws SQLException {
+        try (Connection conn = succursale.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(REQUETE_DISPONIBLES)) {
             stmt.setInt(1, isbn);
-            ResultSet rs = stmt.executeQuery();
+            return lireExemplaires(stmt, succursale);
+        }
+    }
+
+    /**
+     * Exécute une requête sur EXEMPLAIRE joint à LIVRE et construit les exemplaires trouvés
+     * @param stmt requête paramétrée, sélectionnant e.* et les colonnes du livre
+     * @param succursale succursale d'origine des exemplaires
+     * @return List<Exemplaire> liste des exemplaires trouvés
+     * @throws SQLException en cas d'erreur de lecture
+     */
+    private static List<Exemplaire> lireExemplaires(PreparedStatement stmt, Succursale succursale) throws SQLException {
+        List<Exemplaire> exemplaires = new ArrayList<>();
+        stmt.setQueryTimeout(succursale.getDelaiSecondes());
 
+        try (ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
+                // Création du livre associé
+                Date dateLivre = rs.getDate("date_creation_livre");
                 Livre livre = new Livre(
                         rs.getInt("isbn"),
                         rs.getString("titre"),
@@ -361,64 +510,55 @@ public class Exemplaire {
                         Livre.Categorie.fromString(rs.getString("categorie")),
                         rs.getInt("nombre_pages"),
                         rs.getInt("nombre_exemplaires"),
-                        rs.getDate("date_creation").toLocalDate()
+                        dateLivre == null ? null : dateLivre.toLocalDate()
                 );
 
+                // Création de l'exemplaire
+                Date dateExemplaire = rs.getDate("date_creation");
                 Exemplaire exemplaire = new Exemplaire(
                         rs.getInt("numero_exemplaire"),
                         EtatExemplaire.fromString(rs.getString("etat")),
                         rs.getBoolean("disponible"),
-                        rs.getDate("date_creation").toLocalDate(),
+                        dateExemplaire == null ? null : dateExemplaire.toLocalDate(),
                         livre
                 );
+                exemplaire.succursale = succursale;
 
                 exemplaires.add(exemplaire);
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des exemplaires disponibles: " + e.getMessage());
         }
         return exemplaires;
     }
 
     /**
-     * Recherche un exemplaire par son numéro
+     * Recherche un exemplaire par son numéro dans la bibliothèque principale
+     * (voir ReseauSuccursales#trouverExemplaire pour les autres succursales)
      * @param numeroExemplaire Numéro de l'exemplaire recherché
      * @return Exemplaire trouvé ou null si non trouvé
+     * @throws AccesBaseException si la lecture a échoué
      */
-    public static Exemplaire trouverExemplaireParNumero(int numeroExemplaire) {
-        String query = "SELECT e.*, l.titre, l.auteur, l.categorie, l.nombre_pages, " +
-                "l.nombre_exemplaires, l.date_creation " +
-                "FROM EXEMPLAIRE e JOIN LIVRE l ON e.isbn = l.isbn " +
-                "WHERE e.numero_exemplaire = ?";
-
-        try (Connection conn = new Exemplaire().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+    public static Exemplaire trouverExemplaireParNumero(int numeroExemplaire) throws AccesBaseException {
+        List<Exemplaire> exemplaires = AccesResilient.getInstance().lire(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(REQUETE_PAR_NUMERO)) {
+                stmt.setInt(1, numeroExemplaire);
+                return lireExemplaires(stmt, Succursale.PRINCIPALE);
+            }
+        });
+        return exemplaires.isEmpty() ? null : exemplaires.get(0);
+    }
 
+    /**
+     * Recherche un exemplaire par son numéro dans une succursale
+     * @param succursale la succursale interrogée
+     * @param numeroExemplaire Numéro de l'exemplaire recherché
+     * @return List<Exemplaire> l'exemplaire trouvé, ou une liste vide
+     * @throws SQLException en cas d'erreur d'accès à la base de la succursale
+     */
+    static List<Exemplaire> listerParNumero(Succursale succursale, int numeroExemplaire) throws SQLException {
+        try (Connection conn = succursale.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(REQUETE_PAR_NUMERO)) {
             stmt.setInt(1, numeroExemplaire);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                Livre livre = new Livre(
-                        rs.getInt("isbn"),
-                        rs.getString("titre"),
-                        rs.getString("auteur"),
-                        Livre.Categorie.fromString(rs.getString("categorie")),
-                        rs.getInt("nombre_pages"),
-                        rs.getInt("nombre_exemplaires"),
-                        rs.getDate("date_creation").toLocalDate()
-                );
-
-                return new Exemplaire(
-                        rs.getInt("numero_exemplaire"),
-                        EtatExemplaire.fromString(rs.getString("etat")),
-                        rs.getBoolean("disponible"),
-                        rs.getDate("date_creation").toLocalDate(),
-                        livre
-                );
-            }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la recherche de l'exemplaire: " + e.getMessage());
+            return lireExemplaires(stmt, succursale);
         }
-        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.bibliotrack.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Files d'attente des réservations en mémoire, une par ISBN.
+ *
+ * Chaque file est une deque non bloquante : les retours et les nouvelles réservations
+ * d'un titre très demandé ne se disputent aucun verrou, et deux ISBN différents ne
+ * partagent aucune structure. L'attribution repose sur le changement atomique du statut
+ * de la réservation, si bien qu'une réservation n'est jamais attribuée deux fois et
+ * qu'une réservation annulée entre-temps est simplement ignorée.
+ *
+ * Ces files ne valent que pour le poste qui les a chargées : elles ne voient pas les
+ * réservations prises à un autre poste. L'attribution d'un exemplaire rendu choisit donc
+ * la réservation dans la table RESERVATION, puis la retire d'ici
+ * (voir {@link Reservation#attribuerExemplaire}).
+ */
+public class FileReservations {
+    private final ConcurrentHashMap<Integer, ConcurrentLinkedDeque<Reservation>> files = new ConcurrentHashMap<>();
+
+    /**
+     * Place une réservation en attente à la fin de la file de son ISBN
+     * @param reservation la réservation en attente
+     */
+    public void ajouter(Reservation reservation) {
+        files.computeIfAbsent(reservation.getIsbn(), isbn -> new ConcurrentLinkedDeque<>())
+                .offerLast(reservation);
+    }
+
+    /**
+     * Retire de la file la plus ancienne réservation encore en attente et la marque attribuée
+     * @param isbn ISBN de l'exemplaire rendu
+     * @return la réservation attribuée, ou null si personne n'attend ce titre
+     */
+    public Reservation attribuer(int isbn) {
+        ConcurrentLinkedDeque<Reservation> file = files.get(isbn);
+        if (file == null) {
+            return null;
+        }
+        Reservation reservation;
+        while ((reservation = file.pollFirst()) != null) {
+            if (reservation.changerStatut(Reservation.StatutReservation.EN_ATTENTE,
+                    Reservation.StatutReservation.ATTRIBUEE)) {
+                return reservation;
+            }
+            // Réservation annulée depuis son ajout : on passe à la suivante
+        }
+        return null;
+    }
+
+    /**
+     * Retire de la file une réservation précise, choisie ailleurs, et la marque attribuée
+     * @param isbn ISBN réservé
+     * @param idReservation identifiant de la réservation
+     * @return la réservation attribuée, ou null si elle n'est pas en attente dans cette file
+     */
+    public Reservation attribuer(int isbn, int idReservation) {
+        ConcurrentLinkedDeque<Reservation> file = files.get(isbn);
+        if (file == null) {
+            return null;
+        }
+        for (Reservation reservation : file) {
+            if (reservation.getIdReservation() == idReservation) {
+                if (reservation.changerStatut(Reservation.StatutReservation.EN_ATTENTE,
+                        Reservation.StatutReservation.ATTRIBUEE)) {
+                    file.remove(reservation);
+                    return reservation;
+                }
+                return null;
+            }
+            if (reservation.getStatut() != Reservation.StatutReservation.EN_ATTENTE) {
+                file.remove(reservation);   // Annulée depuis son ajout
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remet en tête de file une réservation dont l'attribution n'a pas pu être validée
+     * @param reservation la réservation attribuée à remettre en attente
+     */
+    public void remettre(Reservation reservation) {
+        if (reservation.changerStatut(Reservation.StatutReservation.ATTRIBUEE,
+                Reservation.StatutReservation.EN_ATTENTE)) {
+            files.computeIfAbsent(reservation.getIsbn(), isbn -> new ConcurrentLinkedDeque<>())
+                    .offerFirst(reservation);
+        }
+    }
+
+    /**
+     * Annule une réservation en attente ; elle sera retirée de la file à son tour
+     * @param isbn ISBN réservé
+     * @param idReservation identifiant de la réservation
+     * @return la réservation annulée, ou null si elle n'est plus en attente
+     */
+    public Reservation annuler(int isbn, int idReservation) {
+        ConcurrentLinkedDeque<Reservation> file = files.get(isbn);
+        if (file == null) {
+            return null;
+        }
+        for (Reservation reservation : file) {
+            if (reservation.getIdReservation() == idReservation) {
+                return reservation.changerStatut(Reservation.StatutReservation.EN_ATTENTE,
+                        Reservation.StatutReservation.ANNULEE) ? reservation : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param isbn ISBN réservé
+     * @return les réservations en attente sur cet ISBN, dans l'ordre d'attribution
+     */
+    public List<Reservation> getFileAttente(int isbn) {
+        List<Reservation> attente = new ArrayList<>();
+        ConcurrentLinkedDeque<Reservation> file = files.get(isbn);
+        if (file != null) {
+            for (Reservation reservation : file) {
+                if (reservation.getStatut() == Reservation.StatutReservation.EN_ATTENTE) {
+                    attente.add(reservation);
+                }
+            }
+        }
+        return attente;
+    }
+}
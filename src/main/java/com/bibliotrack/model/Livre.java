@@ -1,9 +1,17 @@
 package com.bibliotrack.model;
 
+import com.bibliotrack.model.audit.EvenementAudit;
+import com.bibliotrack.model.audit.JournalAudit;
+import com.bibliotrack.model.resilience.AccesBaseException;
+import com.bibliotrack.model.resilience.AccesResilient;
+import com.bibliotrack.model.resilience.DonneesLues;
+
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Classe représentant un livre dans le système de gestion de bibliothèque
@@ -153,136 +161,223 @@ public class Livre {
     // Méthodes standard pour accéder et modifier les attributs
 
     /**
-     * Établit une connexion à la base de données
+     * Établit une connexion à la base de la bibliothèque principale
      * @return Connection objet de connexion JDBC
      * @throws SQLException en cas d'erreur de connexion
      */
     private Connection getConnection() throws SQLException {
-        String url = "jdbc:mysql://localhost/bibliodb";
-        String username = "root";
-        String password = "";
+        return Succursale.PRINCIPALE.getConnection();
+    }
 
-        try {
-            // Chargement du driver JDBC
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            // Création de la connexion
-            return DriverManager.getConnection(url, username, password);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("Driver JDBC non trouvé", e);
+    /**
+     * Lit et verrouille l'état actuel d'un livre sous la forme enregistrée dans le journal d'audit.
+     * À appeler dans la transaction de la modification, pour que l'image corresponde à la ligne modifiée.
+     * @param conn connexion ouverte, hors autocommit
+     * @param isbn ISBN du livre
+     * @return l'image de la ligne, ou null si le livre n'existe pas
+     * @throws SQLException en cas d'erreur de lecture
+     */
+    private static String lireImage(Connection conn, int isbn) throws SQLException {
+        String query = "SELECT * FROM LIVRE WHERE isbn = ? FOR UPDATE";
+
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, isbn);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return "isbn=" + rs.getInt("isbn") +
+                        ";titre=" + rs.getString("titre") +
+                        ";auteur=" + rs.getString("auteur") +
+                        ";categorie=" + rs.getString("categorie") +
+                        ";nombre_pages=" + rs.getInt("nombre_pages") +
+                        ";nombre_exemplaires=" + rs.getInt("nombre_exemplaires") +
+                        ";date_creation=" + rs.getDate("date_creation");
+            }
         }
     }
 
+    /**
+     * @return l'image d'audit du livre courant, construite sans accès à la base
+     */
+    private String imageAudit() {
+        return "isbn=" + isbn +
+                ";titre=" + titre +
+                ";auteur=" + auteur +
+                ";categorie=" + (categorie == null ? null : categorie.getLibelle()) +
+                ";nombre_pages=" + nombrePages +
+                ";nombre_exemplaires=" + nombreExemplaires +
+                ";date_creation=" + dateCreation;
+    }
+
     // ==================== METHODES METIER ====================
 
     /**
      * Ajoute le livre courant dans la base de données
+     * @throws AccesBaseException si le livre n'a pas pu être ajouté
      */
-    public void ajouterLivre() {
+    public void ajouterLivre() throws AccesBaseException {
         // Requête SQL paramétrée pour l'insertion
         String query = "INSERT INTO LIVRE (isbn, titre, auteur, categorie, nombre_pages, nombre_exemplaires, date_creation) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-        // Try-with-resources pour garantir la fermeture des ressources
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            // Remplissage des paramètres de la requête
-            stmt.setInt(1, isbn);
-            stmt.setString(2, titre);
-            stmt.setString(3, auteur);
-            stmt.setString(4, categorie.getLibelle());
-            stmt.setInt(5, nombrePages);
-            stmt.setInt(6, nombreExemplaires);
-            stmt.setDate(7, Date.valueOf(dateCreation));
-
-            // Exécution de la requête
-            stmt.executeUpdate();
-            System.out.println("Livre ajouté avec succès");
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de l'ajout du livre: " + e.getMessage());
-        }
+        // La connexion est ouverte, retentée et refermée par l'accès résilient
+        AccesResilient.getInstance().ecrire(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+
+                // Remplissage des paramètres de la requête
+                stmt.setInt(1, isbn);
+                stmt.setString(2, titre);
+                stmt.setString(3, auteur);
+                stmt.setString(4, categorie.getLibelle());
+                stmt.setInt(5, nombrePages);
+                stmt.setInt(6, nombreExemplaires);
+                stmt.setDate(7, Date.valueOf(dateCreation));
+
+                // Exécution de la requête
+                stmt.executeUpdate();
+                System.out.println("Livre ajouté avec succès");
+                JournalAudit.journaliser("livre", EvenementAudit.Operation.INSERTION,
+                        String.valueOf(isbn), null, imageAudit());
+            }
+            return null;
+        });
     }
 
     /**
      * Supprime le livre courant de la base de données
+     * @throws AccesBaseException si le livre n'a pas pu être supprimé
      */
-    public void supprimerLivre() {
+    public void supprimerLivre() throws AccesBaseException {
         String query = "DELETE FROM LIVRE WHERE isbn = ?";
 
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+        AccesResilient.getInstance().ecrire(conn -> {
+            conn.setAutoCommit(false);
+            String imageAvant;
+            Map<Integer, String> exemplaires = new LinkedHashMap<>();
+            int rowsAffected;
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                // Images conservées pour le journal d'audit, y compris les exemplaires
+                // supprimés en cascade par la contrainte exemplaire_ibfk_1, que l'application
+                // ne verrait pas autrement. Elles sont verrouillées jusqu'à la suppression.
+                imageAvant = lireImage(conn, isbn);
+                try (PreparedStatement select = conn.prepareStatement(
+                        "SELECT * FROM EXEMPLAIRE WHERE isbn = ? FOR UPDATE")) {
+                    select.setInt(1, isbn);
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            exemplaires.put(rs.getInt("numero_exemplaire"), Exemplaire.imageAudit(rs));
+                        }
+                    }
+                }
 
-            stmt.setInt(1, isbn);
-            int rowsAffected = stmt.executeUpdate();
+                stmt.setInt(1, isbn);
+                rowsAffected = stmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
             if (rowsAffected > 0) {
                 System.out.println("Livre supprimé avec succès");
+                JournalAudit.journaliser("livre", EvenementAudit.Operation.SUPPRESSION,
+                        String.valueOf(isbn), imageAvant, null);
+                for (Map.Entry<Integer, String> exemplaire : exemplaires.entrySet()) {
+                    JournalAudit.journaliser("exemplaire", EvenementAudit.Operation.SUPPRESSION,
+                            String.valueOf(exemplaire.getKey()), exemplaire.getValue(), null);
+                }
             } else {
                 System.out.println("Aucun livre trouvé avec cet ISBN");
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la suppression du livre: " + e.getMessage());
-        }
+            return null;
+        });
     }
 
     /**
      * Met à jour les informations du livre dans la base de données
+     * @throws AccesBaseException si le livre n'a pas pu être mis à jour
      */
-    public void modifierInformationLivre() {
+    public void modifierInformationLivre() throws AccesBaseException {
         String query = "UPDATE LIVRE SET titre = ?, auteur = ?, categorie = ?, " +
                 "nombre_pages = ?, date_creation = ? WHERE isbn = ?";
 
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, titre);
-            stmt.setString(2, auteur);
-            stmt.setString(3, categorie.getLibelle());
-            stmt.setInt(4, nombrePages);
-            stmt.setDate(5, Date.valueOf(dateCreation));
-            stmt.setInt(6, isbn);
-
-            int rowsAffected = stmt.executeUpdate();
+        AccesResilient.getInstance().ecrire(conn -> {
+            conn.setAutoCommit(false);
+            String imageAvant;
+            int rowsAffected;
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                imageAvant = lireImage(conn, isbn);
+
+                stmt.setString(1, titre);
+                stmt.setString(2, auteur);
+                stmt.setString(3, categorie.getLibelle());
+                stmt.setInt(4, nombrePages);
+                stmt.setDate(5, Date.valueOf(dateCreation));
+                stmt.setInt(6, isbn);
+
+                rowsAffected = stmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
             if (rowsAffected > 0) {
                 System.out.println("Informations du livre mises à jour avec succès");
+                JournalAudit.journaliser("livre", EvenementAudit.Operation.MODIFICATION,
+                        String.valueOf(isbn), imageAvant, imageAudit());
             } else {
                 System.out.println("Aucun livre trouvé avec cet ISBN");
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la mise à jour du livre: " + e.getMessage());
-        }
+            return null;
+        });
     }
 
     /**
-     * Récupère tous les livres de la base de données
+     * Récupère tous les livres de la base de données.
+     * En cas d'échec, une liste vide est retournée : préférer {@link #listerLivres()}.
      * @return List<Livre> liste des livres trouvés
      */
     public static List<Livre> getAllLivres() {
-        List<Livre> livres = new ArrayList<>();
-        String query = "SELECT * FROM LIVRE";
+        try {
+            return listerLivres().getDonnees();
+        } catch (AccesBaseException e) {
+            System.err.println("Erreur lors de la récupération de la liste des livres: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
 
-        try (Connection conn = new Livre().getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+    /**
+     * Récupère tous les livres de la base de données, en tolérant les pannes passagères.
+     * Si la base ne répond plus, la dernière liste lue est retournée, marquée périmée.
+     * @return les livres trouvés
+     * @throws AccesBaseException si la lecture a échoué et qu'aucune liste n'a encore été lue
+     */
+    public static DonneesLues<List<Livre>> listerLivres() throws AccesBaseException {
+        String query = "SELECT * FROM LIVRE";
 
-            // Parcours des résultats et création des objets Livre
-            while (rs.next()) {
-                Livre livre = new Livre(
-                        rs.getInt("isbn"),
-                        rs.getString("titre"),
-                        rs.getString("auteur"),
-                        Categorie.fromString(rs.getString("categorie")),
-                        rs.getInt("nombre_pages"),
-                        rs.getInt("nombre_exemplaires"),
-                        rs.getDate("date_creation").toLocalDate()
-                );
-                livres.add(livre);
+        return AccesResilient.getInstance().lire("livres", conn -> {
+            List<Livre> livres = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(query)) {
+
+                // Parcours des résultats et création des objets Livre
+                while (rs.next()) {
+                    Livre livre = new Livre(
+                            rs.getInt("isbn"),
+                            rs.getString("titre"),
+                            rs.getString("auteur"),
+                            Categorie.fromString(rs.getString("categorie")),
+                            rs.getInt("nombre_pages"),
+                            rs.getInt("nombre_exemplaires"),
+                            rs.getDate("date_creation").toLocalDate()
+                    );
+                    livres.add(livre);
+                }
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération de la liste des livres: " + e.getMessage());
-        }
-        return livres;
+            return livres;
+        });
     }
 
     @Override
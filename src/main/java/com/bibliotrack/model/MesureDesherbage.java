@@ -0,0 +1,169 @@
+package com.bibliotrack.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Mesure les opérations en masse de {@link Desherbage} sur la base principale : aperçu,
+ * changement d'état puis suppression de 100 000 exemplaires par défaut. Pendant chaque
+ * opération, un second fil modifie en continu des exemplaires de la sélection, comme le
+ * ferait un prêt au guichet, et relève son attente la plus longue sur les verrous.
+ *
+ * Les exemplaires mesurés sont créés sur des livres réservés (ISBN à partir de
+ * {@link #PREMIER_ISBN}) avec une date d'ajout en 1901 : aucun exemplaire réel n'est donc
+ * sélectionné. Ils sont supprimés à la fin, et le journal d'audit est écrit dans un
+ * répertoire temporaire.
+ *
+ * Lancement : java -cp target/classes:mysql-connector-j.jar com.bibliotrack.model.MesureDesherbage [exemplaires]
+ */
+public class MesureDesherbage {
+    public static final int PREMIER_ISBN = 910_000_000;
+    private static final int EXEMPLAIRES_PAR_LIVRE = 100;
+    private static final LocalDate DATE_AJOUT = LocalDate.of(1901, 1, 1);
+
+    public static void main(String[] args) throws IOException, SQLException, InterruptedException {
+        int nombre = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int livres = (nombre + EXEMPLAIRES_PAR_LIVRE - 1) / EXEMPLAIRES_PAR_LIVRE;
+        Path repertoire = Files.createTempDirectory("audit-desherbage");
+        System.setProperty("bibliotrack.audit.dir", repertoire.toString());
+
+        CriteresDesherbage criteres = new CriteresDesherbage();
+        criteres.setCreeAvant(DATE_AJOUT.plusDays(1));
+        try {
+            nettoyer();
+            int[] numeros = preparer(nombre, livres);
+
+            long debut = System.nanoTime();
+            Desherbage.Apercu apercu = Desherbage.apercu(criteres);
+            System.out.printf("Aperçu : %s en %d ms%n", apercu, (System.nanoTime() - debut) / 1_000_000);
+
+            mesurer("Changement d'état", numeros,
+                    () -> Desherbage.changerEtat(criteres, Exemplaire.EtatExemplaire.MAUVAIS, null));
+
+            criteres.setEtats(EnumSet.of(Exemplaire.EtatExemplaire.MAUVAIS));
+            mesurer("Suppression", numeros, () -> Desherbage.supprimer(criteres, null));
+        } finally {
+            nettoyer();
+            try (Stream<Path> fichiers = Files.walk(repertoire)) {
+                for (Path fichier : fichiers.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(fichier);
+                }
+            }
+        }
+    }
+
+    // Opération mesurée, rendant le nombre d'exemplaires traités
+    @FunctionalInterface
+    private interface Operation {
+        int executer();
+    }
+
+    // Exécute l'opération pendant qu'un second fil modifie des exemplaires de la sélection un par un
+    private static void mesurer(String libelle, int[] numeros, Operation operation) throws InterruptedException {
+        AtomicBoolean fini = new AtomicBoolean();
+        long[] attenteMax = new long[1];
+        int[] modifications = new int[1];
+        Thread guichet = new Thread(() -> {
+            try (Connection conn = Succursale.PRINCIPALE.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(
+                         "UPDATE EXEMPLAIRE SET disponible = disponible WHERE numero_exemplaire = ?")) {
+                while (!fini.get()) {
+                    stmt.setInt(1, numeros[ThreadLocalRandom.current().nextInt(numeros.length)]);
+                    long debut = System.nanoTime();
+                    stmt.executeUpdate();
+                    attenteMax[0] = Math.max(attenteMax[0], System.nanoTime() - debut);
+                    modifications[0]++;
+                }
+            } catch (SQLException e) {
+                System.err.println("Erreur du guichet simulé: " + e.getMessage());
+            }
+        }, "guichet");
+
+        guichet.start();
+        long debut = System.nanoTime();
+        int traites = operation.executer();
+        long duree = System.nanoTime() - debut;
+        fini.set(true);
+        guichet.join();
+
+        System.out.printf("%s : %d exemplaire(s) en %d ms (%.0f/s) ; guichet : %d modification(s), attente max %d ms%n",
+                libelle, traites, duree / 1_000_000, traites * 1e9 / Math.max(1, duree),
+                modifications[0], attenteMax[0] / 1_000_000);
+    }
+
+    // Crée les livres et exemplaires mesurés, et rend les numéros des exemplaires
+    private static int[] preparer(int nombre, int livres) throws SQLException {
+        try (Connection conn = Succursale.PRINCIPALE.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO LIVRE (isbn, titre, auteur, " +
+                        "categorie, nombre_pages, nombre_exemplaires, date_creation) " +
+                        "VALUES (?, ?, 'Auteur de mesure', 'Roman', 100, 0, ?)")) {
+                    for (int i = 0; i < livres; i++) {
+                        stmt.setInt(1, PREMIER_ISBN + i);
+                        stmt.setString(2, "Titre de mesure " + i);
+                        stmt.setDate(3, java.sql.Date.valueOf(DATE_AJOUT));
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO EXEMPLAIRE " +
+                        "(etat, disponible, date_creation, isbn) VALUES ('bon', TRUE, ?, ?)")) {
+                    for (int i = 0; i < nombre; i++) {
+                        stmt.setDate(1, java.sql.Date.valueOf(DATE_AJOUT));
+                        stmt.setInt(2, PREMIER_ISBN + i / EXEMPLAIRES_PAR_LIVRE);
+                        stmt.addBatch();
+                        if ((i + 1) % Desherbage.TAILLE_LOT == 0) {
+                            stmt.executeBatch();
+                        }
+                    }
+                    stmt.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+            List<Integer> numeros = new ArrayList<>(nombre);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT numero_exemplaire FROM EXEMPLAIRE WHERE isbn BETWEEN ? AND ?")) {
+                stmt.setInt(1, PREMIER_ISBN);
+                stmt.setInt(2, PREMIER_ISBN + livres - 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        numeros.add(rs.getInt(1));
+                    }
+                }
+            }
+            return numeros.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    // Supprime les exemplaires et livres mesurés, y compris ceux laissés par une exécution interrompue
+    private static void nettoyer() throws SQLException {
+        try (Connection conn = Succursale.PRINCIPALE.getConnection()) {
+            for (String table : new String[]{"EXEMPLAIRE", "LIVRE"}) {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "DELETE FROM " + table + " WHERE isbn BETWEEN ? AND ?")) {
+                    stmt.setInt(1, PREMIER_ISBN);
+                    stmt.setInt(2, PREMIER_ISBN + 9_999_999);
+                    stmt.executeUpdate();
+                }
+            }
+        }
+    }
+}
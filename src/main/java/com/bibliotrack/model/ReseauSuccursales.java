@@ -0,0 +1,283 @@
+package com.bibliotrack.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Réseau de bibliothèques, chacune avec sa propre base bibliodb.
+ *
+ * Les questions portant sur tout le réseau sont posées en parallèle à chaque succursale
+ * (dispersion), puis les réponses sont fusionnées dans un ordre commun (regroupement).
+ * Une succursale lente ou injoignable n'empêche pas de répondre : passé le délai, le
+ * résultat est rendu partiel et la succursale est listée parmi les échecs.
+ *
+ * Annuler une tâche ne fait que l'interrompre, et une lecture JDBC bloquée ignore les
+ * interruptions : chaque succursale reçoit donc un délai de connexion et de requête au plus
+ * égal à celui du réseau, pour que ses requêtes se terminent d'elles-mêmes, et les requêtes
+ * s'exécutent sur un nombre borné de fils.
+ *
+ * Fichier de configuration (format properties) :
+ * <pre>
+ * succursales=centre,nord
+ * delai=3000
+ * succursale.centre.nom=Bibliothèque du centre
+ * succursale.centre.url=jdbc:mysql://localhost:3307/bibliodb
+ * succursale.centre.utilisateur=root
+ * succursale.centre.motDePasse=
+ * succursale.centre.delai=2
+ * </pre>
+ */
+public class ReseauSuccursales {
+    private final List<Succursale> succursales;    // Succursales, dans l'ordre de préférence
+    private final Map<String, Integer> rangs;       // Code de succursale -> rang dans l'ordre de préférence
+    private final long delaiMillis;                 // Délai maximal d'une interrogation du réseau
+    private final ExecutorService executeur;        // Fils d'interrogation, deux par succursale
+
+    /**
+     * Requête exécutée sur une succursale
+     * @param <T> type des éléments retournés
+     */
+    @FunctionalInterface
+    public interface RequeteSuccursale<T> {
+        List<T> executer(Succursale succursale) throws SQLException;
+    }
+
+    /**
+     * Résultat d'une interrogation du réseau, éventuellement partiel
+     * @param <T> type des éléments retournés
+     */
+    public static class ResultatReseau<T> {
+        private final List<T> resultats;
+        private final Map<String, String> echecs;  // Code de succursale -> cause de l'échec
+
+        ResultatReseau(List<T> resultats, Map<String, String> echecs) {
+            this.resultats = resultats;
+            this.echecs = echecs;
+        }
+
+        public List<T> getResultats() {
+            return resultats;
+        }
+
+        public Map<String, String> getEchecs() {
+            return echecs;
+        }
+
+        /**
+         * @return true si toutes les succursales ont répondu à temps
+         */
+        public boolean isComplet() {
+            return echecs.isEmpty();
+        }
+    }
+
+    /**
+     * Les succursales sans délai, ou dont le délai dépasse celui du réseau, sont bornées par ce dernier.
+     * @param succursales succursales du réseau, dans l'ordre de préférence
+     * @param delaiMillis délai maximal d'une interrogation du réseau
+     */
+    public ReseauSuccursales(List<Succursale> succursales, long delaiMillis) {
+        int plafond = (int) Math.max(1, (delaiMillis + 999) / 1000);   // Les pilotes comptent en secondes
+        List<Succursale> bornees = new ArrayList<>();
+        for (Succursale succursale : succursales) {
+            int delai = succursale.getDelaiSecondes();
+            bornees.add(delai > 0 && delai <= plafond ? succursale : succursale.avecDelai(plafond));
+        }
+        this.succursales = List.copyOf(bornees);
+        this.rangs = new HashMap<>();
+        for (int i = 0; i < bornees.size(); i++) {
+            rangs.putIfAbsent(bornees.get(i).getCode(), i);
+        }
+        this.delaiMillis = delaiMillis;
+
+        // Une interrogation abandonnée occupe encore ses fils jusqu'à l'expiration du délai de la succursale :
+        // deux fils par succursale laissent passer l'interrogation suivante sans accumuler de fils
+        this.executeur = Executors.newFixedThreadPool(Math.max(1, 2 * bornees.size()), r -> {
+            Thread t = new Thread(r, "bibliotrack-reseau");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Charge la liste des succursales depuis un fichier de configuration
+     * @param fichier le fichier properties décrivant le réseau
+     * @return le réseau configuré
+     * @throws IOException en cas d'erreur de lecture ou de configuration incomplète
+     */
+    public static ReseauSuccursales charger(Path fichier) throws IOException {
+        Properties config = new Properties();
+        try (Reader lecteur = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+            config.load(lecteur);
+        }
+
+        List<Succursale> succursales = new ArrayList<>();
+        for (String code : config.getProperty("succursales", "").split(",")) {
+            code = code.trim();
+            if (code.isEmpty()) {
+                continue;
+            }
+            String prefixe = "succursale." + code + ".";
+            String url = config.getProperty(prefixe + "url");
+            if (url == null) {
+                throw new IOException("URL manquante pour la succursale " + code);
+            }
+            succursales.add(new Succursale(code,
+                    config.getProperty(prefixe + "nom", code),
+                    url,
+                    config.getProperty(prefixe + "utilisateur", "root"),
+                    config.getProperty(prefixe + "motDePasse", ""),
+                    Integer.parseInt(config.getProperty(prefixe + "delai", "0"))));
+        }
+        return new ReseauSuccursales(succursales, Long.parseLong(config.getProperty("delai", "5000")));
+    }
+
+    public List<Succursale> getSuccursales() {
+        return succursales;
+    }
+
+    /**
+     * @param code identifiant de la succursale
+     * @return la succursale correspondante, ou null si elle n'existe pas
+     */
+    public Succursale getSuccursale(String code) {
+        for (Succursale succursale : succursales) {
+            if (succursale.getCode().equals(code)) {
+                return succursale;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param succursale une succursale du réseau
+     * @return son rang dans l'ordre de préférence, ou -1 si elle n'appartient pas au réseau
+     */
+    int rang(Succursale succursale) {
+        return rangs.getOrDefault(succursale.getCode(), -1);
+    }
+
+    // ==================== REQUETES RESEAU ====================
+
+    /**
+     * Recherche dans tout le réseau les exemplaires disponibles d'un livre.
+     * Les exemplaires sont regroupés par succursale, dans l'ordre de préférence du réseau.
+     * @param isbn ISBN du livre recherché
+     * @return les exemplaires disponibles, chacun rattaché à sa succursale
+     */
+    public ResultatReseau<Exemplaire> trouverDisponibles(int isbn) {
+        return interroger(s -> Exemplaire.listerDisponibles(s, isbn),
+                Comparator.comparingInt((Exemplaire e) -> rang(e.getSuccursale()))
+                        .thenComparingInt(Exemplaire::getNumeroExemplaire));
+    }
+
+    /**
+     * Recherche un exemplaire par son numéro dans toutes les succursales.
+     * Les numéros étant attribués par chaque base, plusieurs succursales peuvent répondre.
+     * @param numeroExemplaire numéro de l'exemplaire recherché
+     * @return les exemplaires portant ce numéro, dans l'ordre de préférence du réseau
+     */
+    public ResultatReseau<Exemplaire> trouverExemplaire(int numeroExemplaire) {
+        return interroger(s -> Exemplaire.listerParNumero(s, numeroExemplaire),
+                Comparator.comparingInt((Exemplaire e) -> rang(e.getSuccursale())));
+    }
+
+    /**
+     * Liste les exemplaires de tout le réseau, triés par ISBN puis par succursale et numéro
+     * @return les exemplaires du réseau, chacun rattaché à sa succursale
+     */
+    public ResultatReseau<Exemplaire> listerExemplaires() {
+        Comparator<Exemplaire> ordre = Comparator.comparingInt((Exemplaire e) -> e.getLivre().getIsbn())
+                .thenComparingInt(e -> rang(e.getSuccursale()))
+                .thenComparingInt(Exemplaire::getNumeroExemplaire);
+        return interroger(s -> {
+            List<Exemplaire> exemplaires = Exemplaire.listerExemplaires(s);
+            exemplaires.sort(ordre);
+            return exemplaires;
+        }, ordre);
+    }
+
+    /**
+     * Exécute une requête en parallèle sur toutes les succursales et fusionne les réponses reçues à temps
+     * @param requete la requête à exécuter sur chaque succursale ; sa réponse doit être triée selon l'ordre
+     * @param ordre ordre commun des résultats
+     * @param <T> type des éléments retournés
+     * @return les résultats fusionnés et les succursales en échec
+     */
+    public <T> ResultatReseau<T> interroger(RequeteSuccursale<T> requete, Comparator<T> ordre) {
+        List<Callable<List<T>>> taches = new ArrayList<>();
+        for (Succursale succursale : succursales) {
+            taches.add(() -> requete.executer(succursale));
+        }
+
+        List<List<T>> reponses = new ArrayList<>();
+        Map<String, String> echecs = new LinkedHashMap<>();
+        try {
+            // Les tâches encore en cours à l'expiration du délai sont annulées
+            List<Future<List<T>>> futures = executeur.invokeAll(taches, delaiMillis, TimeUnit.MILLISECONDS);
+            for (int i = 0; i < futures.size(); i++) {
+                String code = succursales.get(i).getCode();
+                try {
+                    reponses.add(futures.get(i).get());
+                } catch (CancellationException e) {
+                    echecs.put(code, "Délai dépassé");
+                } catch (ExecutionException e) {
+                    echecs.put(code, e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Succursale succursale : succursales) {
+                echecs.putIfAbsent(succursale.getCode(), "Interrompu");
+            }
+        }
+        for (Map.Entry<String, String> echec : echecs.entrySet()) {
+            System.err.println("Succursale " + echec.getKey() + " sans réponse: " + echec.getValue());
+        }
+        return new ResultatReseau<>(fusionner(reponses, ordre), Collections.unmodifiableMap(echecs));
+    }
+
+    // Fusion de k listes triées en O(n log k)
+    private static <T> List<T> fusionner(List<List<T>> listes, Comparator<T> ordre) {
+        int total = 0;
+        PriorityQueue<int[]> tetes = new PriorityQueue<>(Math.max(1, listes.size()),
+                (a, b) -> ordre.compare(listes.get(a[0]).get(a[1]), listes.get(b[0]).get(b[1])));
+        for (int i = 0; i < listes.size(); i++) {
+            total += listes.get(i).size();
+            if (!listes.get(i).isEmpty()) {
+                tetes.add(new int[]{i, 0});
+            }
+        }
+
+        List<T> fusion = new ArrayList<>(total);
+        while (!tetes.isEmpty()) {
+            int[] tete = tetes.poll();
+            List<T> liste = listes.get(tete[0]);
+            fusion.add(liste.get(tete[1]));
+            if (++tete[1] < liste.size()) {
+                tetes.add(tete);
+            }
+        }
+        return fusion;
+    }
+}
@@ -0,0 +1,440 @@
+package com.bibliotrack.model;
+
+import com.bibliotrack.model.resilience.AccesBaseException;
+import com.bibliotrack.model.resilience.AccesResilient;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Classe représentant la réservation d'un titre (ISBN) par un lecteur lorsque
+ * aucun exemplaire n'est disponible. Les réservations sont servies dans l'ordre
+ * d'arrivée : l'exemplaire rendu est mis de côté pour le premier lecteur en attente,
+ * qui dispose d'un délai pour venir l'emprunter.
+ *
+ * La file d'attente de référence est la table RESERVATION, partagée par tous les postes :
+ * le premier lecteur en attente y est choisi dans la transaction du retour. Les files en
+ * mémoire ({@link FileReservations}) n'en sont qu'une copie locale, tenue à jour par ce poste.
+ */
+public class Reservation {
+    // Délai accordé au lecteur pour venir chercher l'exemplaire mis de côté
+    public static final int DELAI_RETRAIT_JOURS = 3;
+
+    // Copie en mémoire des files d'attente, chargée depuis la base à la première utilisation
+    private static volatile FileReservations fileAttente;
+
+    // Attributs correspondant aux colonnes de la table RESERVATION
+    private int idReservation;              // Identifiant unique auto-généré
+    private int isbn;                       // Titre réservé
+    private int idLecteur;                  // Lecteur ayant réservé
+    private LocalDateTime dateReservation;  // Date de la demande (ordre de la file)
+    private LocalDateTime dateExpiration;   // Date limite de retrait une fois l'exemplaire attribué
+    private Integer numeroExemplaire;       // Exemplaire mis de côté (null tant que la réservation attend)
+    private final AtomicReference<StatutReservation> statut =
+            new AtomicReference<>(StatutReservation.EN_ATTENTE);
+
+    /**
+     * Enumération des statuts possibles d'une réservation
+     * Correspond à l'ENUM('en attente','attribuee','honoree','expiree','annulee') dans la base de données
+     */
+    public enum StatutReservation {
+        EN_ATTENTE("en attente"),   // Aucun exemplaire encore attribué
+        ATTRIBUEE("attribuee"),     // Un exemplaire est mis de côté pour le lecteur
+        HONOREE("honoree"),         // Le lecteur a emprunté l'exemplaire
+        EXPIREE("expiree"),         // Le lecteur n'est pas venu à temps
+        ANNULEE("annulee");         // Réservation annulée avant attribution
+
+        private final String libelle; // Libellé correspondant à la valeur en base
+
+        StatutReservation(String libelle) {
+            this.libelle = libelle;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+
+        /**
+         * Convertit une chaîne de caractères en valeur d'énumération
+         * @param text Le texte à convertir
+         * @return Le statut correspondant (EN_ATTENTE par défaut si non trouvé)
+         */
+        public static StatutReservation fromString(String text) {
+            for (StatutReservation s : StatutReservation.values()) {
+                if (s.libelle.equalsIgnoreCase(text)) {
+                    return s;
+                }
+            }
+            return EN_ATTENTE; // Valeur par défaut
+        }
+    }
+
+    // ==================== CONSTRUCTEURS ====================
+
+    /**
+     * Constructeur par défaut nécessaire pour certaines opérations
+     */
+    public Reservation() {
+    }
+
+    /**
+     * Constructeur pour une nouvelle réservation
+     * @param isbn Titre réservé
+     * @param idLecteur Lecteur ayant réservé
+     */
+    public Reservation(int isbn, int idLecteur) {
+        this.isbn = isbn;
+        this.idLecteur = idLecteur;
+        this.dateReservation = LocalDateTime.now();
+    }
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public int getIdReservation() {
+        return idReservation;
+    }
+
+    public void setIdReservation(int idReservation) {
+        this.idReservation = idReservation;
+    }
+
+    public int getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(int isbn) {
+        this.isbn = isbn;
+    }
+
+    public int getIdLecteur() {
+        return idLecteur;
+    }
+
+    public void setIdLecteur(int idLecteur) {
+        this.idLecteur = idLecteur;
+    }
+
+    public LocalDateTime getDateReservation() {
+        return dateReservation;
+    }
+
+    public void setDateReservation(LocalDateTime dateReservation) {
+        this.dateReservation = dateReservation;
+    }
+
+    public LocalDateTime getDateExpiration() {
+        return dateExpiration;
+    }
+
+    public Integer getNumeroExemplaire() {
+        return numeroExemplaire;
+    }
+
+    public StatutReservation getStatut() {
+        return statut.get();
+    }
+
+    /**
+     * Change le statut de façon atomique
+     * @param attendu statut actuel attendu
+     * @param nouveau nouveau statut
+     * @return true si le statut valait bien la valeur attendue
+     */
+    boolean changerStatut(StatutReservation attendu, StatutReservation nouveau) {
+        return statut.compareAndSet(attendu, nouveau);
+    }
+
+    // ==================== METHODES D'ACCES A LA BASE ====================
+
+    /**
+     * Retourne les files d'attente, chargées depuis la base à la première utilisation
+     * @return les files d'attente des réservations
+     */
+    public static FileReservations getFileAttente() {
+        FileReservations file = fileAttente;
+        if (file != null) {
+            return file; // Chemin courant sans verrou
+        }
+        synchronized (Reservation.class) {
+            if (fileAttente != null) {
+                return fileAttente;
+            }
+            String query = "SELECT * FROM RESERVATION WHERE statut = ? " +
+                    "ORDER BY date_reservation, id_reservation";
+
+            try {
+                // Chaque essai repart d'une file vide
+                file = AccesResilient.getInstance().lire(conn -> {
+                    FileReservations chargee = new FileReservations();
+                    try (PreparedStatement stmt = conn.prepareStatement(query)) {
+
+                        stmt.setString(1, StatutReservation.EN_ATTENTE.getLibelle());
+                        ResultSet rs = stmt.executeQuery();
+
+                        while (rs.next()) {
+                            Reservation reservation = new Reservation(rs.getInt("isbn"), rs.getInt("id_lecteur"));
+                            reservation.idReservation = rs.getInt("id_reservation");
+                            reservation.dateReservation = rs.getTimestamp("date_reservation").toLocalDateTime();
+                            chargee.ajouter(reservation);
+                        }
+                    }
+                    return chargee;
+                });
+            } catch (SQLException e) {
+                System.err.println("Erreur lors du chargement des réservations: " + e.getMessage());
+                file = new FileReservations();
+            }
+            fileAttente = file;
+            return file;
+        }
+    }
+
+    // ==================== METHODES METIER ====================
+
+    /**
+     * Enregistre la réservation courante et la place à la fin de la file de son ISBN
+     * @throws AccesBaseException si la réservation n'a pas pu être enregistrée
+     */
+    public void ajouterReservation() throws AccesBaseException {
+        String query = "INSERT INTO RESERVATION (isbn, id_lecteur, date_reservation, statut) VALUES (?, ?, ?, ?)";
+        FileReservations file = getFileAttente();
+
+        AccesResilient.getInstance().ecrire(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+
+                stmt.setInt(1, isbn);
+                stmt.setInt(2, idLecteur);
+                stmt.setTimestamp(3, Timestamp.valueOf(dateReservation));
+                stmt.setString(4, StatutReservation.EN_ATTENTE.getLibelle());
+                stmt.executeUpdate();
+
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        this.idReservation = generatedKeys.getInt(1);
+                    }
+                }
+                file.ajouter(this);
+                System.out.println("Réservation enregistrée avec succès. Numéro: " + idReservation);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Annule la réservation courante si elle est encore en attente
+     * @throws AccesBaseException si la réservation n'a pas pu être annulée
+     */
+    public void annulerReservation() throws AccesBaseException {
+        String query = "UPDATE RESERVATION SET statut = ? WHERE id_reservation = ? AND statut = ?";
+
+        AccesResilient.getInstance().ecrire(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+
+                stmt.setString(1, StatutReservation.ANNULEE.getLibelle());
+                stmt.setInt(2, idReservation);
+                stmt.setString(3, StatutReservation.EN_ATTENTE.getLibelle());
+                // La base fait foi : la réservation a pu être prise ou attribuée à un autre poste
+                if (stmt.executeUpdate() == 0) {
+                    System.out.println("Aucune réservation en attente trouvée avec ce numéro");
+                    return null;
+                }
+                getFileAttente().annuler(isbn, idReservation);
+                System.out.println("Réservation annulée avec succès");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Attribue un exemplaire qui vient de se libérer à la première réservation en attente sur son ISBN.
+     * La réservation est choisie dans la table, qui reçoit celles de tous les postes ; la file en
+     * mémoire de ce poste est seulement mise à jour. Doit être appelée dans la transaction qui libère
+     * l'exemplaire ; en cas d'annulation de cette transaction, l'appelant doit remettre la
+     * réservation en attente avec {@link #annulerAttribution}.
+     * @param conn connexion ouverte, hors mode auto-commit
+     * @param numeroExemplaire exemplaire libéré
+     * @return la réservation attribuée, ou null si l'exemplaire reste disponible
+     * @throws SQLException en cas d'erreur d'accès à la base
+     */
+    static Reservation attribuerExemplaire(Connection conn, int numeroExemplaire) throws SQLException {
+        // Le verrou sur la ligne de l'exemplaire sérialise les libérations concurrentes du même exemplaire
+        int isbnExemplaire;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT isbn FROM EXEMPLAIRE WHERE numero_exemplaire = ? FOR UPDATE")) {
+            stmt.setInt(1, numeroExemplaire);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                isbnExemplaire = rs.getInt("isbn");
+            }
+        }
+
+        // Une réservation verrouillée est en cours d'attribution par le retour d'un autre exemplaire
+        // du même titre : elle est sautée plutôt qu'attendue, et la suivante est servie
+        int idReservation;
+        int idLecteur;
+        LocalDateTime dateReservation;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT id_reservation, id_lecteur, date_reservation FROM RESERVATION " +
+                        "WHERE isbn = ? AND statut = ? ORDER BY date_reservation, id_reservation " +
+                        "LIMIT 1 FOR UPDATE SKIP LOCKED")) {
+            stmt.setInt(1, isbnExemplaire);
+            stmt.setString(2, StatutReservation.EN_ATTENTE.getLibelle());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                idReservation = rs.getInt("id_reservation");
+                idLecteur = rs.getInt("id_lecteur");
+                dateReservation = rs.getTimestamp("date_reservation").toLocalDateTime();
+            }
+        }
+
+        LocalDateTime expiration = LocalDateTime.now().plusDays(DELAI_RETRAIT_JOURS);
+        try (PreparedStatement attribution = conn.prepareStatement(
+                "UPDATE RESERVATION SET statut = ?, numero_exemplaire = ?, date_expiration = ? " +
+                        "WHERE id_reservation = ?")) {
+            attribution.setString(1, StatutReservation.ATTRIBUEE.getLibelle());
+            attribution.setInt(2, numeroExemplaire);
+            attribution.setTimestamp(3, Timestamp.valueOf(expiration));
+            attribution.setInt(4, idReservation);
+            attribution.executeUpdate();
+        }
+        try (PreparedStatement exemplaire = conn.prepareStatement(
+                "UPDATE EXEMPLAIRE SET disponible = FALSE WHERE numero_exemplaire = ?")) {
+            exemplaire.setInt(1, numeroExemplaire);
+            exemplaire.executeUpdate();
+        }
+
+        // Retire la réservation de la file de ce poste ; prise à un autre poste, elle n'y figure pas
+        FileReservations file = fileAttente;
+        Reservation reservation = file == null ? null : file.attribuer(isbnExemplaire, idReservation);
+        if (reservation == null) {
+            reservation = new Reservation(isbnExemplaire, idLecteur);
+            reservation.idReservation = idReservation;
+            reservation.dateReservation = dateReservation;
+            reservation.changerStatut(StatutReservation.EN_ATTENTE, StatutReservation.ATTRIBUEE);
+        }
+        reservation.numeroExemplaire = numeroExemplaire;
+        reservation.dateExpiration = expiration;
+        return reservation;
+    }
+
+    /**
+     * Remet en attente une réservation dont l'attribution a été annulée, en tête de la file en mémoire
+     * @param reservation la réservation attribuée
+     */
+    static void annulerAttribution(Reservation reservation) {
+        reservation.numeroExemplaire = null;
+        reservation.dateExpiration = null;
+        FileReservations file = fileAttente;
+        if (file != null) {
+            file.remettre(reservation);
+        } else {
+            reservation.changerStatut(StatutReservation.ATTRIBUEE, StatutReservation.EN_ATTENTE);
+        }
+    }
+
+    /**
+     * Marque honorée la réservation pour laquelle l'exemplaire était mis de côté.
+     * Refuse l'emprunt si l'exemplaire est mis de côté pour un autre lecteur.
+     * @param conn connexion ouverte, dans la transaction de l'emprunt
+     * @param numeroExemplaire exemplaire emprunté
+     * @param idLecteur lecteur emprunteur
+     * @throws SQLException si l'exemplaire est réservé pour un autre lecteur ou en cas d'erreur d'accès
+     */
+    static void honorer(Connection conn, int numeroExemplaire, int idLecteur) throws SQLException {
+        String query = "SELECT id_reservation, id_lecteur FROM RESERVATION " +
+                "WHERE numero_exemplaire = ? AND statut = ? FOR UPDATE";
+
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, numeroExemplaire);
+            stmt.setString(2, StatutReservation.ATTRIBUEE.getLibelle());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return;
+                }
+                if (rs.getInt("id_lecteur") != idLecteur) {
+                    throw new SQLException("Exemplaire réservé pour un autre lecteur");
+                }
+                try (PreparedStatement update = conn.prepareStatement(
+                        "UPDATE RESERVATION SET statut = ? WHERE id_reservation = ?")) {
+                    update.setString(1, StatutReservation.HONOREE.getLibelle());
+                    update.setInt(2, rs.getInt("id_reservation"));
+                    update.executeUpdate();
+                }
+            }
+        }
+    }
+
+    /**
+     * Expire les réservations dont le délai de retrait est dépassé.
+     * Chaque exemplaire libéré passe à la réservation suivante sur son ISBN, ou redevient disponible.
+     * @return le nombre de réservations expirées
+     */
+    public static int expirerReservations() {
+        String query = "SELECT id_reservation, numero_exemplaire FROM RESERVATION " +
+                "WHERE statut = ? AND date_expiration < ?";
+        int expirees = 0;
+
+        try {
+            expirees = AccesResilient.getInstance().ecrire(conn -> {
+                int nombre = 0;
+                List<int[]> aExpirer = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    stmt.setString(1, StatutReservation.ATTRIBUEE.getLibelle());
+                    stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                    ResultSet rs = stmt.executeQuery();
+                    while (rs.next()) {
+                        aExpirer.add(new int[]{rs.getInt("id_reservation"), rs.getInt("numero_exemplaire")});
+                    }
+                }
+
+                conn.setAutoCommit(false);
+                for (int[] ligne : aExpirer) {
+                    Reservation suivante = null;
+                    try (PreparedStatement expirer = conn.prepareStatement(
+                            "UPDATE RESERVATION SET statut = ? WHERE id_reservation = ? AND statut = ?")) {
+                        expirer.setString(1, StatutReservation.EXPIREE.getLibelle());
+                        expirer.setInt(2, ligne[0]);
+                        expirer.setString(3, StatutReservation.ATTRIBUEE.getLibelle());
+                        if (expirer.executeUpdate() == 0) {
+                            conn.rollback();
+                            continue; // Honorée entre-temps
+                        }
+
+                        suivante = attribuerExemplaire(conn, ligne[1]);
+                        if (suivante == null) {
+                            try (PreparedStatement liberer = conn.prepareStatement(
+                                    "UPDATE EXEMPLAIRE SET disponible = TRUE WHERE numero_exemplaire = ?")) {
+                                liberer.setInt(1, ligne[1]);
+                                liberer.executeUpdate();
+                            }
+                        }
+                        conn.commit();
+                        nombre++;
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        if (suivante != null) {
+                            annulerAttribution(suivante);
+                        }
+                        System.err.println("Erreur lors de l'expiration de la réservation " + ligne[0] + ": " + e.getMessage());
+                    }
+                }
+                return nombre;
+            });
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de l'expiration des réservations: " + e.getMessage());
+        }
+        return expirees;
+    }
+
+    @Override
+    public String toString() {
+        return "Réservation #" + idReservation + " - ISBN " + isbn + " (" + getStatut().getLibelle() + ")";
+    }
+}
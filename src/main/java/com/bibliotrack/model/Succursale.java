@@ -0,0 +1,100 @@
+package com.bibliotrack.model;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Classe représentant une bibliothèque du réseau et la base bibliodb qui lui est propre.
+ */
+public class Succursale {
+    /**
+     * Bibliothèque principale, utilisée quand aucune succursale n'est précisée.
+     * Sa base peut être fixée par les propriétés système bibliotrack.url, bibliotrack.utilisateur
+     * et bibliotrack.motDePasse, lues au premier usage de la classe.
+     */
+    public static final Succursale PRINCIPALE = new Succursale("principale", "Bibliothèque principale",
+            System.getProperty("bibliotrack.url", "jdbc:mysql://localhost/bibliodb"),
+            System.getProperty("bibliotrack.utilisateur", "root"),
+            System.getProperty("bibliotrack.motDePasse", ""), 0);
+
+    private final String code;          // Identifiant court de la succursale
+    private final String nom;           // Nom affichable
+    private final String url;           // URL JDBC de la base de la succursale
+    private final String utilisateur;   // Utilisateur de la base
+    private final String motDePasse;    // Mot de passe de la base
+    private final int delaiSecondes;    // Délai maximal de connexion et de requête (0 = aucun)
+
+    /**
+     * Constructeur complet d'une succursale
+     * @param code identifiant court
+     * @param nom nom affichable
+     * @param url URL JDBC de la base
+     * @param utilisateur utilisateur de la base
+     * @param motDePasse mot de passe de la base
+     * @param delaiSecondes délai maximal de connexion et de requête (0 = aucun)
+     */
+    public Succursale(String code, String nom, String url, String utilisateur, String motDePasse, int delaiSecondes) {
+        this.code = code;
+        this.nom = nom;
+        this.url = url;
+        this.utilisateur = utilisateur;
+        this.motDePasse = motDePasse;
+        this.delaiSecondes = delaiSecondes;
+    }
+
+    // ==================== GETTERS ====================
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getDelaiSecondes() {
+        return delaiSecondes;
+    }
+
+    /**
+     * @param delaiSecondes délai maximal de connexion et de requête (0 = aucun)
+     * @return la même succursale avec un autre délai
+     */
+    public Succursale avecDelai(int delaiSecondes) {
+        return new Succursale(code, nom, url, utilisateur, motDePasse, delaiSecondes);
+    }
+
+    /**
+     * Établit une connexion à la base de la succursale, bornée par son délai
+     * @return Connection objet de connexion JDBC
+     * @throws SQLException en cas d'erreur de connexion
+     */
+    public Connection getConnection() throws SQLException {
+        Properties proprietes = new Properties();
+        proprietes.setProperty("user", utilisateur);
+        proprietes.setProperty("password", motDePasse);
+        if (delaiSecondes > 0) {
+            // Propriétés du pilote MySQL : délais de connexion et de lecture sur la socket
+            proprietes.setProperty("connectTimeout", String.valueOf(delaiSecondes * 1000));
+            proprietes.setProperty("socketTimeout", String.valueOf(delaiSecondes * 1000));
+        }
+
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+            return DriverManager.getConnection(url, proprietes);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Driver JDBC non trouvé", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return nom + " (" + code + ")";
+    }
+}
@@ -0,0 +1,110 @@
+package com.bibliotrack.model.audit;
+
+import java.time.Instant;
+
+/**
+ * Trace d'une modification apportée à une ligne de la base (livre, exemplaire, emprunt).
+ * Conserve l'image de la ligne avant et après l'opération.
+ */
+public class EvenementAudit {
+    private final Instant horodatage;   // Moment de l'opération
+    private final String utilisateur;   // Auteur de la modification
+    private final String tableCible;    // Table concernée (livre, exemplaire, emprunt)
+    private final Operation operation;  // Type d'opération
+    private final String cle;           // Clé primaire de la ligne concernée
+    private final String imageAvant;    // Contenu de la ligne avant l'opération (null pour une insertion)
+    private final String imageApres;    // Contenu de la ligne après l'opération (null pour une suppression)
+
+    // Origine de l'événement dans le journal, renseignée à la relecture
+    private long segment;
+    private int position;
+
+    /**
+     * Enumération des opérations tracées
+     * Correspond à l'ENUM('insertion','modification','suppression') de la table AUDIT
+     */
+    public enum Operation {
+        INSERTION("insertion"),
+        MODIFICATION("modification"),
+        SUPPRESSION("suppression");
+
+        private final String libelle; // Libellé correspondant à la valeur en base
+
+        Operation(String libelle) {
+            this.libelle = libelle;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+    }
+
+    /**
+     * Constructeur complet d'un événement d'audit
+     * @param horodatage moment de l'opération
+     * @param utilisateur auteur de la modification
+     * @param tableCible table concernée
+     * @param operation type d'opération
+     * @param cle clé primaire de la ligne
+     * @param imageAvant image de la ligne avant l'opération
+     * @param imageApres image de la ligne après l'opération
+     */
+    public EvenementAudit(Instant horodatage, String utilisateur, String tableCible, Operation operation,
+                          String cle, String imageAvant, String imageApres) {
+        this.horodatage = horodatage;
+        this.utilisateur = utilisateur;
+        this.tableCible = tableCible;
+        this.operation = operation;
+        this.cle = cle;
+        this.imageAvant = imageAvant;
+        this.imageApres = imageApres;
+    }
+
+    // ==================== GETTERS ====================
+
+    public Instant getHorodatage() {
+        return horodatage;
+    }
+
+    public String getUtilisateur() {
+        return utilisateur;
+    }
+
+    public String getTableCible() {
+        return tableCible;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public String getCle() {
+        return cle;
+    }
+
+    public String getImageAvant() {
+        return imageAvant;
+    }
+
+    public String getImageApres() {
+        return imageApres;
+    }
+
+    public long getSegment() {
+        return segment;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    void setOrigine(long segment, int position) {
+        this.segment = segment;
+        this.position = position;
+    }
+
+    @Override
+    public String toString() {
+        return horodatage + " " + utilisateur + " " + operation.getLibelle() + " " + tableCible + "#" + cle;
+    }
+}
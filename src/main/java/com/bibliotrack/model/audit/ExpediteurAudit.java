@@ -0,0 +1,136 @@
+package com.bibliotrack.model.audit;
+
+import com.bibliotrack.model.Succursale;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expédie en tâche de fond le contenu du journal d'audit vers la table AUDIT, par lots.
+ *
+ * Au démarrage, les segments laissés par une exécution précédente (arrêt brutal, base
+ * injoignable) sont rejoués. Un segment n'est supprimé qu'après validation de la
+ * transaction ; l'index unique (segment, position) rend le rejeu idempotent.
+ */
+public class ExpediteurAudit {
+    private static final int TAILLE_LOT = 500;
+
+    private final JournalAudit journal;
+    private final long periodeSecondes;
+    private ScheduledExecutorService planificateur;
+
+    /**
+     * @param journal le journal à expédier
+     * @param periodeSecondes intervalle entre deux expéditions
+     */
+    public ExpediteurAudit(JournalAudit journal, long periodeSecondes) {
+        this.journal = journal;
+        this.periodeSecondes = periodeSecondes;
+    }
+
+    /**
+     * Établit une connexion à la base de la bibliothèque principale
+     * @return Connection objet de connexion JDBC
+     * @throws SQLException en cas d'erreur de connexion
+     */
+    private Connection getConnection() throws SQLException {
+        return Succursale.PRINCIPALE.getConnection();
+    }
+
+    /**
+     * Démarre l'expédition périodique ; le premier passage rejoue les segments en attente
+     */
+    public synchronized void demarrer() {
+        if (planificateur != null) {
+            return;
+        }
+        planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "audit-expediteur");
+            t.setDaemon(true);
+            return t;
+        });
+        planificateur.scheduleWithFixedDelay(this::expedier, 0, periodeSecondes, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Arrête l'expédition périodique puis tente une dernière expédition
+     */
+    public synchronized void arreter() {
+        if (planificateur == null) {
+            return;
+        }
+        planificateur.shutdown();
+        try {
+            planificateur.awaitTermination(periodeSecondes, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        planificateur = null;
+        expedier();
+    }
+
+    /**
+     * Scelle le segment actif puis expédie tous les segments scellés, du plus ancien au plus récent.
+     * En cas d'échec, les segments restants sont conservés pour le passage suivant.
+     */
+    public void expedier() {
+        try {
+            journal.sceller();
+            List<Path> segments = journal.segmentsScelles();
+            if (segments.isEmpty()) {
+                return;
+            }
+            try (Connection conn = getConnection()) {
+                for (Path segment : segments) {
+                    expedierSegment(conn, segment);
+                    journal.supprimerSegment(segment);
+                }
+            }
+        } catch (IOException | SQLException e) {
+            System.err.println("Erreur lors de l'expédition du journal d'audit: " + e.getMessage());
+        }
+    }
+
+    private void expedierSegment(Connection conn, Path segment) throws IOException, SQLException {
+        List<EvenementAudit> evenements = JournalAudit.lireSegment(segment);
+        String query = "INSERT IGNORE INTO AUDIT (segment, position, horodatage, utilisateur, table_cible, " +
+                "operation, cle, image_avant, image_apres) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            int enAttente = 0;
+            for (EvenementAudit e : evenements) {
+                stmt.setLong(1, e.getSegment());
+                stmt.setInt(2, e.getPosition());
+                stmt.setTimestamp(3, Timestamp.from(e.getHorodatage()));
+                stmt.setString(4, e.getUtilisateur());
+                stmt.setString(5, e.getTableCible());
+                stmt.setString(6, e.getOperation().getLibelle());
+                stmt.setString(7, e.getCle());
+                stmt.setString(8, e.getImageAvant());
+                stmt.setString(9, e.getImageApres());
+                stmt.addBatch();
+
+                if (++enAttente == TAILLE_LOT) {
+                    stmt.executeBatch();
+                    enAttente = 0;
+                }
+            }
+            if (enAttente > 0) {
+                stmt.executeBatch();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
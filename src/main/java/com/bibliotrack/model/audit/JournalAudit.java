@@ -0,0 +1,347 @@
+package com.bibliotrack.model.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal d'audit local, en ajout seul, projeté en mémoire et découpé en segments.
+ *
+ * L'écriture d'un événement se limite à une copie dans un fichier projeté en mémoire :
+ * aucun accès à la base n'a lieu sur le chemin d'écriture. Les segments pleins (ou scellés
+ * par {@link ExpediteurAudit}) sont ensuite expédiés vers la table AUDIT puis supprimés.
+ *
+ * Format d'un segment :
+ *  - en-tête : magic (int), version (int), numéro de segment (long)
+ *  - enregistrements : longueur (int), CRC32 (int), contenu
+ *  - une longueur à 0 (zone non écrite du fichier) marque la fin des données
+ *
+ * Un segment expédié qui ne peut pas encore être supprimé (sous Windows, tant que sa projection
+ * en mémoire n'a pas été libérée) est accompagné d'un fichier marqueur : il n'est plus expédié,
+ * et sa suppression est retentée à chaque expédition et à l'ouverture du journal.
+ */
+public class JournalAudit implements Closeable {
+    static final int MAGIC = 0x41554431;          // "AUD1"
+    static final int VERSION = 1;
+    static final int TAILLE_ENTETE = 16;
+    static final int TAILLE_ENTETE_ENREGISTREMENT = 8;
+    private static final String PREFIXE = "audit-";
+    private static final String SUFFIXE = ".seg";
+    private static final String SUFFIXE_EXPEDIE = ".expedie";   // Marqueur d'un segment expédié
+    private static final int TAILLE_SEGMENT_DEFAUT = 4 * 1024 * 1024;
+
+    private static JournalAudit instance;  // Journal partagé par les classes du modèle
+
+    private final Path repertoire;        // Répertoire contenant les segments
+    private final int tailleSegment;      // Taille de chaque fichier segment
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel canal;            // Canal du segment actif
+    private MappedByteBuffer tampon;      // Projection mémoire du segment actif
+    private long numeroSegment;           // Numéro du segment actif
+    private boolean modifie;              // Vrai si le segment actif contient des données
+
+    /**
+     * Ouvre le journal dans le répertoire indiqué.
+     * Les segments laissés par une exécution précédente sont conservés tels quels et
+     * considérés comme scellés : ils seront rejoués par l'expéditeur.
+     * @param repertoire répertoire des segments
+     * @param tailleSegment taille d'un segment en octets
+     * @throws IOException en cas d'erreur d'accès au disque
+     */
+    public JournalAudit(Path repertoire, int tailleSegment) throws IOException {
+        if (tailleSegment <= TAILLE_ENTETE + TAILLE_ENTETE_ENREGISTREMENT) {
+            throw new IllegalArgumentException("Taille de segment trop petite: " + tailleSegment);
+        }
+        this.repertoire = repertoire;
+        this.tailleSegment = tailleSegment;
+        Files.createDirectories(repertoire);
+        purger();
+
+        List<Path> existants = listerSegments();
+        long dernier = existants.isEmpty() ? 0 : numeroDe(existants.get(existants.size() - 1));
+        ouvrirSegment(dernier);
+    }
+
+    /**
+     * Retourne le journal partagé, ouvert à la première utilisation.
+     * Le répertoire peut être fixé par la propriété système bibliotrack.audit.dir.
+     * @return le journal d'audit de l'application
+     * @throws IOException en cas d'erreur d'ouverture du journal
+     */
+    public static synchronized JournalAudit getInstance() throws IOException {
+        if (instance == null) {
+            String dir = System.getProperty("bibliotrack.audit.dir",
+                    Paths.get(System.getProperty("user.home"), ".bibliotrack", "audit").toString());
+            instance = new JournalAudit(Paths.get(dir), TAILLE_SEGMENT_DEFAUT);
+        }
+        return instance;
+    }
+
+    /**
+     * Enregistre une opération dans le journal partagé sans jamais interrompre l'appelant.
+     * @param tableCible table concernée
+     * @param operation type d'opération
+     * @param cle clé primaire de la ligne
+     * @param imageAvant image avant l'opération
+     * @param imageApres image après l'opération
+     */
+    public static void journaliser(String tableCible, EvenementAudit.Operation operation, String cle,
+                                   String imageAvant, String imageApres) {
+        try {
+            getInstance().enregistrer(new EvenementAudit(Instant.now(), System.getProperty("user.name"),
+                    tableCible, operation, cle, imageAvant, imageApres));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erreur lors de l'écriture du journal d'audit: " + e.getMessage());
+        }
+    }
+
+    // ==================== ECRITURE ====================
+
+    /**
+     * Ajoute un événement à la fin du segment actif, en changeant de segment s'il est plein.
+     * @param evenement l'événement à enregistrer
+     * @throws IOException en cas d'erreur lors du changement de segment
+     */
+    public synchronized void enregistrer(EvenementAudit evenement) throws IOException {
+        byte[] contenu = encoder(evenement);
+        int taille = TAILLE_ENTETE_ENREGISTREMENT + contenu.length;
+        if (TAILLE_ENTETE + taille + 4 > tailleSegment) {
+            throw new IllegalArgumentException("Evénement trop volumineux pour un segment: " + taille + " octets");
+        }
+        // On garde toujours 4 octets à zéro après le dernier enregistrement pour marquer la fin
+        if (tampon.position() + taille + 4 > tailleSegment) {
+            changerSegment();
+        }
+
+        crc.reset();
+        crc.update(contenu);
+        int debut = tampon.position();
+        // La longueur est écrite en dernier : un enregistrement interrompu reste invisible
+        tampon.position(debut + 4);
+        tampon.putInt((int) crc.getValue());
+        tampon.put(contenu);
+        tampon.putInt(debut, contenu.length);
+        modifie = true;
+    }
+
+    /**
+     * Scelle le segment actif s'il contient des données, afin qu'il puisse être expédié.
+     * @throws IOException en cas d'erreur lors du changement de segment
+     */
+    public synchronized void sceller() throws IOException {
+        if (modifie) {
+            changerSegment();
+        }
+    }
+
+    /**
+     * Force l'écriture sur disque du segment actif
+     */
+    public synchronized void forcer() {
+        tampon.force();
+    }
+
+    /**
+     * @return les segments scellés, du plus ancien au plus récent
+     * @throws IOException en cas d'erreur de lecture du répertoire
+     */
+    public synchronized List<Path> segmentsScelles() throws IOException {
+        List<Path> scelles = new ArrayList<>();
+        for (Path segment : listerSegments()) {
+            if (numeroDe(segment) < numeroSegment && !Files.exists(marqueur(segment))) {
+                scelles.add(segment);
+            }
+        }
+        return scelles;
+    }
+
+    /**
+     * Supprime un segment scellé une fois son contenu expédié.
+     * Le marqueur est posé avant la suppression : si elle échoue, le segment n'est pas réexpédié.
+     * @param segment le segment à supprimer
+     * @throws IOException si le marqueur ne peut pas être créé
+     */
+    public synchronized void supprimerSegment(Path segment) throws IOException {
+        Path marqueur = marqueur(segment);
+        if (!Files.exists(marqueur)) {
+            Files.createFile(marqueur);
+        }
+        purger();
+    }
+
+    // Supprime les segments marqués comme expédiés, puis leurs marqueurs
+    private void purger() throws IOException {
+        List<Path> marqueurs;
+        try (Stream<Path> fichiers = Files.list(repertoire)) {
+            marqueurs = fichiers.filter(p -> p.getFileName().toString().endsWith(SUFFIXE + SUFFIXE_EXPEDIE)).toList();
+        }
+        for (Path marqueur : marqueurs) {
+            String nom = marqueur.getFileName().toString();
+            try {
+                Files.deleteIfExists(marqueur.resolveSibling(nom.substring(0, nom.length() - SUFFIXE_EXPEDIE.length())));
+                Files.deleteIfExists(marqueur);
+            } catch (IOException e) {
+                // Segment encore projeté en mémoire : nouvel essai à la prochaine purge
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        tampon.force();
+        canal.close();
+        if (!modifie) {
+            Files.deleteIfExists(cheminSegment(numeroSegment));
+        }
+    }
+
+    private void changerSegment() throws IOException {
+        tampon.force();
+        canal.close();
+        ouvrirSegment(numeroSegment);
+    }
+
+    private void ouvrirSegment(long precedent) throws IOException {
+        // Numéro croissant et unique d'une exécution à l'autre, même si le répertoire a été vidé
+        numeroSegment = Math.max(precedent + 1, System.currentTimeMillis());
+        canal = FileChannel.open(cheminSegment(numeroSegment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        tampon = canal.map(FileChannel.MapMode.READ_WRITE, 0, tailleSegment);
+        tampon.putInt(MAGIC);
+        tampon.putInt(VERSION);
+        tampon.putLong(numeroSegment);
+        modifie = false;
+    }
+
+    // ==================== RELECTURE ====================
+
+    /**
+     * Relit les événements d'un segment scellé.
+     * La lecture s'arrête au premier enregistrement vide ou corrompu (écriture interrompue par un arrêt brutal).
+     * @param segment le fichier segment
+     * @return la liste des événements valides du segment
+     * @throws IOException en cas d'erreur de lecture ou d'en-tête invalide
+     */
+    public static List<EvenementAudit> lireSegment(Path segment) throws IOException {
+        List<EvenementAudit> evenements = new ArrayList<>();
+        // Lecture par le canal plutôt que par projection : le fichier reste supprimable aussitôt après
+        try (FileChannel lecture = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer tampon = ByteBuffer.allocate((int) Math.min(lecture.size(), Integer.MAX_VALUE));
+            while (tampon.hasRemaining() && lecture.read(tampon) >= 0) {
+                // Lecture jusqu'à la fin du fichier
+            }
+            tampon.flip();
+            if (tampon.remaining() < TAILLE_ENTETE || tampon.getInt() != MAGIC) {
+                throw new IOException("Segment d'audit invalide: " + segment);
+            }
+            tampon.getInt(); // version
+            long numero = tampon.getLong();
+
+            CRC32 controle = new CRC32();
+            while (tampon.remaining() >= TAILLE_ENTETE_ENREGISTREMENT) {
+                int position = tampon.position();
+                int longueur = tampon.getInt();
+                int attendu = tampon.getInt();
+                if (longueur <= 0 || longueur > tampon.remaining()) {
+                    break;
+                }
+                ByteBuffer contenu = tampon.slice(tampon.position(), longueur);
+                controle.reset();
+                controle.update(contenu.duplicate());
+                if ((int) controle.getValue() != attendu) {
+                    System.err.println("Enregistrement d'audit corrompu ignoré: " + segment + " @" + position);
+                    break;
+                }
+                EvenementAudit evenement = decoder(contenu);
+                evenement.setOrigine(numero, position);
+                evenements.add(evenement);
+                tampon.position(tampon.position() + longueur);
+            }
+        }
+        return evenements;
+    }
+
+    // ==================== ENCODAGE ====================
+
+    private static byte[] encoder(EvenementAudit e) {
+        byte[][] champs = {
+                octets(e.getUtilisateur()), octets(e.getTableCible()), octets(e.getCle()),
+                octets(e.getImageAvant()), octets(e.getImageApres())
+        };
+        int taille = 8 + 1;
+        for (byte[] champ : champs) {
+            taille += 4 + (champ == null ? 0 : champ.length);
+        }
+        ByteBuffer tampon = ByteBuffer.allocate(taille);
+        tampon.putLong(e.getHorodatage().toEpochMilli());
+        tampon.put((byte) e.getOperation().ordinal());
+        for (byte[] champ : champs) {
+            if (champ == null) {
+                tampon.putInt(-1);
+            } else {
+                tampon.putInt(champ.length);
+                tampon.put(champ);
+            }
+        }
+        return tampon.array();
+    }
+
+    private static EvenementAudit decoder(ByteBuffer tampon) {
+        Instant horodatage = Instant.ofEpochMilli(tampon.getLong());
+        EvenementAudit.Operation operation = EvenementAudit.Operation.values()[tampon.get()];
+        return new EvenementAudit(horodatage, chaine(tampon), chaine(tampon), operation,
+                chaine(tampon), chaine(tampon), chaine(tampon));
+    }
+
+    private static byte[] octets(String valeur) {
+        return valeur == null ? null : valeur.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String chaine(ByteBuffer tampon) {
+        int longueur = tampon.getInt();
+        if (longueur < 0) {
+            return null;
+        }
+        byte[] octets = new byte[longueur];
+        tampon.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    // ==================== FICHIERS ====================
+
+    private Path cheminSegment(long numero) {
+        return repertoire.resolve(PREFIXE + String.format("%020d", numero) + SUFFIXE);
+    }
+
+    private List<Path> listerSegments() throws IOException {
+        try (Stream<Path> fichiers = Files.list(repertoire)) {
+            return fichiers
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIXE)
+                            && p.getFileName().toString().endsWith(SUFFIXE))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Path marqueur(Path segment) {
+        return segment.resolveSibling(segment.getFileName() + SUFFIXE_EXPEDIE);
+    }
+
+    private static long numeroDe(Path segment) {
+        String nom = segment.getFileName().toString();
+        return Long.parseLong(nom.substring(PREFIXE.length(), nom.length() - SUFFIXE.length()));
+    }
+}
@@ -0,0 +1,59 @@
+package com.bibliotrack.model.audit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Mesure le coût ajouté par le journal d'audit sur le chemin d'écriture : durée de
+ * {@link JournalAudit#enregistrer} pour des événements de la taille d'une modification
+ * d'exemplaire, changements de segment compris. Le journal est créé dans un répertoire temporaire.
+ *
+ * Lancement : java -cp target/classes com.bibliotrack.model.audit.MesureJournalAudit [evenements]
+ */
+public class MesureJournalAudit {
+
+    public static void main(String[] args) throws IOException {
+        int nombre = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int echauffement = Math.min(nombre, 100_000);
+        Path repertoire = Files.createTempDirectory("audit-mesure");
+        String avant = "numero_exemplaire=123456;etat=bon;disponible=true;date_creation=2021-03-04;isbn=978123";
+        String apres = "numero_exemplaire=123456;etat=mauvais;disponible=true;date_creation=2021-03-04;isbn=978123";
+
+        long[] durees = new long[nombre];
+        try (JournalAudit journal = new JournalAudit(repertoire, 4 * 1024 * 1024)) {
+            for (int i = 0; i < echauffement; i++) {
+                journal.enregistrer(evenement(i, avant, apres));
+            }
+            for (int i = 0; i < nombre; i++) {
+                long debut = System.nanoTime();
+                journal.enregistrer(evenement(i, avant, apres));
+                durees[i] = System.nanoTime() - debut;
+            }
+        } finally {
+            try (Stream<Path> fichiers = Files.walk(repertoire)) {
+                for (Path fichier : fichiers.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(fichier);
+                }
+            }
+        }
+
+        Arrays.sort(durees);
+        System.out.printf("%d événements : moyenne %.2f µs, p50 %.2f µs, p99 %.2f µs, p99.9 %.2f µs, max %.2f µs%n",
+                nombre, Arrays.stream(durees).average().orElse(0) / 1e3, quantile(durees, 0.50) / 1e3,
+                quantile(durees, 0.99) / 1e3, quantile(durees, 0.999) / 1e3, durees[nombre - 1] / 1e3);
+    }
+
+    private static EvenementAudit evenement(int i, String avant, String apres) {
+        return new EvenementAudit(Instant.now(), "bibliothecaire", "exemplaire",
+                EvenementAudit.Operation.MODIFICATION, String.valueOf(i), avant, apres);
+    }
+
+    private static long quantile(long[] triees, double q) {
+        return triees[Math.max(0, (int) Math.ceil(q * triees.length) - 1)];
+    }
+}
@@ -0,0 +1,46 @@
+package com.bibliotrack.model.charge;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tirage de rangs selon une loi de Zipf : le rang k (à partir de 0) sort avec une probabilité
+ * proportionnelle à 1 / (k + 1)^exposant. Avec un exposant proche de 1, quelques titres
+ * concentrent l'essentiel des demandes, comme au guichet d'une bibliothèque.
+ */
+class LoiZipf {
+    private final double[] cumul;   // cumul[k] = somme des poids des rangs 0 à k
+
+    /**
+     * @param taille nombre de rangs possibles
+     * @param exposant 0 pour un tirage uniforme, 1 environ pour une popularité réaliste
+     */
+    LoiZipf(int taille, double exposant) {
+        if (taille <= 0) {
+            throw new IllegalArgumentException("Taille invalide: " + taille);
+        }
+        cumul = new double[taille];
+        double somme = 0;
+        for (int k = 0; k < taille; k++) {
+            somme += 1 / Math.pow(k + 1, exposant);
+            cumul[k] = somme;
+        }
+    }
+
+    /**
+     * @return un rang entre 0 et taille - 1
+     */
+    int tirer() {
+        double u = ThreadLocalRandom.current().nextDouble() * cumul[cumul.length - 1];
+        int position = Arrays.binarySearch(cumul, u);
+        return position >= 0 ? position : Math.min(-position - 1, cumul.length - 1);
+    }
+
+    /**
+     * @param rangs nombre de rangs les plus populaires
+     * @return la part des tirages qui tombent sur ces rangs
+     */
+    double part(int rangs) {
+        return cumul[Math.min(rangs, cumul.length) - 1] / cumul[cumul.length - 1];
+    }
+}
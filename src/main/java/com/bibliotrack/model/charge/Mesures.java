@@ -0,0 +1,103 @@
+package com.bibliotrack.model.charge;
+
+import java.util.Arrays;
+
+/**
+ * Durées et issues d'un type d'opération. Chaque client tient ses propres mesures,
+ * sans synchronisation, et elles sont fusionnées à la fin du scénario.
+ */
+class Mesures {
+    private long[] durees = new long[1024];     // Nanosecondes, opérations abouties ou non
+    private int nombre;
+    private int echecs;                 // Erreurs autres que celles comptées à part
+    private int interblocages;          // Transactions annulées par MySQL (erreur 1213)
+    private int attentesDepassees;      // innodb_lock_wait_timeout atteint (erreur 1205)
+    private int saturations;            // Aucune place libre parmi les accès simultanés
+    private int circuitsOuverts;        // Accès refusé par le disjoncteur
+    private int sansObjet;              // Rien à faire : aucun exemplaire libre, aucun emprunt à rendre
+
+    void enregistrer(long dureeNanos, Issue issue) {
+        if (nombre == durees.length) {
+            durees = Arrays.copyOf(durees, nombre * 2);
+        }
+        durees[nombre++] = dureeNanos;
+        switch (issue) {
+            case ECHEC -> echecs++;
+            case INTERBLOCAGE -> interblocages++;
+            case ATTENTE_DEPASSEE -> attentesDepassees++;
+            case SATURATION -> saturations++;
+            case CIRCUIT_OUVERT -> circuitsOuverts++;
+            case SANS_OBJET -> sansObjet++;
+            case REUSSITE -> { }
+        }
+    }
+
+    // Opération abandonnée avant tout accès à la base : compte, mais sans durée
+    void ignorer() {
+        sansObjet++;
+    }
+
+    void fusionner(Mesures autre) {
+        if (nombre + autre.nombre > durees.length) {
+            durees = Arrays.copyOf(durees, nombre + autre.nombre);
+        }
+        System.arraycopy(autre.durees, 0, durees, nombre, autre.nombre);
+        nombre += autre.nombre;
+        echecs += autre.echecs;
+        interblocages += autre.interblocages;
+        attentesDepassees += autre.attentesDepassees;
+        saturations += autre.saturations;
+        circuitsOuverts += autre.circuitsOuverts;
+        sansObjet += autre.sansObjet;
+    }
+
+    int getNombre() {
+        return nombre;
+    }
+
+    int getEchecs() {
+        return echecs;
+    }
+
+    int getInterblocages() {
+        return interblocages;
+    }
+
+    int getAttentesDepassees() {
+        return attentesDepassees;
+    }
+
+    int getSaturations() {
+        return saturations;
+    }
+
+    int getCircuitsOuverts() {
+        return circuitsOuverts;
+    }
+
+    int getSansObjet() {
+        return sansObjet;
+    }
+
+    /**
+     * @param quantiles quantiles demandés, entre 0 et 1 (1 pour le maximum)
+     * @return les durées correspondantes en millisecondes, 0 s'il n'y a aucune mesure
+     */
+    double[] quantilesMillis(double... quantiles) {
+        long[] triees = Arrays.copyOf(durees, nombre);
+        Arrays.sort(triees);
+        double[] resultat = new double[quantiles.length];
+        for (int i = 0; i < quantiles.length && nombre > 0; i++) {
+            int rang = (int) Math.ceil(quantiles[i] * nombre) - 1;
+            resultat[i] = triees[Math.max(0, Math.min(rang, nombre - 1))] / 1e6;
+        }
+        return resultat;
+    }
+
+    /**
+     * Issue d'une opération
+     */
+    enum Issue {
+        REUSSITE, ECHEC, INTERBLOCAGE, ATTENTE_DEPASSEE, SATURATION, CIRCUIT_OUVERT, SANS_OBJET
+    }
+}
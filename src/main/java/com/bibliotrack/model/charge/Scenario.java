@@ -0,0 +1,137 @@
+package com.bibliotrack.model.charge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Phase de la simulation : un nombre de guichets simultanés, une durée,
+ * et la proportion de chaque opération dans ce que font les guichets.
+ */
+class Scenario {
+    /**
+     * Opérations jouées par les guichets
+     */
+    enum Operation {
+        CONSULTATION("consultation"),   // Exemplaires disponibles d'un titre
+        EMPRUNT("emprunt"),             // Recherche d'un exemplaire libre puis sortie
+        RETOUR("retour"),               // Retour d'un emprunt en cours
+        AJOUT("ajout");                 // Nouvel exemplaire d'un titre
+
+        private final String libelle;
+
+        Operation(String libelle) {
+            this.libelle = libelle;
+        }
+
+        String getLibelle() {
+            return libelle;
+        }
+    }
+
+    private final String nom;
+    private final int clients;
+    private final int dureeSecondes;
+    private final int pauseMillis;      // Temps entre deux opérations d'un même guichet
+    private final int[] poids;          // Indexé par Operation.ordinal()
+    private final int totalPoids;
+
+    Scenario(String nom, int clients, int dureeSecondes, int pauseMillis, int... poids) {
+        if (poids.length != Operation.values().length) {
+            throw new IllegalArgumentException("Un poids par opération est attendu");
+        }
+        this.nom = nom;
+        this.clients = clients;
+        this.dureeSecondes = dureeSecondes;
+        this.pauseMillis = pauseMillis;
+        this.poids = poids.clone();
+        int total = 0;
+        for (int p : poids) {
+            total += p;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Scénario " + nom + " sans aucune opération");
+        }
+        this.totalPoids = total;
+    }
+
+    /**
+     * Scénarios joués en l'absence de fichier : matinée calme avec les retours de la veille,
+     * affluence de l'après-midi, puis saisie d'un arrivage
+     */
+    static List<Scenario> parDefaut() {
+        return List.of(
+                new Scenario("ouverture", 20, 30, 0, 30, 10, 55, 5),
+                new Scenario("affluence", 200, 60, 0, 50, 35, 10, 5),
+                new Scenario("arrivage", 20, 30, 0, 20, 5, 5, 70));
+    }
+
+    /**
+     * Lit les scénarios d'une configuration ("scenarios=a,b" puis "scenario.a.clients=...")
+     * @param config la configuration chargée
+     * @return les scénarios, dans l'ordre de la liste, ou ceux par défaut si elle est absente
+     */
+    static List<Scenario> depuis(Properties config) {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String nom : config.getProperty("scenarios", "").split(",")) {
+            nom = nom.trim();
+            if (nom.isEmpty()) {
+                continue;
+            }
+            String prefixe = "scenario." + nom + ".";
+            int[] poids = new int[Operation.values().length];
+            for (Operation operation : Operation.values()) {
+                poids[operation.ordinal()] = Integer.parseInt(
+                        config.getProperty(prefixe + operation.getLibelle(), "0"));
+            }
+            scenarios.add(new Scenario(nom,
+                    Integer.parseInt(config.getProperty(prefixe + "clients", "10")),
+                    Integer.parseInt(config.getProperty(prefixe + "duree", "30")),
+                    Integer.parseInt(config.getProperty(prefixe + "pause", "0")),
+                    poids));
+        }
+        return scenarios.isEmpty() ? parDefaut() : scenarios;
+    }
+
+    /**
+     * @return une opération tirée selon les proportions du scénario
+     */
+    Operation tirer() {
+        int u = ThreadLocalRandom.current().nextInt(totalPoids);
+        for (Operation operation : Operation.values()) {
+            u -= poids[operation.ordinal()];
+            if (u < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    String getNom() {
+        return nom;
+    }
+
+    int getClients() {
+        return clients;
+    }
+
+    int getDureeSecondes() {
+        return dureeSecondes;
+    }
+
+    int getPauseMillis() {
+        return pauseMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texte = new StringBuilder(nom).append(" : ").append(clients).append(" guichets, ")
+                .append(dureeSecondes).append(" s");
+        for (Operation operation : Operation.values()) {
+            texte.append(", ").append(operation.getLibelle()).append(' ')
+                    .append(100 * poids[operation.ordinal()] / totalPoids).append(" %");
+        }
+        return texte.toString();
+    }
+}
@@ -0,0 +1,582 @@
+package com.bibliotrack.model.charge;
+
+import com.bibliotrack.model.Emprunt;
+import com.bibliotrack.model.Exemplaire;
+import com.bibliotrack.model.Livre;
+import com.bibliotrack.model.Succursale;
+import com.bibliotrack.model.charge.Scenario.Operation;
+import com.bibliotrack.model.recommandation.Recommandations;
+import com.bibliotrack.model.resilience.AccesBaseException;
+import com.bibliotrack.model.resilience.AccesResilient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Simulation de charge de la circulation des documents : des guichets simultanés, chacun sur
+ * un fil virtuel, enchaînent consultations des exemplaires disponibles, emprunts, retours et
+ * ajouts d'exemplaires en passant par les méthodes du modèle, comme l'application.
+ * La popularité des titres suit une loi de Zipf : quelques titres reçoivent l'essentiel des
+ * demandes, ce qui fait apparaître les conflits de verrous sur leurs lignes.
+ *
+ * Les données de la simulation (titres à partir de l'ISBN {@link #PREMIER_ISBN}, lecteurs
+ * d'adresse en {@value #DOMAINE}) sont créées dans la base principale si elles n'y sont pas
+ * déjà, et peuvent être retirées ensuite. Le journal d'audit de la simulation est écrit dans un
+ * répertoire temporaire, et ses emprunts ne sont pas appris par le service de recommandation :
+ * seules les données réservées sont touchées. Pour chaque scénario sont affichés le débit, les
+ * quantiles de durée par opération, les échecs, et les attentes de verrous et interblocages
+ * relevés par InnoDB pendant le scénario.
+ *
+ * Chaque opération est classée d'après la nature de l'{@link AccesBaseException} levée par le
+ * modèle. Pendant un scénario, le modèle passe par un accès résilient offrant par défaut une
+ * place par guichet et sans disjoncteur, pour que les refus de l'application ne masquent pas le
+ * comportement de la base ; ces refus restent comptés à part s'ils se produisent.
+ */
+public class SimulationCirculation {
+    public static final int PREMIER_ISBN = 900_000_000;
+    public static final String DOMAINE = "@charge.bibliotrack.test";
+
+    private static final int TAILLE_LOT = 1000;     // Lignes insérées par lot lors de la préparation
+    private static final int DUREE_EMPRUNT_JOURS = 21;
+    private static final double[] QUANTILES = {0.50, 0.95, 0.99, 1};
+
+    private final Succursale succursale = Succursale.PRINCIPALE;
+    private final int livres;
+    private final int exemplairesParLivre;
+    private final int nombreLecteurs;
+    private final LoiZipf popularite;           // Rang 0 : titre le plus demandé
+    private int[] lecteurs = new int[0];
+    private final ConcurrentLinkedQueue<Emprunt> enCours = new ConcurrentLinkedQueue<>();
+    private int accesSimultanes;                // 0 : une place par guichet
+    private int seuilDisjoncteur;               // 0 : disjoncteur jamais ouvert
+
+    /**
+     * @param livres nombre de titres de la simulation
+     * @param exemplairesParLivre exemplaires créés pour chaque titre à la préparation
+     * @param lecteurs nombre de lecteurs de la simulation
+     * @param exposantZipf exposant de la loi de popularité des titres (0 pour uniforme)
+     */
+    public SimulationCirculation(int livres, int exemplairesParLivre, int lecteurs, double exposantZipf) {
+        this.livres = livres;
+        this.exemplairesParLivre = exemplairesParLivre;
+        this.nombreLecteurs = lecteurs;
+        this.popularite = new LoiZipf(livres, exposantZipf);
+    }
+
+    // ==================== PREPARATION ====================
+
+    /**
+     * Crée les titres, exemplaires et lecteurs de la simulation qui manquent dans la base,
+     * puis relève les emprunts en cours laissés par une exécution précédente.
+     * @throws SQLException en cas d'erreur d'accès à la base
+     */
+    public void preparer() throws SQLException {
+        try (Connection conn = succursale.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                creerLivres(conn);
+                creerExemplaires(conn);
+                creerLecteurs(conn);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            lecteurs = lireLecteurs(conn);
+            chargerEmpruntsEnCours(conn);
+        }
+    }
+
+    private void creerLivres(Connection conn) throws SQLException {
+        String query = "INSERT IGNORE INTO LIVRE (isbn, titre, auteur, categorie, nombre_pages, " +
+                "nombre_exemplaires, date_creation) VALUES (?, ?, ?, 'Roman', 250, 0, CURDATE())";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (int rang = 0; rang < livres; rang++) {
+                stmt.setInt(1, PREMIER_ISBN + rang);
+                stmt.setString(2, "Titre de charge " + rang);
+                stmt.setString(3, "Auteur " + rang % 500);
+                stmt.addBatch();
+                if ((rang + 1) % TAILLE_LOT == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // Complète chaque titre jusqu'au nombre d'exemplaires demandé
+    private void creerExemplaires(Connection conn) throws SQLException {
+        int[] manquants = new int[livres];
+        String query = "SELECT l.isbn, COUNT(e.numero_exemplaire) FROM LIVRE l " +
+                "LEFT JOIN EXEMPLAIRE e ON e.isbn = l.isbn " +
+                "WHERE l.isbn BETWEEN ? AND ? GROUP BY l.isbn";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, PREMIER_ISBN);
+            stmt.setInt(2, PREMIER_ISBN + livres - 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    manquants[rs.getInt(1) - PREMIER_ISBN] = Math.max(0, exemplairesParLivre - rs.getInt(2));
+                }
+            }
+        }
+
+        String insertion = "INSERT INTO EXEMPLAIRE (etat, disponible, date_creation, isbn) " +
+                "VALUES ('bon', TRUE, CURDATE(), ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(insertion)) {
+            int enAttente = 0;
+            for (int rang = 0; rang < livres; rang++) {
+                for (int i = 0; i < manquants[rang]; i++) {
+                    stmt.setInt(1, PREMIER_ISBN + rang);
+                    stmt.addBatch();
+                    if (++enAttente == TAILLE_LOT) {
+                        stmt.executeBatch();
+                        enAttente = 0;
+                    }
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void creerLecteurs(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT IGNORE INTO LECTEUR (nom, email) VALUES (?, ?)")) {
+            for (int i = 0; i < nombreLecteurs; i++) {
+                stmt.setString(1, "Lecteur de charge " + i);
+                stmt.setString(2, "charge-" + i + DOMAINE);
+                stmt.addBatch();
+                if ((i + 1) % TAILLE_LOT == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static int[] lireLecteurs(Connection conn) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT id_lecteur FROM LECTEUR WHERE email LIKE ?")) {
+            stmt.setString(1, "charge-%" + DOMAINE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void chargerEmpruntsEnCours(Connection conn) throws SQLException {
+        String query = "SELECT e.id_emprunt, e.date_emprunt, e.id_lecteur, e.numero_exemplaire " +
+                "FROM EMPRUNT e JOIN EXEMPLAIRE x ON x.numero_exemplaire = e.numero_exemplaire " +
+                "WHERE x.isbn BETWEEN ? AND ? AND e.date_retour_effectif IS NULL";
+        enCours.clear();
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, PREMIER_ISBN);
+            stmt.setInt(2, PREMIER_ISBN + livres - 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Emprunt emprunt = new Emprunt();
+                    emprunt.setIdEmprunt(rs.getInt(1));
+                    emprunt.setDateEmprunt(rs.getTimestamp(2).toLocalDateTime());
+                    emprunt.setStatut(Emprunt.StatutEmprunt.EN_COURS);
+                    emprunt.setIdLecteur(rs.getInt(3));
+                    emprunt.setNumeroExemplaire(rs.getInt(4));
+                    enCours.add(emprunt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retire de la base toutes les données de la simulation : traces d'audit, emprunts, exemplaires,
+     * titres et lecteurs. Les traces viennent d'exécutions antérieures dont le journal a été expédié.
+     * @throws SQLException en cas d'erreur d'accès à la base
+     */
+    public void nettoyer() throws SQLException {
+        String[] requetes = {
+                "DELETE a FROM AUDIT a JOIN EMPRUNT e ON a.table_cible = 'emprunt' " +
+                        "AND a.cle = CAST(e.id_emprunt AS CHAR) " +
+                        "JOIN EXEMPLAIRE x ON x.numero_exemplaire = e.numero_exemplaire WHERE x.isbn BETWEEN ? AND ?",
+                "DELETE a FROM AUDIT a JOIN EXEMPLAIRE x ON a.table_cible = 'exemplaire' " +
+                        "AND a.cle = CAST(x.numero_exemplaire AS CHAR) WHERE x.isbn BETWEEN ? AND ?",
+                "DELETE a FROM AUDIT a JOIN LIVRE l ON a.table_cible = 'livre' " +
+                        "AND a.cle = CAST(l.isbn AS CHAR) WHERE l.isbn BETWEEN ? AND ?",
+                "DELETE e FROM EMPRUNT e JOIN EXEMPLAIRE x ON x.numero_exemplaire = e.numero_exemplaire " +
+                        "WHERE x.isbn BETWEEN ? AND ?",
+                "DELETE FROM EXEMPLAIRE WHERE isbn BETWEEN ? AND ?",
+                "DELETE FROM LIVRE WHERE isbn BETWEEN ? AND ?"
+        };
+        try (Connection conn = succursale.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (String requete : requetes) {
+                    try (PreparedStatement stmt = conn.prepareStatement(requete)) {
+                        stmt.setInt(1, PREMIER_ISBN);
+                        stmt.setInt(2, PREMIER_ISBN + livres - 1);
+                        stmt.executeUpdate();
+                    }
+                }
+                // Les lecteurs qui ont emprunté hors simulation sont conservés
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "DELETE FROM LECTEUR WHERE email LIKE ? AND id_lecteur NOT IN (SELECT id_lecteur FROM EMPRUNT)")) {
+                    stmt.setString(1, "charge-%" + DOMAINE);
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        lecteurs = new int[0];
+        enCours.clear();
+    }
+
+    // ==================== SCENARIOS ====================
+
+    /**
+     * Joue un scénario puis affiche ses résultats
+     * @param scenario le scénario à jouer
+     * @param console sortie du compte rendu
+     * @throws SQLException si les compteurs InnoDB ne peuvent pas être lus
+     * @throws InterruptedException si l'attente des guichets est interrompue
+     */
+    void jouer(Scenario scenario, PrintStream console) throws SQLException, InterruptedException {
+        if (lecteurs.length == 0) {
+            throw new IllegalStateException("Simulation non préparée");
+        }
+        console.println("=== " + scenario);
+        CompteursInnoDB avant = CompteursInnoDB.lire(succursale);
+        Mesures[] total = nouvellesMesures();
+        long debut = System.nanoTime();
+        long fin = debut + scenario.getDureeSecondes() * 1_000_000_000L;
+
+        PrintStream sortie = System.out;
+        // Les messages de réussite du modèle sont ignorés
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        AccesResilient.setInstance(AccesResilient.pourPrincipale(
+                accesSimultanes > 0 ? accesSimultanes : scenario.getClients(), seuilDisjoncteur));
+        try (ExecutorService guichets = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Mesures[]>> resultats = new ArrayList<>();
+            for (int i = 0; i < scenario.getClients(); i++) {
+                resultats.add(guichets.submit(() -> servir(scenario, fin)));
+            }
+            for (Future<Mesures[]> resultat : resultats) {
+                Mesures[] mesures = resultat.get();
+                for (int j = 0; j < total.length; j++) {
+                    total[j].fusionner(mesures[j]);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Guichet interrompu par une erreur inattendue", e.getCause());
+        } finally {
+            System.setOut(sortie);
+            AccesResilient.setInstance(null);
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        CompteursInnoDB ecart = CompteursInnoDB.lire(succursale).depuis(avant);
+        afficher(console, total, secondes, ecart, compterDoublesSorties());
+    }
+
+    // Boucle d'un guichet jusqu'à l'échéance du scénario
+    private Mesures[] servir(Scenario scenario, long fin) throws InterruptedException {
+        Mesures[] mesures = nouvellesMesures();
+        while (System.nanoTime() < fin) {
+            Operation operation = scenario.tirer();
+            Mesures cible = mesures[operation.ordinal()];
+            Emprunt aRendre = null;
+            if (operation == Operation.RETOUR && (aRendre = enCours.poll()) == null) {
+                cible.ignorer();
+            } else {
+                long debut = System.nanoTime();
+                Mesures.Issue issue;
+                try {
+                    issue = switch (operation) {
+                        case CONSULTATION -> consulter();
+                        case EMPRUNT -> emprunter();
+                        case RETOUR -> rendre(aRendre);
+                        case AJOUT -> ajouter();
+                    };
+                } catch (AccesBaseException e) {
+                    issue = issue(e);
+                }
+                cible.enregistrer(System.nanoTime() - debut, issue);
+            }
+            if (scenario.getPauseMillis() > 0) {
+                Thread.sleep(scenario.getPauseMillis());
+            }
+        }
+        return mesures;
+    }
+
+    private Mesures.Issue consulter() throws AccesBaseException {
+        Exemplaire.getExemplairesDisponiblesByLivre(tirerIsbn());
+        return Mesures.Issue.REUSSITE;
+    }
+
+    // Le guichet prend le premier exemplaire libre, comme le ferait un bibliothécaire
+    private Mesures.Issue emprunter() throws AccesBaseException {
+        List<Exemplaire> disponibles = Exemplaire.getExemplairesDisponiblesByLivre(tirerIsbn());
+        if (disponibles.isEmpty()) {
+            return Mesures.Issue.SANS_OBJET;
+        }
+        int lecteur = lecteurs[ThreadLocalRandom.current().nextInt(lecteurs.length)];
+        Emprunt emprunt = new Emprunt(lecteur, disponibles.get(0).getNumeroExemplaire(),
+                LocalDateTime.now().plusDays(DUREE_EMPRUNT_JOURS));
+        emprunt.ajouterEmprunt();
+        enCours.add(emprunt);
+        return Mesures.Issue.REUSSITE;
+    }
+
+    private Mesures.Issue rendre(Emprunt emprunt) {
+        try {
+            emprunt.enregistrerRetour();
+        } catch (AccesBaseException e) {
+            Mesures.Issue issue = issue(e);
+            if (issue != Mesures.Issue.ECHEC) {
+                enCours.add(emprunt);       // Transaction annulée ou jamais envoyée : le retour reste à faire
+            }
+            return issue;
+        }
+        return emprunt.getDateRetourEffectif() != null ? Mesures.Issue.REUSSITE : Mesures.Issue.ECHEC;
+    }
+
+    private Mesures.Issue ajouter() throws AccesBaseException {
+        Livre livre = new Livre();
+        livre.setIsbn(tirerIsbn());
+        Exemplaire exemplaire = new Exemplaire(0, Exemplaire.EtatExemplaire.NEUF, true, LocalDate.now(), livre);
+        exemplaire.ajouterExemplaire();
+        return exemplaire.getNumeroExemplaire() != 0 ? Mesures.Issue.REUSSITE : Mesures.Issue.ECHEC;
+    }
+
+    private int tirerIsbn() {
+        return PREMIER_ISBN + popularite.tirer();
+    }
+
+    /**
+     * Issue d'une opération d'après la nature de son échec. Une lecture servie depuis le cache
+     * ne lève pas d'exception : elle compte comme réussie.
+     * @param e l'échec de l'accès à la base
+     * @return l'issue correspondante
+     */
+    static Mesures.Issue issue(AccesBaseException e) {
+        return switch (e.getNature()) {
+            case CONFLIT -> Mesures.Issue.INTERBLOCAGE;
+            case DELAI_DEPASSE -> Mesures.Issue.ATTENTE_DEPASSEE;
+            case SATURATION -> Mesures.Issue.SATURATION;
+            case CIRCUIT_OUVERT -> Mesures.Issue.CIRCUIT_OUVERT;
+            case BASE_INJOIGNABLE, REQUETE_REFUSEE -> Mesures.Issue.ECHEC;
+        };
+    }
+
+    private static Mesures[] nouvellesMesures() {
+        Mesures[] mesures = new Mesures[Operation.values().length];
+        for (int i = 0; i < mesures.length; i++) {
+            mesures[i] = new Mesures();
+        }
+        return mesures;
+    }
+
+    // Exemplaires de la simulation ayant plusieurs emprunts en cours à la fois
+    private int compterDoublesSorties() throws SQLException {
+        String query = "SELECT COUNT(*) FROM (SELECT e.numero_exemplaire FROM EMPRUNT e " +
+                "JOIN EXEMPLAIRE x ON x.numero_exemplaire = e.numero_exemplaire " +
+                "WHERE x.isbn BETWEEN ? AND ? AND e.date_retour_effectif IS NULL " +
+                "GROUP BY e.numero_exemplaire HAVING COUNT(*) > 1) doublons";
+        try (Connection conn = succursale.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, PREMIER_ISBN);
+            stmt.setInt(2, PREMIER_ISBN + livres - 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static void afficher(PrintStream console, Mesures[] mesures, double secondes,
+                                 CompteursInnoDB verrous, int doublesSorties) {
+        console.printf(Locale.ROOT, "%-13s %9s %9s %7s %8s %8s %7s %7s %10s %9s %9s %9s %9s%n", "opération",
+                "nombre", "débit/s", "échecs", "interbl.", "délais", "satur.", "circuit", "sans objet",
+                "p50 ms", "p95 ms", "p99 ms", "max ms");
+        Mesures total = new Mesures();
+        for (Operation operation : Operation.values()) {
+            Mesures m = mesures[operation.ordinal()];
+            afficherLigne(console, operation.getLibelle(), m, secondes);
+            total.fusionner(m);
+        }
+        afficherLigne(console, "total", total, secondes);
+        console.printf(Locale.ROOT, "Verrous InnoDB : %s attentes de ligne (%s ms cumulées), %s interblocages%n",
+                verrous.texte(verrous.attentes), verrous.texte(verrous.tempsAttenteMillis),
+                verrous.texte(verrous.interblocages));
+        console.println("Exemplaires de la simulation sortis plusieurs fois : " + doublesSorties);
+        console.println();
+    }
+
+    private static void afficherLigne(PrintStream console, String libelle, Mesures m, double secondes) {
+        double[] q = m.quantilesMillis(QUANTILES);
+        console.printf(Locale.ROOT, "%-13s %9d %9.1f %7d %8d %8d %7d %7d %10d %9.2f %9.2f %9.2f %9.2f%n",
+                libelle, m.getNombre(), m.getNombre() / secondes, m.getEchecs(), m.getInterblocages(),
+                m.getAttentesDepassees(), m.getSaturations(), m.getCircuitsOuverts(), m.getSansObjet(),
+                q[0], q[1], q[2], q[3]);
+    }
+
+    // ==================== OUTILS ====================
+
+    /**
+     * Compteurs cumulés du serveur sur les verrous de lignes. Ils couvrent toute l'activité
+     * du serveur : la simulation doit tourner sur une base sans autre utilisateur.
+     * Un compteur illisible faute de droits vaut -1.
+     */
+    private static class CompteursInnoDB {
+        private final long attentes;
+        private final long tempsAttenteMillis;
+        private final long interblocages;
+
+        private CompteursInnoDB(long attentes, long tempsAttenteMillis, long interblocages) {
+            this.attentes = attentes;
+            this.tempsAttenteMillis = tempsAttenteMillis;
+            this.interblocages = interblocages;
+        }
+
+        static CompteursInnoDB lire(Succursale succursale) throws SQLException {
+            long attentes = -1;
+            long temps = -1;
+            long interblocages = -1;
+            try (Connection conn = succursale.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                try (ResultSet rs = stmt.executeQuery("SHOW GLOBAL STATUS WHERE Variable_name IN " +
+                        "('Innodb_row_lock_waits', 'Innodb_row_lock_time')")) {
+                    while (rs.next()) {
+                        if (rs.getString(1).equalsIgnoreCase("Innodb_row_lock_waits")) {
+                            attentes = rs.getLong(2);
+                        } else {
+                            temps = rs.getLong(2);
+                        }
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT `COUNT` FROM information_schema.INNODB_METRICS WHERE NAME = 'lock_deadlocks'")) {
+                    if (rs.next()) {
+                        interblocages = rs.getLong(1);
+                    }
+                } catch (SQLException e) {
+                    // Compteur non accessible à cet utilisateur
+                }
+            }
+            return new CompteursInnoDB(attentes, temps, interblocages);
+        }
+
+        CompteursInnoDB depuis(CompteursInnoDB avant) {
+            return new CompteursInnoDB(ecart(attentes, avant.attentes),
+                    ecart(tempsAttenteMillis, avant.tempsAttenteMillis),
+                    ecart(interblocages, avant.interblocages));
+        }
+
+        private static long ecart(long apres, long avant) {
+            return apres < 0 || avant < 0 ? -1 : apres - avant;
+        }
+
+        String texte(long valeur) {
+            return valeur < 0 ? "n/d" : String.valueOf(valeur);
+        }
+    }
+
+    // ==================== LANCEMENT ====================
+
+    /**
+     * Lancement : SimulationCirculation [fichier.properties] [--nettoyer]
+     * Le fichier, facultatif, fixe la base (url, utilisateur, motDePasse), la taille des données
+     * (livres, exemplairesParLivre, lecteurs), l'exposant de popularité (zipf), l'accès à la base
+     * (accesSimultanes, 0 pour une place par guichet ; seuilDisjoncteur, 0 pour ne jamais l'ouvrir)
+     * et les scénarios ; sans fichier, trois scénarios types sont joués sur la base principale.
+     * Avec --nettoyer, les données de la simulation sont retirées à la fin.
+     */
+    public static void main(String[] args) throws Exception {
+        Properties config = new Properties();
+        boolean nettoyer = false;
+        for (String arg : args) {
+            if (arg.equals("--nettoyer")) {
+                nettoyer = true;
+            } else {
+                try (Reader lecteur = Files.newBufferedReader(Paths.get(arg), StandardCharsets.UTF_8)) {
+                    config.load(lecteur);
+                } catch (IOException e) {
+                    System.err.println("Configuration illisible: " + e.getMessage());
+                    System.exit(1);
+                }
+            }
+        }
+
+        // Avant tout usage du modèle, qui ouvre ses connexions sur la base principale
+        for (String cle : new String[]{"url", "utilisateur", "motDePasse"}) {
+            if (config.containsKey(cle)) {
+                System.setProperty("bibliotrack." + cle, config.getProperty(cle));
+            }
+        }
+
+        Path audit = Files.createTempDirectory("audit-simulation");
+        System.setProperty("bibliotrack.audit.dir", audit.toString());
+        Recommandations.getInstance().setApprentissage(false);
+        try {
+            simuler(config, nettoyer);
+        } finally {
+            try (Stream<Path> fichiers = Files.walk(audit)) {
+                for (Path fichier : fichiers.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(fichier);
+                }
+            }
+        }
+    }
+
+    // Prépare les données puis joue les scénarios de la configuration
+    private static void simuler(Properties config, boolean nettoyer) throws SQLException, InterruptedException {
+        SimulationCirculation simulation = new SimulationCirculation(
+                Integer.parseInt(config.getProperty("livres", "10000")),
+                Integer.parseInt(config.getProperty("exemplairesParLivre", "3")),
+                Integer.parseInt(config.getProperty("lecteurs", "5000")),
+                Double.parseDouble(config.getProperty("zipf", "1.0")));
+        simulation.accesSimultanes = Integer.parseInt(config.getProperty("accesSimultanes", "0"));
+        simulation.seuilDisjoncteur = Integer.parseInt(config.getProperty("seuilDisjoncteur", "0"));
+        PrintStream console = System.out;
+        console.println("Préparation des données...");
+        simulation.preparer();
+        console.printf(Locale.ROOT, "%d titres, %d lecteurs, %d emprunts en cours ; les 1 %% de titres " +
+                        "les plus demandés reçoivent %.0f %% des demandes%n%n",
+                simulation.livres, simulation.lecteurs.length, simulation.enCours.size(),
+                100 * simulation.popularite.part(Math.max(1, simulation.livres / 100)));
+        try {
+            for (Scenario scenario : Scenario.depuis(config)) {
+                simulation.jouer(scenario, console);
+            }
+        } finally {
+            if (nettoyer) {
+                simulation.nettoyer();
+                console.println("Données de la simulation retirées");
+            }
+        }
+    }
+}
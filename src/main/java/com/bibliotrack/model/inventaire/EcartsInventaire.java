@@ -0,0 +1,193 @@
+package com.bibliotrack.model.inventaire;
+
+import com.bibliotrack.model.Exemplaire;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Écarts constatés entre un inventaire de référence et un inventaire observé
+ * (un second instantané ou la liste des exemplaires scannés en rayon).
+ *
+ * Les deux comparaisons sont linéaires : deux inventaires sont fusionnés comme deux listes
+ * triées par numéro ; les numéros scannés en rayon sont d'abord triés par base (tri radix,
+ * linéaire lui aussi), puis fusionnés de la même façon avec la référence.
+ */
+public class EcartsInventaire {
+    private final TableauEntiers manquants = new TableauEntiers();   // Attendus mais non observés
+    private final TableauEntiers enTrop = new TableauEntiers();      // Observés mais inconnus de la référence
+    private final TableauEntiers modifies = new TableauEntiers();    // Etat, disponibilité ou ISBN différents
+
+    public int[] getManquants() {
+        return manquants.versTableau();
+    }
+
+    public int[] getEnTrop() {
+        return enTrop.versTableau();
+    }
+
+    public int[] getModifies() {
+        return modifies.versTableau();
+    }
+
+    /**
+     * Compare deux instantanés
+     * @param reference l'inventaire de référence (le plus ancien)
+     * @param observe l'inventaire observé (le plus récent)
+     * @return les exemplaires disparus, apparus et modifiés
+     */
+    public static EcartsInventaire comparer(Inventaire reference, Inventaire observe) {
+        EcartsInventaire ecarts = new EcartsInventaire();
+        int i = 0;
+        int j = 0;
+        while (i < reference.getTaille() && j < observe.getTaille()) {
+            int attendu = reference.getNumero(i);
+            int constate = observe.getNumero(j);
+            if (attendu < constate) {
+                ecarts.manquants.ajouter(attendu);
+                i++;
+            } else if (attendu > constate) {
+                ecarts.enTrop.ajouter(constate);
+                j++;
+            } else {
+                if (reference.getEtatCode(i) != observe.getEtatCode(j) || reference.getIsbn(i) != observe.getIsbn(j)) {
+                    ecarts.modifies.ajouter(attendu);
+                }
+                i++;
+                j++;
+            }
+        }
+        for (; i < reference.getTaille(); i++) {
+            ecarts.manquants.ajouter(reference.getNumero(i));
+        }
+        for (; j < observe.getTaille(); j++) {
+            ecarts.enTrop.ajouter(observe.getNumero(j));
+        }
+        return ecarts;
+    }
+
+    /**
+     * Compare un instantané à la liste des exemplaires scannés en rayon.
+     * Le fichier contient une ligne par exemplaire : "numero" ou "numero;etat".
+     * Seuls les exemplaires disponibles sont attendus en rayon ; un état scanné
+     * différent de celui de l'instantané est signalé comme modification.
+     * @param reference l'instantané de référence
+     * @param listeScannee le fichier des numéros scannés
+     * @return les exemplaires manquants, en trop et dont l'état diffère
+     * @throws IOException en cas d'erreur de lecture ou de ligne invalide
+     */
+    public static EcartsInventaire comparerRayonnage(Inventaire reference, Path listeScannee) throws IOException {
+        // Chaque scan est codé sur un long : numéro dans les bits hauts, état lu + 1 (0 : aucun) dans l'octet bas
+        long[] scans = new long[1024];
+        int nombre = 0;
+
+        try (BufferedReader lecteur = Files.newBufferedReader(listeScannee, StandardCharsets.UTF_8)) {
+            String ligne;
+            int numeroLigne = 0;
+            while ((ligne = lecteur.readLine()) != null) {
+                numeroLigne++;
+                ligne = ligne.trim();
+                if (ligne.isEmpty()) {
+                    continue;
+                }
+                int separateur = ligne.indexOf(';');
+                int numero;
+                try {
+                    numero = Integer.parseInt(separateur < 0 ? ligne : ligne.substring(0, separateur).trim());
+                } catch (NumberFormatException e) {
+                    throw new IOException("Ligne " + numeroLigne + " invalide: " + ligne, e);
+                }
+                if (numero < 0) {
+                    throw new IOException("Ligne " + numeroLigne + " invalide: " + ligne);
+                }
+                int etat = separateur < 0 ? 0
+                        : Exemplaire.EtatExemplaire.fromString(ligne.substring(separateur + 1).trim()).ordinal() + 1;
+                if (nombre == scans.length) {
+                    scans = Arrays.copyOf(scans, nombre * 2);
+                }
+                scans[nombre++] = ((long) numero << 8) | etat;
+            }
+        }
+        scans = trierParNumero(scans, nombre);
+
+        EcartsInventaire ecarts = new EcartsInventaire();
+        int i = 0;
+        int k = 0;
+        while (i < reference.getTaille() || k < nombre) {
+            int attendu = i < reference.getTaille() ? reference.getNumero(i) : Integer.MAX_VALUE;
+            long scanne = k < nombre ? scans[k] >>> 8 : Integer.MAX_VALUE + 1L;
+            if (attendu < scanne) {
+                if (reference.isDisponible(i)) {
+                    ecarts.manquants.ajouter(attendu); // Les exemplaires empruntés ne sont pas attendus en rayon
+                }
+                i++;
+                continue;
+            }
+            // Un numéro scanné plusieurs fois ne compte qu'une fois ; le dernier état lu l'emporte
+            int etat = 0;
+            for (; k < nombre && scans[k] >>> 8 == scanne; k++) {
+                if ((scans[k] & 0xFF) != 0) {
+                    etat = (int) (scans[k] & 0xFF);
+                }
+            }
+            if (attendu > scanne) {
+                ecarts.enTrop.ajouter((int) scanne);
+            } else {
+                if (etat != 0 && etat - 1 != reference.getEtat(i).ordinal()) {
+                    ecarts.modifies.ajouter(attendu);
+                }
+                i++;
+            }
+        }
+        return ecarts;
+    }
+
+    // Tri radix stable des scans sur les 31 bits du numéro, un octet par passe
+    private static long[] trierParNumero(long[] scans, int nombre) {
+        long[] source = scans;
+        long[] cible = new long[nombre];
+        int[] comptes = new int[257];
+        for (int decalage = 8; decalage < 40; decalage += 8) {
+            Arrays.fill(comptes, 0);
+            for (int k = 0; k < nombre; k++) {
+                comptes[(int) (source[k] >>> decalage & 0xFF) + 1]++;
+            }
+            for (int c = 1; c < comptes.length; c++) {
+                comptes[c] += comptes[c - 1];
+            }
+            for (int k = 0; k < nombre; k++) {
+                cible[comptes[(int) (source[k] >>> decalage & 0xFF)]++] = source[k];
+            }
+            long[] echange = source;
+            source = cible;
+            cible = echange;
+        }
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return manquants.taille + " manquant(s), " + enTrop.taille + " en trop, " + modifies.taille + " modifié(s)";
+    }
+
+    // Liste d'entiers primitifs extensible
+    private static final class TableauEntiers {
+        private int[] valeurs = new int[16];
+        private int taille;
+
+        void ajouter(int valeur) {
+            if (taille == valeurs.length) {
+                valeurs = Arrays.copyOf(valeurs, taille * 2);
+            }
+            valeurs[taille++] = valeur;
+        }
+
+        int[] versTableau() {
+            return Arrays.copyOf(valeurs, taille);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.bibliotrack.model.inventaire;
+
+import com.bibliotrack.model.Exemplaire;
+import com.bibliotrack.model.Succursale;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Instantané de l'inventaire des exemplaires à un instant donné.
+ *
+ * Les exemplaires sont rangés par numéro croissant dans des tableaux primitifs
+ * (numéro, ISBN, état et disponibilité), ce qui permet de comparer deux instantanés
+ * par simple fusion, en temps linéaire.
+ *
+ * Format du fichier (version 1) :
+ *  - en-tête : magic (int), version (int), horodatage (long)
+ *  - dictionnaire : nombre d'ISBN (int), ISBN triés (int)
+ *  - exemplaires : nombre (int), puis pour chacun : écart avec le numéro précédent (varint),
+ *    rang de l'ISBN dans le dictionnaire (varint), état et disponibilité (octet)
+ *  - CRC32 de tout ce qui précède, en-tête et dictionnaire compris (int)
+ * Le fichier est écrit à côté puis renommé : un arrêt pendant l'écriture laisse intact
+ * l'instantané précédent.
+ */
+public class Inventaire {
+    static final int MAGIC = 0x4254494E;   // "BTIN"
+    static final int VERSION = 1;
+    private static final int TAILLE_TAMPON = 1 << 20;
+
+    private final Instant horodatage;   // Moment de la prise de l'instantané
+    private final int taille;           // Nombre d'exemplaires
+    private final int[] numeros;        // Numéros d'exemplaire, croissants
+    private final int[] isbns;          // ISBN de chaque exemplaire
+    private final byte[] etats;         // Etat (ordinal << 1) | disponibilité
+
+    /**
+     * @param horodatage moment de la prise de l'instantané
+     * @param taille nombre d'exemplaires
+     * @param numeros numéros d'exemplaire, strictement croissants
+     * @param isbns ISBN de chaque exemplaire
+     * @param etats état codé de chaque exemplaire (voir {@link #coder})
+     */
+    public Inventaire(Instant horodatage, int taille, int[] numeros, int[] isbns, byte[] etats) {
+        for (int i = 1; i < taille; i++) {
+            if (numeros[i] <= numeros[i - 1]) {
+                throw new IllegalArgumentException("Numéros d'exemplaire non croissants à la position " + i);
+            }
+        }
+        this.horodatage = horodatage;
+        this.taille = taille;
+        this.numeros = numeros;
+        this.isbns = isbns;
+        this.etats = etats;
+    }
+
+    // ==================== GETTERS ====================
+
+    public Instant getHorodatage() {
+        return horodatage;
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    public int getNumero(int i) {
+        return numeros[i];
+    }
+
+    public int getIsbn(int i) {
+        return isbns[i];
+    }
+
+    public Exemplaire.EtatExemplaire getEtat(int i) {
+        return Exemplaire.EtatExemplaire.values()[etats[i] >> 1];
+    }
+
+    public boolean isDisponible(int i) {
+        return (etats[i] & 1) != 0;
+    }
+
+    byte getEtatCode(int i) {
+        return etats[i];
+    }
+
+    /**
+     * Code l'état et la disponibilité d'un exemplaire sur un octet
+     * @param etat état physique
+     * @param disponible disponibilité
+     * @return l'état codé
+     */
+    public static byte coder(Exemplaire.EtatExemplaire etat, boolean disponible) {
+        return (byte) ((etat.ordinal() << 1) | (disponible ? 1 : 0));
+    }
+
+    // ==================== PRISE DE L'INSTANTANE ====================
+
+    /**
+     * Établit une connexion à la base de la bibliothèque principale
+     * @return Connection objet de connexion JDBC
+     * @throws SQLException en cas d'erreur de connexion
+     */
+    private static Connection getConnection() throws SQLException {
+        return Succursale.PRINCIPALE.getConnection();
+    }
+
+    /**
+     * Prend un instantané cohérent de la table EXEMPLAIRE sans bloquer la circulation :
+     * la lecture se fait dans une transaction en lecture seule (lecture cohérente InnoDB)
+     * et les lignes sont reçues en flux plutôt que chargées d'un bloc.
+     * @return l'instantané de l'inventaire
+     * @throws SQLException en cas d'erreur d'accès à la base
+     */
+    public static Inventaire depuisBase() throws SQLException {
+        String query = "SELECT numero_exemplaire, isbn, etat, disponible FROM EXEMPLAIRE " +
+                "ORDER BY numero_exemplaire";
+
+        try (Connection conn = getConnection()) {
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setAutoCommit(false);
+            conn.setReadOnly(true);
+            Instant horodatage = Instant.now();
+
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(Integer.MIN_VALUE); // Lecture en flux avec le pilote MySQL
+                try (ResultSet rs = stmt.executeQuery(query)) {
+                    int taille = 0;
+                    int[] numeros = new int[1024];
+                    int[] isbns = new int[1024];
+                    byte[] etats = new byte[1024];
+
+                    while (rs.next()) {
+                        if (taille == numeros.length) {
+                            numeros = Arrays.copyOf(numeros, taille * 2);
+                            isbns = Arrays.copyOf(isbns, taille * 2);
+                            etats = Arrays.copyOf(etats, taille * 2);
+                        }
+                        numeros[taille] = rs.getInt(1);
+                        isbns[taille] = rs.getInt(2);
+                        etats[taille] = coder(Exemplaire.EtatExemplaire.fromString(rs.getString(3)), rs.getBoolean(4));
+                        taille++;
+                    }
+                    conn.commit();
+                    return new Inventaire(horodatage, taille, numeros, isbns, etats);
+                }
+            }
+        }
+    }
+
+    // ==================== ECRITURE ====================
+
+    /**
+     * Écrit l'instantané dans un fichier, remplacé s'il existe. L'écriture se fait dans un fichier
+     * temporaire du même répertoire, renommé une fois complet et synchronisé sur le disque.
+     * @param fichier le fichier de destination
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrire(Path fichier) throws IOException {
+        Path repertoire = fichier.toAbsolutePath().getParent();
+        Path temporaire = Files.createTempFile(repertoire, fichier.getFileName().toString(), ".tmp");
+        try {
+            ecrireContenu(temporaire);
+            Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    private void ecrireContenu(Path fichier) throws IOException {
+        int[] dictionnaire = dictionnaireIsbn();
+        ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON);
+        CRC32 crc = new CRC32();
+
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            tampon.putInt(MAGIC).putInt(VERSION).putLong(horodatage.toEpochMilli());
+            tampon.putInt(dictionnaire.length);
+            for (int isbn : dictionnaire) {
+                vider(canal, tampon, 4, crc);
+                tampon.putInt(isbn);
+            }
+            vider(canal, tampon, 4, crc);
+            tampon.putInt(taille);
+
+            int precedent = 0;
+            for (int i = 0; i < taille; i++) {
+                vider(canal, tampon, 11, crc);
+                ecrireVarint(tampon, numeros[i] - precedent);
+                ecrireVarint(tampon, Arrays.binarySearch(dictionnaire, isbns[i]));
+                tampon.put(etats[i]);
+                precedent = numeros[i];
+            }
+            vider(canal, tampon, TAILLE_TAMPON, crc);
+            tampon.putInt((int) crc.getValue());
+            vider(canal, tampon, TAILLE_TAMPON, null);
+            canal.force(true);
+        }
+    }
+
+    // Ecrit le tampon sur le disque s'il reste moins de "requis" octets libres
+    private static void vider(FileChannel canal, ByteBuffer tampon, int requis, CRC32 crc) throws IOException {
+        if (tampon.remaining() >= requis) {
+            return;
+        }
+        tampon.flip();
+        if (crc != null) {
+            crc.update(tampon.duplicate());
+        }
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+        tampon.clear();
+    }
+
+    private int[] dictionnaireIsbn() {
+        int[] tries = Arrays.copyOf(isbns, taille);
+        Arrays.sort(tries);
+        int distincts = 0;
+        for (int i = 0; i < tries.length; i++) {
+            if (i == 0 || tries[i] != tries[i - 1]) {
+                tries[distincts++] = tries[i];
+            }
+        }
+        return Arrays.copyOf(tries, distincts);
+    }
+
+    private static void ecrireVarint(ByteBuffer tampon, int valeur) {
+        while ((valeur & ~0x7F) != 0) {
+            tampon.put((byte) ((valeur & 0x7F) | 0x80));
+            valeur >>>= 7;
+        }
+        tampon.put((byte) valeur);
+    }
+
+    // ==================== LECTURE ====================
+
+    /**
+     * Lit un instantané écrit par {@link #ecrire} en projetant le fichier en mémoire
+     * @param fichier le fichier de l'instantané
+     * @return l'instantané
+     * @throws IOException en cas d'erreur de lecture, de version inconnue ou de fichier corrompu
+     */
+    public static Inventaire lire(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (tampon.remaining() < 16 || tampon.getInt() != MAGIC) {
+                throw new IOException("Fichier d'inventaire invalide: " + fichier);
+            }
+            int version = tampon.getInt();
+            if (version != VERSION) {
+                throw new IOException("Version d'inventaire non prise en charge: " + version);
+            }
+            Instant horodatage = Instant.ofEpochMilli(tampon.getLong());
+
+            // Les effectifs annoncés sont bornés par la taille du fichier avant toute allocation
+            int nombreIsbn = tampon.getInt();
+            if (nombreIsbn < 0 || nombreIsbn > (tampon.remaining() - 8) / 4) {
+                throw new IOException("Fichier d'inventaire corrompu (dictionnaire de " + nombreIsbn + " ISBN): " + fichier);
+            }
+            int[] dictionnaire = new int[nombreIsbn];
+            for (int i = 0; i < dictionnaire.length; i++) {
+                dictionnaire[i] = tampon.getInt();
+            }
+            int taille = tampon.getInt();
+            if (taille < 0 || taille > (tampon.remaining() - 4) / 3) {   // Au moins 3 octets par exemplaire
+                throw new IOException("Fichier d'inventaire corrompu (" + taille + " exemplaires): " + fichier);
+            }
+            int[] numeros = new int[taille];
+            int[] isbns = new int[taille];
+            byte[] etats = new byte[taille];
+
+            int numero = 0;
+            for (int i = 0; i < taille; i++) {
+                numero += lireVarint(tampon);
+                numeros[i] = numero;
+                isbns[i] = dictionnaire[lireVarint(tampon)];
+                etats[i] = tampon.get();
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(tampon.slice(0, tampon.position()));
+            if ((int) crc.getValue() != tampon.getInt()) {
+                throw new IOException("Fichier d'inventaire corrompu: " + fichier);
+            }
+            return new Inventaire(horodatage, taille, numeros, isbns, etats);
+        } catch (RuntimeException e) {
+            throw new IOException("Fichier d'inventaire illisible: " + fichier, e);
+        }
+    }
+
+    private static int lireVarint(ByteBuffer tampon) {
+        int valeur = 0;
+        int decalage = 0;
+        byte octet;
+        do {
+            octet = tampon.get();
+            valeur |= (octet & 0x7F) << decalage;
+            decalage += 7;
+        } while (octet < 0);
+        return valeur;
+    }
+}
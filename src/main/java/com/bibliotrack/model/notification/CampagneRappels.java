@@ -0,0 +1,404 @@
+package com.bibliotrack.model.notification;
+
+import com.bibliotrack.model.Emprunt;
+import com.bibliotrack.model.Succursale;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Campagne d'envoi des rappels d'échéance : chaque lecteur ayant des emprunts à rendre
+ * dans les prochains jours ou en retard reçoit un seul message les récapitulant tous.
+ *
+ * Les emprunts sont lus par tranches de numéros de lecteur, triés par lecteur, et regroupés
+ * au fil de la lecture : la mémoire occupée ne dépend pas du nombre d'emprunts. Le résultat
+ * d'une tranche reste ouvert tant que ses rappels n'ont pas tous trouvé place dans la file
+ * d'envoi : la requête reste donc ouverte pendant une partie des envois, au plus le temps
+ * d'envoyer une tranche au débit maximal. Les rappels sont envoyés par plusieurs fils, sans
+ * dépasser ce débit. Chaque envoi réussi est enregistré dans la table NOTIFICATION, par lots :
+ * une nouvelle exécution le même jour ne renvoie rien aux lecteurs déjà prévenus. Après un
+ * arrêt brutal, seuls les envois du dernier lot non enregistré peuvent être répétés.
+ */
+public class CampagneRappels {
+    public static final int TAILLE_LOT = 500;       // Envois enregistrés par requête
+    public static final int TRANCHE_LECTEURS = 5000; // Numéros de lecteur lus par requête
+
+    private static final Rappel FIN = new Rappel(0, null, null);  // Marque la fin de la lecture
+    private static final int ECHECS_AFFICHES = 20;
+
+    private final TransportMessages transport;
+    private final int fils;                 // Fils d'envoi simultanés
+    private final double debitMax;          // Messages par seconde, 0 pour ne pas limiter
+
+    /**
+     * Bilan d'une campagne
+     */
+    public static class Bilan {
+        private final AtomicInteger lecteurs = new AtomicInteger();     // Lecteurs concernés
+        private final AtomicInteger emprunts = new AtomicInteger();     // Emprunts concernés
+        private final AtomicInteger dejaPrevenus = new AtomicInteger(); // Lecteurs ignorés, déjà prévenus ce jour
+        private final AtomicInteger envoyes = new AtomicInteger();
+        private final AtomicInteger echecs = new AtomicInteger();       // Envois à retenter à la prochaine exécution
+        private long dureeMillis;
+
+        public int getLecteurs() {
+            return lecteurs.get();
+        }
+
+        public int getEmprunts() {
+            return emprunts.get();
+        }
+
+        public int getDejaPrevenus() {
+            return dejaPrevenus.get();
+        }
+
+        public int getEnvoyes() {
+            return envoyes.get();
+        }
+
+        public int getEchecs() {
+            return echecs.get();
+        }
+
+        public long getDureeMillis() {
+            return dureeMillis;
+        }
+
+        @Override
+        public String toString() {
+            return getEnvoyes() + " rappel(s) envoyé(s) sur " + getLecteurs() + " lecteur(s) et " + getEmprunts() +
+                    " emprunt(s), " + getDejaPrevenus() + " déjà prévenu(s), " + getEchecs() + " échec(s), en " +
+                    dureeMillis + " ms";
+        }
+    }
+
+    /**
+     * Source de rappels, un par lecteur
+     */
+    interface SourceRappels {
+        /**
+         * @return le rappel suivant, ou null quand la source est épuisée
+         */
+        Rappel suivant() throws SQLException;
+    }
+
+    /**
+     * Enregistrement des rappels envoyés
+     */
+    interface RegistreEnvois extends AutoCloseable {
+        void enregistrer(Rappel rappel) throws SQLException;
+
+        @Override
+        void close() throws SQLException;
+    }
+
+    /**
+     * @param transport moyen de remise des messages
+     * @param fils nombre de fils d'envoi simultanés
+     * @param debitMax nombre maximal de messages par seconde, 0 pour ne pas limiter
+     */
+    public CampagneRappels(TransportMessages transport, int fils, double debitMax) {
+        this.transport = transport;
+        this.fils = fils;
+        this.debitMax = debitMax;
+    }
+
+    // ==================== CAMPAGNE ====================
+
+    /**
+     * Envoie les rappels du jour
+     * @param jour date de la campagne
+     * @param joursAvant délai avant l'échéance à partir duquel un emprunt est rappelé
+     * @return le bilan de la campagne
+     * @throws SQLException en cas d'erreur de lecture des emprunts
+     */
+    public Bilan executer(LocalDate jour, int joursAvant) throws SQLException {
+        String query = "SELECT em.id_lecteur, l.nom, l.email, em.id_emprunt, em.numero_exemplaire, " +
+                "em.date_retour_prevue, li.titre " +
+                "FROM EMPRUNT em JOIN LECTEUR l ON l.id_lecteur = em.id_lecteur " +
+                "JOIN EXEMPLAIRE e ON e.numero_exemplaire = em.numero_exemplaire " +
+                "JOIN LIVRE li ON li.isbn = e.isbn " +
+                "WHERE em.id_lecteur > ? AND em.id_lecteur <= ? " +
+                "AND em.date_retour_effectif IS NULL AND em.statut IN (?, ?) AND em.date_retour_prevue < ? " +
+                "AND l.email IS NOT NULL AND l.email <> '' " +
+                "ORDER BY em.id_lecteur, em.date_retour_prevue";
+
+        BitSet dejaPrevenus = lirePrevenus(jour);
+        try (Connection conn = Succursale.PRINCIPALE.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query);
+             RegistreEnvois registre = new RegistreBase(jour)) {
+
+            stmt.setString(3, Emprunt.StatutEmprunt.EN_COURS.getLibelle());
+            stmt.setString(4, Emprunt.StatutEmprunt.RETARD.getLibelle());
+            stmt.setTimestamp(5, Timestamp.valueOf(jour.plusDays(joursAvant + 1L).atStartOfDay()));
+
+            Bilan bilan = diffuser(new LectureTranches(stmt, dernierLecteur(conn)), dejaPrevenus, registre, jour);
+            System.out.println("Rappels du " + jour + ": " + bilan);
+            return bilan;
+        }
+    }
+
+    /**
+     * Envoie les rappels d'une source, en parallèle et au débit maximal configuré
+     * @param source rappels à envoyer, un par lecteur
+     * @param dejaPrevenus lecteurs à ignorer
+     * @param registre enregistrement des envois réussis
+     * @param jour date de la campagne
+     * @return le bilan de la campagne
+     * @throws SQLException en cas d'erreur de lecture de la source
+     */
+    Bilan diffuser(SourceRappels source, BitSet dejaPrevenus, RegistreEnvois registre, LocalDate jour)
+            throws SQLException {
+        long debut = System.nanoTime();
+        Bilan bilan = new Bilan();
+        Debit debit = new Debit(debitMax);
+        BlockingQueue<Rappel> file = new ArrayBlockingQueue<>(fils * 64);
+        ExecutorService executeur = Executors.newFixedThreadPool(fils, r -> {
+            Thread t = new Thread(r, "bibliotrack-rappels");
+            t.setDaemon(true);
+            return t;
+        });
+        List<Future<?>> envois = new ArrayList<>();
+        for (int i = 0; i < fils; i++) {
+            envois.add(executeur.submit(() -> envoyer(file, debit, registre, jour, bilan)));
+        }
+
+        try {
+            for (Rappel rappel = source.suivant(); rappel != null; rappel = source.suivant()) {
+                bilan.lecteurs.incrementAndGet();
+                bilan.emprunts.addAndGet(rappel.getLignes().size());
+                if (dejaPrevenus.get(rappel.getIdLecteur())) {
+                    bilan.dejaPrevenus.incrementAndGet();
+                } else {
+                    file.put(rappel);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Campagne interrompue", e);
+        } finally {
+            terminer(file, executeur);
+        }
+
+        try {
+            for (Future<?> envoi : envois) {
+                envoi.get();
+            }
+        } catch (Exception e) {
+            throw new SQLException("Erreur lors de l'envoi des rappels: " + e.getMessage(), e);
+        }
+        bilan.dureeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut);
+        return bilan;
+    }
+
+    // Signale la fin de la lecture à chaque fil d'envoi, une fois la file écoulée
+    private void terminer(BlockingQueue<Rappel> file, ExecutorService executeur) {
+        try {
+            for (int i = 0; i < fils; i++) {
+                file.put(FIN);
+            }
+            executeur.shutdown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executeur.shutdownNow();
+        }
+    }
+
+    // Boucle d'un fil d'envoi
+    private Void envoyer(BlockingQueue<Rappel> file, Debit debit, RegistreEnvois registre, LocalDate jour,
+                         Bilan bilan) throws InterruptedException {
+        for (Rappel rappel = file.take(); rappel != FIN; rappel = file.take()) {
+            debit.attendre();
+            try {
+                transport.envoyer(rappel.rediger(jour));
+            } catch (IOException | RuntimeException e) {
+                // Un seul lecteur en échec : le fil continue, sinon le producteur resterait bloqué
+                // sur une file que plus personne ne vide (adresse ou nom inutilisable dans un en-tête,
+                // erreur inattendue du transport...)
+                if (bilan.echecs.incrementAndGet() <= ECHECS_AFFICHES) {
+                    System.err.println("Rappel non remis à " + rappel.getEmail() + ": " + e.getMessage());
+                }
+                continue;
+            }
+            bilan.envoyes.incrementAndGet();
+            try {
+                registre.enregistrer(rappel);
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("Envoi au lecteur " + rappel.getIdLecteur() + " non enregistré: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // Lit les emprunts par tranches de numéros de lecteur et les regroupe en un rappel par lecteur
+    static class LectureTranches implements SourceRappels {
+        private final PreparedStatement stmt;
+        private final int dernierLecteur;
+        private int borne;              // Dernier numéro de lecteur de la tranche courante
+        private ResultSet rs;           // Tranche courante, positionnée sur la prochaine ligne à lire
+        private boolean ligne;          // rs est positionné sur une ligne
+
+        LectureTranches(PreparedStatement stmt, int dernierLecteur) {
+            this.stmt = stmt;
+            this.dernierLecteur = dernierLecteur;
+        }
+
+        @Override
+        public Rappel suivant() throws SQLException {
+            while (!ligne) {
+                if (rs != null) {
+                    rs.close();
+                }
+                if (borne >= dernierLecteur) {
+                    return null;
+                }
+                stmt.setInt(1, borne);
+                stmt.setInt(2, borne += TRANCHE_LECTEURS);
+                rs = stmt.executeQuery();
+                ligne = rs.next();
+            }
+
+            int idLecteur = rs.getInt("id_lecteur");
+            Rappel rappel = new Rappel(idLecteur, rs.getString("nom"), rs.getString("email"));
+            do {
+                rappel.ajouter(new Rappel.Ligne(rs.getInt("id_emprunt"), rs.getInt("numero_exemplaire"),
+                        rs.getString("titre"), rs.getTimestamp("date_retour_prevue").toLocalDateTime().toLocalDate()));
+                ligne = rs.next();
+            } while (ligne && rs.getInt("id_lecteur") == idLecteur);
+            return rappel;
+        }
+    }
+
+    // Plus grand numéro de lecteur
+    private static int dernierLecteur(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id_lecteur), 0) FROM LECTEUR")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // Lecteurs déjà prévenus ce jour
+    private static BitSet lirePrevenus(LocalDate jour) throws SQLException {
+        BitSet prevenus = new BitSet();
+        try (Connection conn = Succursale.PRINCIPALE.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id_lecteur FROM NOTIFICATION WHERE jour = ?")) {
+            stmt.setDate(1, Date.valueOf(jour));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    prevenus.set(rs.getInt(1));
+                }
+            }
+        }
+        return prevenus;
+    }
+
+    // ==================== ENREGISTREMENT ====================
+
+    // Enregistre les envois dans NOTIFICATION par lots, sur une connexion dédiée
+    private static class RegistreBase implements RegistreEnvois {
+        private final Connection conn;
+        private final PreparedStatement stmt;
+        private int enAttente;
+
+        RegistreBase(LocalDate jour) throws SQLException {
+            conn = Succursale.PRINCIPALE.getConnection();
+            try {
+                stmt = conn.prepareStatement("INSERT IGNORE INTO NOTIFICATION (id_lecteur, jour, nombre_emprunts) " +
+                        "VALUES (?, ?, ?)");
+                stmt.setDate(2, Date.valueOf(jour));
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public synchronized void enregistrer(Rappel rappel) throws SQLException {
+            stmt.setInt(1, rappel.getIdLecteur());
+            stmt.setInt(3, rappel.getLignes().size());
+            stmt.addBatch();
+            if (++enAttente == TAILLE_LOT) {
+                vider();
+            }
+        }
+
+        @Override
+        public synchronized void close() throws SQLException {
+            try {
+                vider();
+            } finally {
+                conn.close();
+            }
+        }
+
+        private void vider() throws SQLException {
+            if (enAttente > 0) {
+                enAttente = 0;
+                stmt.executeBatch();
+            }
+        }
+    }
+
+    // ==================== DEBIT ====================
+
+    // Espace les envois d'un intervalle fixe, tous fils confondus
+    private static class Debit {
+        private final long intervalleNanos;
+        private long prochainNanos = System.nanoTime();
+
+        Debit(double parSeconde) {
+            this.intervalleNanos = parSeconde > 0 ? (long) (1_000_000_000L / parSeconde) : 0;
+        }
+
+        void attendre() {
+            if (intervalleNanos == 0) {
+                return;
+            }
+            long creneau;
+            synchronized (this) {
+                creneau = Math.max(prochainNanos, System.nanoTime());
+                prochainNanos = creneau + intervalleNanos;
+            }
+            for (long reste = creneau - System.nanoTime(); reste > 0; reste = creneau - System.nanoTime()) {
+                LockSupport.parkNanos(reste);
+            }
+        }
+    }
+
+    /**
+     * Lance une campagne en ligne de commande, par exemple chaque nuit
+     * @param args jours avant l'échéance, transport (fichier:chemin ou smtp:hote:port),
+     *             fils d'envoi, messages par seconde
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: CampagneRappels joursAvant fichier:chemin|smtp:hote:port [fils] [parSeconde]");
+            System.exit(1);
+        }
+        String[] transport = args[1].split(":", 3);
+        try (TransportMessages moyen = transport[0].equals("smtp")
+                ? new TransportSmtp(transport[1], Integer.parseInt(transport[2]),
+                        System.getProperty("bibliotrack.expediteur", "bibliotheque@localhost"))
+                : new TransportFichier(Paths.get(args[1].substring(args[1].indexOf(':') + 1)))) {
+            new CampagneRappels(moyen,
+                    args.length > 2 ? Integer.parseInt(args[2]) : 4,
+                    args.length > 3 ? Double.parseDouble(args[3]) : 0)
+                    .executer(LocalDate.now(), Integer.parseInt(args[0]));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.bibliotrack.model.notification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Message prêt à être remis à un lecteur.
+ *
+ * Le destinataire, son nom et le sujet viennent de la base et sont recopiés dans les en-têtes
+ * et la commande RCPT TO : un retour à la ligne y permettrait d'ajouter des en-têtes ou des
+ * destinataires, ils sont donc refusés à la construction.
+ */
+public class Message {
+    private static final int LONGUEUR_LIGNE_QP = 76;  // Longueur maximale d'une ligne quoted-printable
+
+    private final String destinataire;      // Adresse électronique du lecteur
+    private final String nomDestinataire;   // Nom affichable du lecteur
+    private final String sujet;
+    private final String corps;             // Texte brut, lignes séparées par \n
+
+    /**
+     * @param destinataire adresse électronique du lecteur
+     * @param nomDestinataire nom affichable du lecteur
+     * @param sujet sujet du message
+     * @param corps texte brut, lignes séparées par \n
+     * @throws IllegalArgumentException si l'adresse est invalide, ou si le nom ou le sujet
+     *                                  contiennent un retour à la ligne
+     */
+    public Message(String destinataire, String nomDestinataire, String sujet, String corps) {
+        if (destinataire == null || destinataire.isEmpty() || destinataire.chars().anyMatch(
+                c -> c <= ' ' || c == 0x7F || c == '<' || c == '>')) {
+            throw new IllegalArgumentException("Adresse de destinataire invalide: " + destinataire);
+        }
+        verifierLigne("nom du destinataire", nomDestinataire);
+        verifierLigne("sujet", sujet);
+        this.destinataire = destinataire;
+        this.nomDestinataire = nomDestinataire;
+        this.sujet = sujet;
+        this.corps = corps;
+    }
+
+    public String getDestinataire() {
+        return destinataire;
+    }
+
+    public String getNomDestinataire() {
+        return nomDestinataire;
+    }
+
+    public String getSujet() {
+        return sujet;
+    }
+
+    public String getCorps() {
+        return corps;
+    }
+
+    // Refuse les retours à la ligne dans une valeur destinée à un en-tête
+    private static void verifierLigne(String champ, String valeur) {
+        if (valeur != null && (valeur.indexOf('\r') >= 0 || valeur.indexOf('\n') >= 0)) {
+            throw new IllegalArgumentException("Retour à la ligne interdit dans le " + champ);
+        }
+    }
+
+    /**
+     * @param huitBits true si le corps est transmis tel quel en UTF-8, false s'il est encodé
+     *                 en quoted-printable (voir {@link #lignesQuotedPrintable()})
+     * @return les en-têtes du message au format RFC 5322, chacun terminé par CRLF
+     */
+    String enTetes(boolean huitBits) {
+        return "To: " + encoderNom(nomDestinataire) + " <" + destinataire + ">\r\n" +
+                "Subject: " + encoder(sujet) + "\r\n" +
+                "MIME-Version: 1.0\r\n" +
+                "Content-Type: text/plain; charset=UTF-8\r\n" +
+                "Content-Transfer-Encoding: " + (huitBits ? "8bit" : "quoted-printable") + "\r\n";
+    }
+
+    /**
+     * Encode le corps en quoted-printable (RFC 2045), pour les serveurs qui n'acceptent que l'ASCII
+     * @return les lignes encodées, d'au plus 76 caractères
+     */
+    List<String> lignesQuotedPrintable() {
+        List<String> lignes = new ArrayList<>();
+        for (String ligne : corps.split("\n", -1)) {
+            byte[] octets = ligne.getBytes(StandardCharsets.UTF_8);
+            StringBuilder encodee = new StringBuilder();
+            int debutLigne = 0;     // Position dans encodee du début de la ligne physique courante
+            for (int i = 0; i < octets.length; i++) {
+                int octet = octets[i] & 0xFF;
+                boolean finDeLigne = i == octets.length - 1;
+                String code = (octet >= 33 && octet <= 126 && octet != '=')
+                        || ((octet == ' ' || octet == '\t') && !finDeLigne)
+                        ? String.valueOf((char) octet)
+                        : String.format("=%02X", octet);
+                // Saut de ligne doux "=" si la ligne physique dépasserait 76 caractères
+                int reserve = finDeLigne ? 0 : 1;
+                if (encodee.length() - debutLigne + code.length() + reserve > LONGUEUR_LIGNE_QP) {
+                    encodee.append('=');
+                    lignes.add(encodee.substring(debutLigne));
+                    debutLigne = encodee.length();
+                }
+                encodee.append(code);
+            }
+            lignes.add(encodee.substring(debutLigne));
+        }
+        return lignes;
+    }
+
+    // Encodage RFC 2047 des en-têtes contenant des caractères non ASCII
+    private static String encoder(String texte) {
+        if (StandardCharsets.US_ASCII.newEncoder().canEncode(texte)) {
+            return texte;
+        }
+        return "=?UTF-8?B?" + Base64.getEncoder().encodeToString(texte.getBytes(StandardCharsets.UTF_8)) + "?=";
+    }
+
+    // Nom affichable : entre guillemets s'il est ASCII, pour qu'une virgule ne sépare pas deux adresses
+    private static String encoderNom(String nom) {
+        if (!StandardCharsets.US_ASCII.newEncoder().canEncode(nom)) {
+            return encoder(nom);
+        }
+        return "\"" + nom.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    @Override
+    public String toString() {
+        return sujet + " -> " + destinataire;
+    }
+}
@@ -0,0 +1,107 @@
+package com.bibliotrack.model.notification;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Récapitulatif des emprunts d'un lecteur à rendre prochainement ou en retard,
+ * envoyé en un seul message.
+ */
+public class Rappel {
+    private static final DateTimeFormatter FORMAT_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final int idLecteur;
+    private final String nom;
+    private final String email;
+    private final List<Ligne> lignes = new ArrayList<>();
+
+    /**
+     * Emprunt mentionné dans le rappel
+     */
+    public static class Ligne {
+        private final int idEmprunt;
+        private final int numeroExemplaire;
+        private final String titre;
+        private final LocalDate dateRetourPrevue;
+
+        public Ligne(int idEmprunt, int numeroExemplaire, String titre, LocalDate dateRetourPrevue) {
+            this.idEmprunt = idEmprunt;
+            this.numeroExemplaire = numeroExemplaire;
+            this.titre = titre;
+            this.dateRetourPrevue = dateRetourPrevue;
+        }
+
+        public int getIdEmprunt() {
+            return idEmprunt;
+        }
+
+        public LocalDate getDateRetourPrevue() {
+            return dateRetourPrevue;
+        }
+    }
+
+    public Rappel(int idLecteur, String nom, String email) {
+        this.idLecteur = idLecteur;
+        this.nom = nom;
+        this.email = email;
+    }
+
+    public int getIdLecteur() {
+        return idLecteur;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public List<Ligne> getLignes() {
+        return lignes;
+    }
+
+    void ajouter(Ligne ligne) {
+        lignes.add(ligne);
+    }
+
+    /**
+     * Rédige le message du rappel
+     * @param jour date de la campagne, qui détermine les retards
+     * @return le message à envoyer au lecteur
+     */
+    public Message rediger(LocalDate jour) {
+        StringBuilder retards = new StringBuilder();
+        StringBuilder prochains = new StringBuilder();
+        int nombreRetards = 0;
+        for (Ligne ligne : lignes) {
+            long ecart = ChronoUnit.DAYS.between(jour, ligne.dateRetourPrevue);
+            StringBuilder section = ecart < 0 ? retards : prochains;
+            section.append(" - ").append(ligne.titre)
+                    .append(" (exemplaire n°").append(ligne.numeroExemplaire).append("), à rendre le ")
+                    .append(ligne.dateRetourPrevue.format(FORMAT_DATE));
+            if (ecart < 0) {
+                section.append(", ").append(-ecart).append(" jour(s) de retard");
+                nombreRetards++;
+            }
+            section.append('\n');
+        }
+
+        StringBuilder corps = new StringBuilder(256)
+                .append("Bonjour ").append(nom).append(",\n\n")
+                .append("Voici le point sur vos emprunts au ").append(jour.format(FORMAT_DATE)).append(" :\n\n");
+        if (retards.length() > 0) {
+            corps.append("En retard :\n").append(retards).append('\n');
+        }
+        if (prochains.length() > 0) {
+            corps.append("À rendre prochainement :\n").append(prochains).append('\n');
+        }
+        corps.append("Merci de les rapporter à la bibliothèque ou de demander une prolongation.\n\n")
+                .append("La bibliothèque\n");
+
+        String sujet = nombreRetards > 0
+                ? "Emprunts en retard (" + nombreRetards + ")"
+                : "Rappel : " + lignes.size() + " emprunt(s) à rendre prochainement";
+        return new Message(email, nom, sujet, corps.toString());
+    }
+}
@@ -0,0 +1,49 @@
+package com.bibliotrack.model.notification;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Transport écrivant les messages à la suite dans un fichier au format mbox,
+ * lisible par un client de messagerie. Sert de substitut au serveur de messagerie
+ * pour les essais et les environnements sans SMTP.
+ */
+public class TransportFichier implements TransportMessages {
+    private static final DateTimeFormatter FORMAT_SEPARATEUR =
+            DateTimeFormatter.ofPattern("EEE MMM d HH:mm:ss yyyy", Locale.ROOT);
+
+    private final BufferedWriter sortie;
+
+    /**
+     * @param fichier fichier de destination, complété s'il existe
+     * @throws IOException si le fichier ne peut pas être ouvert
+     */
+    public TransportFichier(Path fichier) throws IOException {
+        this.sortie = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void envoyer(Message message) throws IOException {
+        sortie.write("From bibliotrack " + ZonedDateTime.now().format(FORMAT_SEPARATEUR) + "\n");
+        sortie.write(message.enTetes(true).replace("\r\n", "\n"));
+        sortie.write('\n');
+        for (String ligne : message.getCorps().split("\n", -1)) {
+            sortie.write(ligne.startsWith("From ") ? ">" + ligne : ligne);
+            sortie.write('\n');
+        }
+        sortie.flush();     // Le message est remis avant que son envoi ne soit enregistré
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sortie.close();
+    }
+}
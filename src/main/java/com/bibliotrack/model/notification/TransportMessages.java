@@ -0,0 +1,19 @@
+package com.bibliotrack.model.notification;
+
+import java.io.IOException;
+
+/**
+ * Moyen de remise des messages aux lecteurs. Les implémentations doivent accepter
+ * des envois simultanés depuis plusieurs fils.
+ */
+public interface TransportMessages extends AutoCloseable {
+    /**
+     * Remet un message
+     * @param message le message à remettre
+     * @throws IOException si le message n'a pas pu être remis
+     */
+    void envoyer(Message message) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,166 @@
+package com.bibliotrack.model.notification;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transport SMTP minimal, sans authentification ni chiffrement, destiné à un relais local
+ * (serveur de messagerie de l'établissement ou collecteur de test).
+ * Chaque fil d'envoi garde sa propre session ouverte et la réutilise d'un message à l'autre.
+ * Le corps est transmis en 8 bits si le serveur annonce l'extension 8BITMIME en réponse à
+ * EHLO, et en quoted-printable sinon (y compris face à un serveur qui ne connaît que HELO).
+ */
+public class TransportSmtp implements TransportMessages {
+    private static final int DELAI_MILLIS = 10_000;
+
+    private final String hote;
+    private final int port;
+    private final String expediteur;
+    private final ThreadLocal<Session> sessions = new ThreadLocal<>();
+    private final Set<Session> ouvertes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param hote serveur SMTP
+     * @param port port du serveur
+     * @param expediteur adresse d'expédition des messages
+     */
+    public TransportSmtp(String hote, int port, String expediteur) {
+        this.hote = hote;
+        this.port = port;
+        this.expediteur = expediteur;
+    }
+
+    @Override
+    public void envoyer(Message message) throws IOException {
+        Session session = sessions.get();
+        if (session == null) {
+            session = new Session();
+            sessions.set(session);
+            ouvertes.add(session);
+        }
+        try {
+            session.envoyer(message);
+        } catch (IOException e) {
+            // Session dans un état inconnu : la suivante repartira d'une connexion neuve
+            sessions.remove();
+            ouvertes.remove(session);
+            session.fermer();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Session session : ouvertes) {
+            session.quitter();
+        }
+        ouvertes.clear();
+    }
+
+    // Connexion SMTP propre à un fil
+    private class Session {
+        private final Socket socket = new Socket();
+        private final BufferedReader entree;
+        private final OutputStream sortie;
+        private final boolean huitBits;     // Le serveur accepte un corps 8 bits (8BITMIME)
+
+        Session() throws IOException {
+            try {
+                socket.connect(new InetSocketAddress(hote, port), DELAI_MILLIS);
+                socket.setSoTimeout(DELAI_MILLIS);
+                entree = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                sortie = socket.getOutputStream();
+                attendre(220);
+                ecrire("EHLO bibliotrack");
+                List<String> reponse = lireReponse();
+                if (reponse.get(reponse.size() - 1).startsWith("250")) {
+                    huitBits = reponse.stream().skip(1)
+                            .anyMatch(ligne -> ligne.substring(Math.min(4, ligne.length())).trim()
+                                    .equalsIgnoreCase("8BITMIME"));
+                } else {
+                    // Serveur antérieur à ESMTP
+                    commande("HELO bibliotrack", 250);
+                    huitBits = false;
+                }
+            } catch (IOException e) {
+                fermer();
+                throw e;
+            }
+        }
+
+        void envoyer(Message message) throws IOException {
+            commande("MAIL FROM:<" + expediteur + ">" + (huitBits ? " BODY=8BITMIME" : ""), 250);
+            commande("RCPT TO:<" + message.getDestinataire() + ">", 250);
+            commande("DATA", 354);
+
+            StringBuilder donnees = new StringBuilder(message.getCorps().length() + 256)
+                    .append("From: BiblioTrack <").append(expediteur).append(">\r\n")
+                    .append(message.enTetes(huitBits)).append("\r\n");
+            List<String> lignes = huitBits ? List.of(message.getCorps().split("\n", -1)) : message.lignesQuotedPrintable();
+            for (String ligne : lignes) {
+                // Transparence SMTP : un point en début de ligne est doublé
+                donnees.append(ligne.startsWith(".") ? "." + ligne : ligne).append("\r\n");
+            }
+            donnees.append(".");
+            commande(donnees.toString(), 250);
+        }
+
+        void quitter() {
+            try {
+                commande("QUIT", 221);
+            } catch (IOException e) {
+                // Le serveur a déjà fermé la connexion
+            }
+            fermer();
+        }
+
+        void fermer() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Déjà fermée
+            }
+        }
+
+        private void commande(String ligne, int codeAttendu) throws IOException {
+            ecrire(ligne);
+            attendre(codeAttendu);
+        }
+
+        private void ecrire(String ligne) throws IOException {
+            sortie.write((ligne + "\r\n").getBytes(StandardCharsets.UTF_8));
+            sortie.flush();
+        }
+
+        private void attendre(int codeAttendu) throws IOException {
+            List<String> reponse = lireReponse();
+            String derniere = reponse.get(reponse.size() - 1);
+            if (!derniere.startsWith(String.valueOf(codeAttendu))) {
+                throw new IOException("Réponse SMTP inattendue: " + derniere);
+            }
+        }
+
+        // Lit une réponse, éventuellement sur plusieurs lignes ("250-..." puis "250 ...")
+        private List<String> lireReponse() throws IOException {
+            List<String> lignes = new ArrayList<>();
+            String ligne;
+            do {
+                ligne = entree.readLine();
+                if (ligne == null) {
+                    throw new IOException("Connexion SMTP fermée par le serveur");
+                }
+                lignes.add(ligne);
+            } while (ligne.length() > 3 && ligne.charAt(3) == '-');
+            return lignes;
+        }
+    }
+}
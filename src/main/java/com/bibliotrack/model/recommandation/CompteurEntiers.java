@@ -0,0 +1,180 @@
+package com.bibliotrack.model.recommandation;
+
+import java.util.Arrays;
+
+/**
+ * Table de compteurs entier -> entier à adressage ouvert, sans objet par entrée.
+ * Une entrée occupe 8 octets, contre une soixantaine pour un HashMap<Integer, Integer>.
+ * Non synchronisée : l'appelant protège les accès concurrents.
+ */
+final class CompteurEntiers {
+    private static final int VIDE = Integer.MIN_VALUE;   // Clé réservée aux cases libres
+
+    private int[] cles;
+    private int[] valeurs;
+    private int taille;
+
+    CompteurEntiers(int capacite) {
+        int cases = Integer.highestOneBit(Math.max(4, capacite) * 2 - 1) << 1;
+        cles = new int[cases];
+        valeurs = new int[cases];
+        Arrays.fill(cles, VIDE);
+    }
+
+    /**
+     * Ajoute une valeur au compteur d'une clé (créé à 0 s'il n'existe pas)
+     * @param cle la clé, différente de Integer.MIN_VALUE
+     * @param delta la valeur à ajouter
+     * @return la nouvelle valeur du compteur
+     */
+    int incrementer(int cle, int delta) {
+        if (cle == VIDE) {
+            throw new IllegalArgumentException("Clé réservée: " + cle);
+        }
+        int i = chercher(cle);
+        if (cles[i] == VIDE) {
+            if ((taille + 1) * 4 > cles.length * 3) {
+                agrandir();
+                i = chercher(cle);
+            }
+            cles[i] = cle;
+            taille++;
+        }
+        return valeurs[i] += delta;
+    }
+
+    /**
+     * @param cle la clé recherchée
+     * @return la valeur du compteur, 0 si la clé est absente
+     */
+    int get(int cle) {
+        int i = chercher(cle);
+        return cles[i] == VIDE ? 0 : valeurs[i];
+    }
+
+    int taille() {
+        return taille;
+    }
+
+    /**
+     * @return les clés présentes, dans un ordre quelconque
+     */
+    int[] cles() {
+        int[] resultat = new int[taille];
+        int n = 0;
+        for (int cle : cles) {
+            if (cle != VIDE) {
+                resultat[n++] = cle;
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne les k clés de plus forte valeur, par valeur décroissante
+     * @param k nombre maximal de clés
+     * @param exclue clé à ignorer
+     * @return les clés retenues
+     */
+    int[] meilleures(int k, int exclue) {
+        // Tas minimum de taille k sur (valeur, clé), tenu dans deux tableaux
+        int[] tasCles = new int[k];
+        int[] tasValeurs = new int[k];
+        int n = 0;
+        for (int i = 0; i < cles.length; i++) {
+            int cle = cles[i];
+            if (cle == VIDE || cle == exclue) {
+                continue;
+            }
+            int valeur = valeurs[i];
+            if (n < k) {
+                tasCles[n] = cle;
+                tasValeurs[n] = valeur;
+                remonter(tasCles, tasValeurs, n++);
+            } else if (valeur > tasValeurs[0]) {
+                tasCles[0] = cle;
+                tasValeurs[0] = valeur;
+                descendre(tasCles, tasValeurs, n);
+            }
+        }
+        int[] resultat = new int[n];
+        for (int j = n - 1; j >= 0; j--) {
+            resultat[j] = tasCles[0];
+            tasCles[0] = tasCles[j];
+            tasValeurs[0] = tasValeurs[j];
+            descendre(tasCles, tasValeurs, j);
+        }
+        return resultat;
+    }
+
+    /**
+     * @return estimation de la mémoire occupée, en octets
+     */
+    long octets() {
+        return 16L + 2L * (16L + 4L * cles.length);
+    }
+
+    private int chercher(int cle) {
+        int masque = cles.length - 1;
+        int i = (cle * 0x9E3779B9) >>> 7 & masque;
+        while (cles[i] != VIDE && cles[i] != cle) {
+            i = (i + 1) & masque;
+        }
+        return i;
+    }
+
+    private void agrandir() {
+        int[] anciennesCles = cles;
+        int[] anciennesValeurs = valeurs;
+        cles = new int[anciennesCles.length * 2];
+        valeurs = new int[anciennesCles.length * 2];
+        Arrays.fill(cles, VIDE);
+        for (int i = 0; i < anciennesCles.length; i++) {
+            if (anciennesCles[i] != VIDE) {
+                int j = chercher(anciennesCles[i]);
+                cles[j] = anciennesCles[i];
+                valeurs[j] = anciennesValeurs[i];
+            }
+        }
+    }
+
+    private static void remonter(int[] tasCles, int[] tasValeurs, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (tasValeurs[parent] <= tasValeurs[i]) {
+                return;
+            }
+            echanger(tasCles, tasValeurs, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void descendre(int[] tasCles, int[] tasValeurs, int n) {
+        int i = 0;
+        while (true) {
+            int plusPetit = i;
+            int gauche = 2 * i + 1;
+            int droite = gauche + 1;
+            if (gauche < n && tasValeurs[gauche] < tasValeurs[plusPetit]) {
+                plusPetit = gauche;
+            }
+            if (droite < n && tasValeurs[droite] < tasValeurs[plusPetit]) {
+                plusPetit = droite;
+            }
+            if (plusPetit == i) {
+                return;
+            }
+            echanger(tasCles, tasValeurs, i, plusPetit);
+            i = plusPetit;
+        }
+    }
+
+    private static void echanger(int[] tasCles, int[] tasValeurs, int a, int b) {
+        int cle = tasCles[a];
+        tasCles[a] = tasCles[b];
+        tasCles[b] = cle;
+        int valeur = tasValeurs[a];
+        tasValeurs[a] = tasValeurs[b];
+        tasValeurs[b] = valeur;
+    }
+}
@@ -0,0 +1,97 @@
+package com.bibliotrack.model.recommandation;
+
+import java.sql.SQLException;
+import java.util.Random;
+
+/**
+ * Mesure la reconstruction du modèle de recommandations sans base de données : durée de
+ * {@link Recommandations#construire} sur un historique synthétique, avec un puis tous les
+ * processeurs, et mémoire occupée par le modèle obtenu. Chaque lecteur emprunte en moyenne
+ * emprunts / lecteurs livres, tirés avec une popularité très inégale comme au guichet.
+ *
+ * Lancement : java -cp target/classes com.bibliotrack.model.recommandation.MesureRecommandations
+ * [emprunts] [lecteurs] [livres]
+ */
+public class MesureRecommandations {
+
+    public static void main(String[] args) throws SQLException {
+        long emprunts = args.length > 0 ? Long.parseLong(args[0]) : 5_000_000;
+        int lecteurs = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int livres = args.length > 2 ? Integer.parseInt(args[2]) : 50_000;
+        int processeurs = Runtime.getRuntime().availableProcessors();
+
+        // Première construction pour l'échauffement, non mesurée
+        Recommandations.construire(new SourceSynthetique(emprunts / 10, lecteurs / 10, livres), processeurs);
+
+        for (int fils : processeurs > 1 ? new int[]{1, processeurs} : new int[]{1}) {
+            long avant = memoireUtilisee();
+            long debut = System.nanoTime();
+            ModeleCooccurrence modele = Recommandations.construire(
+                    new SourceSynthetique(emprunts, lecteurs, livres), fils);
+            long duree = System.nanoTime() - debut;
+            long tas = memoireUtilisee() - avant;
+
+            System.out.printf("%d fil(s) : %d emprunt(s) en %d ms (%.0f/s) ; %s ; tas retenu %d Mo%n",
+                    fils, emprunts, duree / 1_000_000, emprunts * 1e9 / Math.max(1, duree), modele,
+                    tas / (1024 * 1024));
+        }
+    }
+
+    // Mémoire occupée après un ramasse-miettes complet, à titre indicatif
+    private static long memoireUtilisee() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Historique d'emprunts généré à la volée, trié par lecteur, reproductible d'une exécution à l'autre
+     */
+    private static class SourceSynthetique implements Recommandations.SourceEmprunts {
+        private final Random aleatoire = new Random(42);
+        private final long emprunts;
+        private final int lecteurs;
+        private final int livres;
+        private long lus;
+        private int lecteur;
+        private int restants;       // Emprunts restant à lire pour le lecteur courant
+        private int isbn;
+
+        SourceSynthetique(long emprunts, int lecteurs, int livres) {
+            this.emprunts = emprunts;
+            this.lecteurs = Math.max(1, lecteurs);
+            this.livres = livres;
+        }
+
+        @Override
+        public boolean suivant() {
+            if (lus == emprunts) {
+                return false;
+            }
+            if (restants == 0) {
+                // Entre 1 et deux fois la moyenne, sauf pour le dernier lecteur qui prend le reste
+                int moyenne = (int) Math.max(1, emprunts / lecteurs);
+                lecteur++;
+                restants = lecteur >= lecteurs ? (int) Math.min(Integer.MAX_VALUE, emprunts - lus)
+                        : 1 + aleatoire.nextInt(2 * moyenne - 1);
+            }
+            restants--;
+            lus++;
+            // Les premiers ISBN sont de loin les plus empruntés
+            isbn = 1 + (int) (livres * Math.pow(aleatoire.nextDouble(), 3));
+            return true;
+        }
+
+        @Override
+        public int getIdLecteur() {
+            return lecteur;
+        }
+
+        @Override
+        public int getIsbn() {
+            return isbn;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.bibliotrack.model.recommandation;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Modèle « les lecteurs qui ont emprunté ce livre ont aussi emprunté » : pour chaque ISBN,
+ * le nombre de lecteurs ayant emprunté à la fois ce livre et chacun des autres.
+ *
+ * Les compteurs sont des tables entier -> entier creuses ({@link CompteurEntiers}) ; chaque
+ * table est protégée par son propre verrou, de sorte que les mises à jour sur des livres
+ * différents ne se bloquent pas. Les meilleures recommandations de chaque livre sont gardées
+ * en cache jusqu'à la prochaine modification de ses compteurs.
+ */
+public class ModeleCooccurrence {
+    /**
+     * Nombre maximal de livres distincts pris en compte par lecteur : au-delà, un lecteur
+     * très actif ajoute un nombre quadratique de paires pour un signal presque nul.
+     */
+    public static final int LIMITE_HISTORIQUE = 500;
+
+    private static final int TAILLE_CACHE = 10;     // Recommandations gardées en cache par livre
+
+    private final ConcurrentHashMap<Integer, CompteurEntiers> cooccurrences;   // ISBN -> (ISBN -> lecteurs communs)
+    private final ConcurrentHashMap<Integer, CompteurEntiers> historiques;     // Lecteur -> ISBN empruntés
+    private final ConcurrentHashMap<Integer, int[]> cache = new ConcurrentHashMap<>();
+
+    public ModeleCooccurrence() {
+        this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    ModeleCooccurrence(ConcurrentHashMap<Integer, CompteurEntiers> cooccurrences,
+                       ConcurrentHashMap<Integer, CompteurEntiers> historiques) {
+        this.cooccurrences = cooccurrences;
+        this.historiques = historiques;
+    }
+
+    /**
+     * Prend en compte un nouvel emprunt. Un livre déjà emprunté par le même lecteur ne modifie pas le modèle.
+     * @param idLecteur identifiant du lecteur
+     * @param isbn ISBN du livre emprunté
+     */
+    public void enregistrer(int idLecteur, int isbn) {
+        CompteurEntiers historique = historiques.computeIfAbsent(idLecteur, id -> new CompteurEntiers(4));
+        int[] autres;
+        synchronized (historique) {
+            if (historique.get(isbn) > 0 || historique.taille() >= LIMITE_HISTORIQUE) {
+                return;
+            }
+            autres = historique.cles();
+            historique.incrementer(isbn, 1);
+        }
+        for (int autre : autres) {
+            incrementer(isbn, autre);
+            incrementer(autre, isbn);
+        }
+    }
+
+    /**
+     * Retourne les livres le plus souvent empruntés par les lecteurs d'un livre donné
+     * @param isbn ISBN du livre consulté
+     * @param nombre nombre maximal de recommandations
+     * @return les ISBN recommandés, du plus au moins fréquent
+     */
+    public int[] recommander(int isbn, int nombre) {
+        if (nombre <= TAILLE_CACHE) {
+            int[] meilleures = cache.get(isbn);
+            if (meilleures == null) {
+                meilleures = calculer(isbn, TAILLE_CACHE, true);
+            }
+            return meilleures.length <= nombre ? meilleures : Arrays.copyOf(meilleures, nombre);
+        }
+        return calculer(isbn, nombre, false);
+    }
+
+    /**
+     * @param isbn ISBN d'un livre
+     * @param autre ISBN d'un autre livre
+     * @return le nombre de lecteurs ayant emprunté les deux livres
+     */
+    public int getLecteursCommuns(int isbn, int autre) {
+        CompteurEntiers compteurs = cooccurrences.get(isbn);
+        if (compteurs == null) {
+            return 0;
+        }
+        synchronized (compteurs) {
+            return compteurs.get(autre);
+        }
+    }
+
+    // ==================== STATISTIQUES ====================
+
+    /**
+     * @return le nombre de livres ayant au moins une cooccurrence
+     */
+    public int getNombreLivres() {
+        return cooccurrences.size();
+    }
+
+    /**
+     * @return le nombre de lecteurs ayant au moins un emprunt
+     */
+    public int getNombreLecteurs() {
+        return historiques.size();
+    }
+
+    /**
+     * @return le nombre de paires (livre, autre livre) distinctes, dans les deux sens
+     */
+    public long getNombrePaires() {
+        long paires = 0;
+        for (CompteurEntiers compteurs : cooccurrences.values()) {
+            paires += compteurs.taille();
+        }
+        return paires;
+    }
+
+    /**
+     * @return estimation de la mémoire occupée par les compteurs et historiques, en octets
+     */
+    public long getOctets() {
+        long octets = 0;
+        for (CompteurEntiers compteurs : cooccurrences.values()) {
+            octets += compteurs.octets() + 48;   // Table, plus entrée et clé de la ConcurrentHashMap
+        }
+        for (CompteurEntiers historique : historiques.values()) {
+            octets += historique.octets() + 48;
+        }
+        return octets;
+    }
+
+    @Override
+    public String toString() {
+        return getNombreLivres() + " livre(s), " + getNombreLecteurs() + " lecteur(s), " +
+                getNombrePaires() + " paire(s), ~" + getOctets() / (1024 * 1024) + " Mo";
+    }
+
+    // ==================== INTERNE ====================
+
+    private void incrementer(int isbn, int autre) {
+        CompteurEntiers compteurs = cooccurrences.computeIfAbsent(isbn, i -> new CompteurEntiers(8));
+        synchronized (compteurs) {
+            compteurs.incrementer(autre, 1);
+            cache.remove(isbn);
+        }
+    }
+
+    // Le cache est rempli sous le verrou des compteurs, pour ne pas écraser une invalidation concurrente
+    private int[] calculer(int isbn, int nombre, boolean mettreEnCache) {
+        CompteurEntiers compteurs = cooccurrences.get(isbn);
+        if (compteurs == null) {
+            return new int[0];
+        }
+        synchronized (compteurs) {
+            int[] meilleures = compteurs.meilleures(nombre, isbn);
+            if (mettreEnCache) {
+                cache.put(isbn, meilleures);
+            }
+            return meilleures;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.bibliotrack.model.recommandation;
+
+import com.bibliotrack.model.Succursale;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recommandations de lecture tirées de l'historique des emprunts.
+ *
+ * Le modèle est reconstruit à la première consultation des recommandations à partir de la
+ * table EMPRUNT, lue en flux, puis tenu à jour à chaque nouvel emprunt. Pendant une reconstruction, les emprunts enregistrés
+ * sont appliqués à l'ancien modèle et rejoués sur le nouveau avant qu'il ne le remplace.
+ */
+public class Recommandations {
+    private static final Recommandations INSTANCE = new Recommandations();
+    private static final int[] FIN = new int[0];        // Marque la fin du flux pour les constructeurs
+
+    private final Object verrou = new Object();
+    private ModeleCooccurrence modele = new ModeleCooccurrence();   // Protégé par verrou
+    private List<int[]> enAttente;                                   // Emprunts reçus pendant une reconstruction
+    private volatile boolean apprentissage = true;                   // Les nouveaux emprunts sont pris en compte
+
+    /**
+     * Source d'emprunts (lecteur, ISBN) triée par lecteur
+     */
+    interface SourceEmprunts {
+        /**
+         * Passe à l'emprunt suivant
+         * @return false quand la source est épuisée
+         */
+        boolean suivant() throws SQLException;
+
+        int getIdLecteur() throws SQLException;
+
+        int getIsbn() throws SQLException;
+    }
+
+    /**
+     * @return le service de recommandation de l'application
+     */
+    public static Recommandations getInstance() {
+        return INSTANCE;
+    }
+
+    public ModeleCooccurrence getModele() {
+        synchronized (verrou) {
+            return modele;
+        }
+    }
+
+    /**
+     * Active ou suspend la prise en compte des nouveaux emprunts, par exemple pendant une
+     * simulation de charge dont les emprunts ne doivent pas influencer les recommandations
+     * @param apprentissage false pour ignorer les emprunts enregistrés
+     */
+    public void setApprentissage(boolean apprentissage) {
+        this.apprentissage = apprentissage;
+    }
+
+    /**
+     * Prend en compte un emprunt qui vient d'être enregistré
+     * @param idLecteur identifiant du lecteur
+     * @param isbn ISBN du livre emprunté
+     */
+    public void enregistrerEmprunt(int idLecteur, int isbn) {
+        if (!apprentissage) {
+            return;
+        }
+        ModeleCooccurrence courant;
+        synchronized (verrou) {
+            courant = modele;
+            if (enAttente != null) {
+                enAttente.add(new int[]{idLecteur, isbn});
+            }
+        }
+        courant.enregistrer(idLecteur, isbn);
+    }
+
+    /**
+     * Retourne les livres le plus souvent empruntés par les lecteurs d'un livre donné
+     * @param isbn ISBN du livre consulté
+     * @param nombre nombre maximal de recommandations
+     * @return les ISBN recommandés, du plus au moins fréquent
+     */
+    public int[] recommander(int isbn, int nombre) {
+        return getModele().recommander(isbn, nombre);
+    }
+
+    // ==================== RECONSTRUCTION ====================
+
+    /**
+     * Reconstruit le modèle à partir de tout l'historique des emprunts, puis remplace le modèle courant
+     * @return le nouveau modèle
+     * @throws SQLException en cas d'erreur d'accès à la base
+     */
+    public ModeleCooccurrence reconstruire() throws SQLException {
+        String query = "SELECT em.id_lecteur, e.isbn FROM EMPRUNT em " +
+                "JOIN EXEMPLAIRE e ON em.numero_exemplaire = e.numero_exemplaire " +
+                "ORDER BY em.id_lecteur, em.date_emprunt";
+
+        synchronized (verrou) {
+            if (enAttente != null) {
+                throw new IllegalStateException("Reconstruction déjà en cours");
+            }
+            enAttente = new ArrayList<>();
+        }
+        try (Connection conn = Succursale.PRINCIPALE.getConnection()) {
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setAutoCommit(false);
+            conn.setReadOnly(true);
+
+            ModeleCooccurrence nouveau;
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(Integer.MIN_VALUE); // Lecture en flux avec le pilote MySQL
+                try (ResultSet rs = stmt.executeQuery(query)) {
+                    nouveau = construire(new SourceEmprunts() {
+                        public boolean suivant() throws SQLException {
+                            return rs.next();
+                        }
+
+                        public int getIdLecteur() throws SQLException {
+                            return rs.getInt(1);
+                        }
+
+                        public int getIsbn() throws SQLException {
+                            return rs.getInt(2);
+                        }
+                    }, Runtime.getRuntime().availableProcessors());
+                }
+            }
+            conn.commit();
+
+            synchronized (verrou) {
+                // Un emprunt validé juste avant la lecture figure déjà dans le nouveau modèle : le rejouer est
+                // sans effet, un livre déjà emprunté par le même lecteur étant ignoré
+                for (int[] emprunt : enAttente) {
+                    nouveau.enregistrer(emprunt[0], emprunt[1]);
+                }
+                modele = nouveau;
+            }
+            return nouveau;
+        } finally {
+            synchronized (verrou) {
+                enAttente = null;
+            }
+        }
+    }
+
+    /**
+     * Construit un modèle en parallèle à partir d'une source triée par lecteur.
+     * Le fil appelant regroupe les livres de chaque lecteur et les diffuse aux constructeurs ;
+     * chaque constructeur ne compte que les paires dont le premier livre lui revient, si bien
+     * qu'aucun compteur n'est partagé et qu'aucune fusion n'est nécessaire à la fin.
+     * @param source emprunts triés par lecteur
+     * @param fils nombre de constructeurs
+     * @return le modèle construit
+     * @throws SQLException en cas d'erreur de lecture de la source
+     */
+    static ModeleCooccurrence construire(SourceEmprunts source, int fils) throws SQLException {
+        ExecutorService executeur = Executors.newFixedThreadPool(fils, r -> {
+            Thread t = new Thread(r, "bibliotrack-recommandations");
+            t.setDaemon(true);
+            return t;
+        });
+        List<BlockingQueue<int[]>> files = new ArrayList<>();
+        List<Future<Map<Integer, CompteurEntiers>>> parties = new ArrayList<>();
+        for (int i = 0; i < fils; i++) {
+            BlockingQueue<int[]> file = new ArrayBlockingQueue<>(1024);
+            int rang = i;
+            files.add(file);
+            parties.add(executeur.submit(() -> compter(file, rang, fils)));
+        }
+
+        ConcurrentHashMap<Integer, CompteurEntiers> historiques = new ConcurrentHashMap<>();
+        try {
+            CompteurEntiers historique = null;
+            int lecteur = 0;
+            while (source.suivant()) {
+                int idLecteur = source.getIdLecteur();
+                if (historique == null || idLecteur != lecteur) {
+                    diffuser(files, historique);
+                    historique = new CompteurEntiers(4);
+                    historiques.put(idLecteur, historique);
+                    lecteur = idLecteur;
+                }
+                if (historique.taille() < ModeleCooccurrence.LIMITE_HISTORIQUE) {
+                    historique.incrementer(source.getIsbn(), 1);
+                }
+            }
+            diffuser(files, historique);
+        } finally {
+            for (BlockingQueue<int[]> file : files) {
+                mettreEnFile(file, FIN);
+            }
+            executeur.shutdown();
+        }
+
+        ConcurrentHashMap<Integer, CompteurEntiers> cooccurrences = new ConcurrentHashMap<>();
+        try {
+            for (Future<Map<Integer, CompteurEntiers>> partie : parties) {
+                cooccurrences.putAll(partie.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Reconstruction interrompue", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Erreur lors de la reconstruction: " + e.getCause().getMessage(), e.getCause());
+        }
+        return new ModeleCooccurrence(cooccurrences, historiques);
+    }
+
+    // Envoie les livres d'un lecteur à tous les constructeurs
+    private static void diffuser(List<BlockingQueue<int[]>> files, CompteurEntiers historique) {
+        if (historique == null || historique.taille() < 2) {
+            return;
+        }
+        int[] livres = historique.cles();
+        for (BlockingQueue<int[]> file : files) {
+            mettreEnFile(file, livres);
+        }
+    }
+
+    private static void mettreEnFile(BlockingQueue<int[]> file, int[] livres) {
+        try {
+            file.put(livres);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconstruction interrompue", e);
+        }
+    }
+
+    // Compte les paires dont le premier livre revient à ce constructeur
+    private static Map<Integer, CompteurEntiers> compter(BlockingQueue<int[]> file, int rang, int fils)
+            throws InterruptedException {
+        Map<Integer, CompteurEntiers> cooccurrences = new HashMap<>();
+        for (int[] livres = file.take(); livres != FIN; livres = file.take()) {
+            for (int isbn : livres) {
+                if (Math.floorMod(isbn * 0x9E3779B9, fils) != rang) {
+                    continue;
+                }
+                CompteurEntiers compteurs = cooccurrences.computeIfAbsent(isbn, i -> new CompteurEntiers(8));
+                for (int autre : livres) {
+                    if (autre != isbn) {
+                        compteurs.incrementer(autre, 1);
+                    }
+                }
+            }
+        }
+        return cooccurrences;
+    }
+}
@@ -0,0 +1,86 @@
+package com.bibliotrack.model.resilience;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Échec d'un accès à la base, qualifié par sa nature pour que l'appelant puisse distinguer
+ * une base momentanément indisponible d'une requête refusée.
+ */
+public class AccesBaseException extends SQLException {
+    private static final long serialVersionUID = 1L;
+    private static final int MYSQL_VERROU_MORTEL = 1213;        // ER_LOCK_DEADLOCK
+    private static final int MYSQL_ATTENTE_VERROU = 1205;       // ER_LOCK_WAIT_TIMEOUT
+
+    /**
+     * Nature de l'échec
+     */
+    public enum Nature {
+        DELAI_DEPASSE("délai dépassé", true),
+        BASE_INJOIGNABLE("base injoignable", true),
+        CONFLIT("conflit de verrous", true),
+        SATURATION("trop de requêtes en cours", true),
+        CIRCUIT_OUVERT("base indisponible, accès suspendu", true),
+        REQUETE_REFUSEE("requête refusée par la base", false);
+
+        private final String libelle;
+        private final boolean transitoire;  // Un nouvel essai plus tard peut réussir
+
+        Nature(String libelle, boolean transitoire) {
+            this.libelle = libelle;
+            this.transitoire = transitoire;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+
+        public boolean isTransitoire() {
+            return transitoire;
+        }
+    }
+
+    private final Nature nature;
+
+    public AccesBaseException(Nature nature, String message, Throwable cause) {
+        super(nature.getLibelle() + (message == null ? "" : ": " + message), cause);
+        this.nature = nature;
+    }
+
+    public Nature getNature() {
+        return nature;
+    }
+
+    public boolean isTransitoire() {
+        return nature.isTransitoire();
+    }
+
+    /**
+     * Qualifie une erreur JDBC
+     * @param e l'erreur levée par le pilote
+     * @return l'erreur qualifiée (e elle-même si elle l'est déjà)
+     */
+    public static AccesBaseException depuis(SQLException e) {
+        if (e instanceof AccesBaseException) {
+            return (AccesBaseException) e;
+        }
+        String etat = e.getSQLState() == null ? "" : e.getSQLState();
+        Nature nature;
+        if (e instanceof SQLTimeoutException || e.getErrorCode() == MYSQL_ATTENTE_VERROU) {
+            nature = Nature.DELAI_DEPASSE;
+        } else if (e instanceof SQLRecoverableException || e instanceof SQLNonTransientConnectionException
+                || e instanceof SQLTransientConnectionException || etat.startsWith("08")) {
+            nature = Nature.BASE_INJOIGNABLE;
+        } else if (e instanceof SQLTransactionRollbackException || etat.startsWith("40")
+                || e.getErrorCode() == MYSQL_VERROU_MORTEL) {
+            nature = Nature.CONFLIT;
+        } else {
+            nature = Nature.REQUETE_REFUSEE;
+        }
+        return new AccesBaseException(nature, e.getMessage(), e);
+    }
+}
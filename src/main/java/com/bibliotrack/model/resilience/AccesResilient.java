@@ -0,0 +1,252 @@
+package com.bibliotrack.model.resilience;
+
+import com.bibliotrack.model.Succursale;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accès à la base tolérant aux pannes passagères.
+ *
+ * Chaque accès :
+ *  - attend une place parmi un nombre borné d'accès simultanés, pour que les fils ne
+ *    s'accumulent pas sur une base lente ;
+ *  - passe par un {@link Disjoncteur} qui refuse immédiatement les accès tant que la base
+ *    est considérée comme indisponible ;
+ *  - est borné dans le temps par les délais de connexion et de lecture de la succursale ;
+ *  - est retenté après une attente aléatoire croissante (« full jitter ») si l'échec est
+ *    transitoire. Une écriture n'est retentée que si la connexion n'a pas pu être établie,
+ *    car rien n'a alors été envoyé à la base.
+ *
+ * Les lectures gardent leur dernier résultat : si la base ne répond plus, il est servi
+ * marqué périmé plutôt que de remplacer les données par une liste vide.
+ */
+public class AccesResilient {
+    public static final int DELAI_DEFAUT_SECONDES = 5;
+    public static final int ACCES_SIMULTANES_DEFAUT = 8;
+    public static final int SEUIL_DISJONCTEUR_DEFAUT = 5;
+
+    private static AccesResilient instance;
+
+    private final FournisseurConnexion fournisseur;
+    private final int tentatives;               // Nombre maximal d'essais par accès
+    private final long attenteBaseMillis;       // Attente maximale avant le deuxième essai
+    private final long attenteMaxMillis;        // Plafond des attentes entre essais
+    private final long attentePlaceMillis;      // Attente maximale d'une place libre
+    private final Semaphore places;             // Accès simultanés autorisés
+    private final Disjoncteur disjoncteur;
+    private final Map<String, DonneesLues<?>> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Ouverture d'une connexion
+     */
+    @FunctionalInterface
+    public interface FournisseurConnexion {
+        Connection ouvrir() throws SQLException;
+    }
+
+    /**
+     * Requête exécutée sur une connexion ouverte, refermée ensuite par l'accès
+     * @param <T> type du résultat
+     */
+    @FunctionalInterface
+    public interface RequeteBase<T> {
+        T executer(Connection conn) throws SQLException;
+    }
+
+    /**
+     * @param fournisseur ouverture des connexions, bornées dans le temps
+     * @param tentatives nombre maximal d'essais par accès
+     * @param attenteBaseMillis attente maximale avant le deuxième essai
+     * @param attenteMaxMillis plafond des attentes entre essais
+     * @param accesSimultanes nombre maximal d'accès simultanés
+     * @param attentePlaceMillis attente maximale d'une place libre
+     * @param disjoncteur disjoncteur protégeant la base
+     */
+    public AccesResilient(FournisseurConnexion fournisseur, int tentatives, long attenteBaseMillis,
+                          long attenteMaxMillis, int accesSimultanes, long attentePlaceMillis,
+                          Disjoncteur disjoncteur) {
+        this.fournisseur = fournisseur;
+        this.tentatives = tentatives;
+        this.attenteBaseMillis = attenteBaseMillis;
+        this.attenteMaxMillis = attenteMaxMillis;
+        this.places = new Semaphore(accesSimultanes, true);
+        this.attentePlaceMillis = attentePlaceMillis;
+        this.disjoncteur = disjoncteur;
+    }
+
+    /**
+     * Retourne l'accès à la base principale, créé à la première utilisation.
+     * Le délai de chaque connexion et requête peut être fixé par la propriété système
+     * bibliotrack.delaiRequete (en secondes), le nombre d'accès simultanés par
+     * bibliotrack.accesSimultanes et le nombre d'échecs consécutifs ouvrant le disjoncteur
+     * par bibliotrack.seuilDisjoncteur (0 pour ne jamais l'ouvrir).
+     * @return l'accès résilient de l'application
+     */
+    public static synchronized AccesResilient getInstance() {
+        if (instance == null) {
+            instance = pourPrincipale(Integer.getInteger("bibliotrack.accesSimultanes", ACCES_SIMULTANES_DEFAUT),
+                    Integer.getInteger("bibliotrack.seuilDisjoncteur", SEUIL_DISJONCTEUR_DEFAUT));
+        }
+        return instance;
+    }
+
+    /**
+     * Crée un accès à la base principale avec les délais et essais de l'application
+     * @param accesSimultanes nombre maximal d'accès simultanés
+     * @param seuilDisjoncteur échecs consécutifs ouvrant le disjoncteur (0 pour ne jamais l'ouvrir)
+     * @return le nouvel accès
+     */
+    public static AccesResilient pourPrincipale(int accesSimultanes, int seuilDisjoncteur) {
+        Succursale principale = Succursale.PRINCIPALE.avecDelai(
+                Integer.getInteger("bibliotrack.delaiRequete", DELAI_DEFAUT_SECONDES));
+        return new AccesResilient(principale::getConnection, 3, 200, 2000, accesSimultanes,
+                principale.getDelaiSecondes() * 1000L,
+                new Disjoncteur(seuilDisjoncteur > 0 ? seuilDisjoncteur : Integer.MAX_VALUE, 15_000));
+    }
+
+    /**
+     * Remplace l'accès de l'application, par exemple pour un essai sur une autre base
+     * @param acces le nouvel accès, ou null pour revenir à celui de la base principale
+     */
+    public static synchronized void setInstance(AccesResilient acces) {
+        instance = acces;
+    }
+
+    public Disjoncteur getDisjoncteur() {
+        return disjoncteur;
+    }
+
+    // ==================== ACCES ====================
+
+    /**
+     * Exécute une lecture, retentée en cas d'échec transitoire. Si la base reste injoignable,
+     * le dernier résultat obtenu pour la même clé est retourné, marqué périmé.
+     * @param cle identifie la lecture dans le cache
+     * @param requete la lecture, sans effet sur la base
+     * @param <T> type du résultat
+     * @return les données lues, ou celles du cache marquées périmées
+     * @throws AccesBaseException si la lecture a échoué et qu'aucun résultat n'est en cache
+     */
+    public <T> DonneesLues<T> lire(String cle, RequeteBase<T> requete) throws AccesBaseException {
+        try {
+            DonneesLues<T> lues = new DonneesLues<>(executer(requete, true), Instant.now(), null);
+            cache.put(cle, lues);
+            return lues;
+        } catch (AccesBaseException e) {
+            @SuppressWarnings("unchecked")
+            DonneesLues<T> precedentes = (DonneesLues<T>) cache.get(cle);
+            if (!e.isTransitoire() || precedentes == null) {
+                throw e;
+            }
+            System.err.println("Lecture " + cle + " servie depuis le cache du " + precedentes.getDateLecture()
+                    + " (" + e.getMessage() + ")");
+            return precedentes.perimees(e);
+        }
+    }
+
+    /**
+     * Exécute une lecture ponctuelle (recherche par identifiant), retentée en cas d'échec transitoire.
+     * Son résultat n'est pas gardé en cache.
+     * @param requete la lecture, sans effet sur la base
+     * @param <T> type du résultat
+     * @return les données lues
+     * @throws AccesBaseException si la lecture a échoué
+     */
+    public <T> T lire(RequeteBase<T> requete) throws AccesBaseException {
+        return executer(requete, true);
+    }
+
+    /**
+     * Exécute une écriture. Elle n'est retentée que si la connexion n'a pas pu être établie.
+     * @param requete l'écriture
+     * @param <T> type du résultat
+     * @return le résultat de la requête
+     * @throws AccesBaseException si l'écriture n'a pas pu être faite
+     */
+    public <T> T ecrire(RequeteBase<T> requete) throws AccesBaseException {
+        return executer(requete, false);
+    }
+
+    private <T> T executer(RequeteBase<T> requete, boolean idempotente) throws AccesBaseException {
+        AccesBaseException derniere = null;
+        for (int essai = 0; essai < tentatives; essai++) {
+            if (essai > 0) {
+                attendre(essai);
+            }
+            try {
+                if (!places.tryAcquire(attentePlaceMillis, TimeUnit.MILLISECONDS)) {
+                    derniere = new AccesBaseException(AccesBaseException.Nature.SATURATION, null, derniere);
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AccesBaseException(AccesBaseException.Nature.DELAI_DEPASSE, "accès interrompu", e);
+            }
+
+            try {
+                if (!disjoncteur.autoriser()) {
+                    // Inutile de réessayer : le disjoncteur ne se refermera pas pendant les attentes
+                    throw new AccesBaseException(AccesBaseException.Nature.CIRCUIT_OUVERT,
+                            derniere == null ? null : derniere.getMessage(), derniere);
+                }
+
+                Connection conn;
+                try {
+                    conn = fournisseur.ouvrir();
+                } catch (SQLException e) {
+                    derniere = signaler(AccesBaseException.depuis(e));
+                    if (!derniere.isTransitoire()) {
+                        throw derniere;
+                    }
+                    continue;
+                }
+
+                try (conn) {
+                    T resultat = requete.executer(conn);
+                    disjoncteur.succes();
+                    return resultat;
+                } catch (SQLException e) {
+                    derniere = signaler(AccesBaseException.depuis(e));
+                    if (!idempotente || !derniere.isTransitoire()) {
+                        throw derniere;
+                    }
+                } catch (RuntimeException e) {
+                    disjoncteur.abandon();
+                    throw e;
+                }
+            } finally {
+                places.release();
+            }
+        }
+        throw derniere;
+    }
+
+    // Informe le disjoncteur de l'issue d'un accès qui a échoué
+    private AccesBaseException signaler(AccesBaseException e) {
+        if (e.getNature() == AccesBaseException.Nature.REQUETE_REFUSEE
+                || e.getNature() == AccesBaseException.Nature.CONFLIT) {
+            disjoncteur.succes();   // La base a répondu : elle est disponible
+        } else {
+            disjoncteur.echec();
+        }
+        return e;
+    }
+
+    // Attente aléatoire entre 0 et base * 2^(essai - 1), plafonnée
+    private void attendre(int essai) throws AccesBaseException {
+        long plafond = Math.min(attenteMaxMillis, attenteBaseMillis << Math.min(essai - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(plafond + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccesBaseException(AccesBaseException.Nature.DELAI_DEPASSE, "accès interrompu", e);
+        }
+    }
+}
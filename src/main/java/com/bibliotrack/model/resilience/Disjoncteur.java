@@ -0,0 +1,86 @@
+package com.bibliotrack.model.resilience;
+
+/**
+ * Disjoncteur protégeant la base : après un nombre donné d'échecs consécutifs, les accès
+ * sont refusés immédiatement pendant une durée d'ouverture, au lieu d'attendre chacun leur délai.
+ * Passé ce délai, un seul accès d'essai est laissé passer : son succès referme le disjoncteur,
+ * son échec le rouvre pour une nouvelle durée.
+ */
+public class Disjoncteur {
+    /**
+     * Etats du disjoncteur
+     */
+    public enum Etat {
+        FERME,          // Accès normaux
+        OUVERT,         // Accès refusés
+        SEMI_OUVERT     // Un accès d'essai en cours
+    }
+
+    private final int seuilEchecs;              // Echecs consécutifs provoquant l'ouverture
+    private final long dureeOuvertureMillis;    // Durée pendant laquelle les accès sont refusés
+
+    private Etat etat = Etat.FERME;
+    private int echecsConsecutifs;
+    private long ouvertureMillis;               // Moment de la dernière ouverture
+
+    /**
+     * @param seuilEchecs échecs consécutifs provoquant l'ouverture
+     * @param dureeOuvertureMillis durée pendant laquelle les accès sont refusés
+     */
+    public Disjoncteur(int seuilEchecs, long dureeOuvertureMillis) {
+        this.seuilEchecs = seuilEchecs;
+        this.dureeOuvertureMillis = dureeOuvertureMillis;
+    }
+
+    public synchronized Etat getEtat() {
+        return etat;
+    }
+
+    /**
+     * Demande l'autorisation d'accéder à la base. Chaque autorisation doit être suivie
+     * d'un appel à {@link #succes()}, {@link #echec()} ou {@link #abandon()}.
+     * @return true si l'accès peut avoir lieu
+     */
+    public synchronized boolean autoriser() {
+        switch (etat) {
+            case FERME:
+                return true;
+            case OUVERT:
+                if (System.currentTimeMillis() - ouvertureMillis < dureeOuvertureMillis) {
+                    return false;
+                }
+                etat = Etat.SEMI_OUVERT;
+                return true;
+            default:
+                return false;   // Un essai est déjà en cours
+        }
+    }
+
+    /**
+     * Signale un accès réussi : le disjoncteur se referme
+     */
+    public synchronized void succes() {
+        etat = Etat.FERME;
+        echecsConsecutifs = 0;
+    }
+
+    /**
+     * Signale un accès échoué pour une raison liée à la disponibilité de la base
+     */
+    public synchronized void echec() {
+        echecsConsecutifs++;
+        if (etat == Etat.SEMI_OUVERT || echecsConsecutifs >= seuilEchecs) {
+            etat = Etat.OUVERT;
+            ouvertureMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Signale un accès autorisé qui n'a finalement pas eu lieu
+     */
+    public synchronized void abandon() {
+        if (etat == Etat.SEMI_OUVERT) {
+            etat = Etat.OUVERT;    // L'essai sera retenté dès la prochaine demande
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.bibliotrack.model.resilience;
+
+import java.time.Instant;
+
+/**
+ * Données lues dans la base, éventuellement servies depuis le cache quand la base ne répond plus.
+ * @param <T> type des données
+ */
+public class DonneesLues<T> {
+    private final T donnees;
+    private final Instant dateLecture;          // Moment où les données ont été lues dans la base
+    private final AccesBaseException cause;     // Echec ayant conduit à servir le cache (null si à jour)
+
+    DonneesLues(T donnees, Instant dateLecture, AccesBaseException cause) {
+        this.donnees = donnees;
+        this.dateLecture = dateLecture;
+        this.cause = cause;
+    }
+
+    public T getDonnees() {
+        return donnees;
+    }
+
+    public Instant getDateLecture() {
+        return dateLecture;
+    }
+
+    /**
+     * @return true si les données viennent du cache, faute d'avoir pu interroger la base
+     */
+    public boolean isPerimees() {
+        return cause != null;
+    }
+
+    /**
+     * @return l'échec ayant conduit à servir le cache, ou null si les données sont à jour
+     */
+    public AccesBaseException getCause() {
+        return cause;
+    }
+
+    /**
+     * @param cause l'échec de la dernière lecture
+     * @return les mêmes données, marquées périmées
+     */
+    DonneesLues<T> perimees(AccesBaseException cause) {
+        return new DonneesLues<>(donnees, dateLecture, cause);
+    }
+}
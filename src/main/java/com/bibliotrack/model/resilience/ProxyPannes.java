@@ -0,0 +1,167 @@
+package com.bibliotrack.model.resilience;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Relais TCP local qui injecte des pannes entre l'application et MySQL, pour éprouver
+ * l'accès résilient : latence ajoutée à chaque paquet, coupures aléatoires de connexion,
+ * refus des nouvelles connexions (base en redémarrage) et coupure immédiate de toutes les
+ * connexions ouvertes. Les réglages peuvent être modifiés pendant le fonctionnement.
+ *
+ * Lancement en ligne de commande :
+ * <pre>
+ * java ... com.bibliotrack.model.resilience.ProxyPannes 3307 localhost 3306 200 0.01
+ * </pre>
+ * puis pointer l'application sur jdbc:mysql://localhost:3307/bibliodb.
+ */
+public class ProxyPannes implements AutoCloseable {
+    private static final int TAILLE_TAMPON = 16 * 1024;
+
+    private final ServerSocket serveur;
+    private final String hoteCible;
+    private final int portCible;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+
+    private volatile long latenceMillis;        // Délai ajouté avant de relayer chaque paquet
+    private volatile double probaCoupure;       // Probabilité de couper la connexion à chaque paquet
+    private volatile boolean refus;             // Refuse les nouvelles connexions
+
+    /**
+     * Démarre le relais
+     * @param portLocal port d'écoute (0 pour un port libre)
+     * @param hoteCible hôte de la base
+     * @param portCible port de la base
+     * @throws IOException si le port d'écoute ne peut pas être ouvert
+     */
+    public ProxyPannes(int portLocal, String hoteCible, int portCible) throws IOException {
+        this.serveur = new ServerSocket();
+        this.serveur.bind(new InetSocketAddress("127.0.0.1", portLocal));
+        this.hoteCible = hoteCible;
+        this.portCible = portCible;
+        demarrer("bibliotrack-proxy", this::accepter);
+    }
+
+    public int getPort() {
+        return serveur.getLocalPort();
+    }
+
+    public void setLatenceMillis(long latenceMillis) {
+        this.latenceMillis = latenceMillis;
+    }
+
+    public void setProbaCoupure(double probaCoupure) {
+        this.probaCoupure = probaCoupure;
+    }
+
+    public void setRefus(boolean refus) {
+        this.refus = refus;
+    }
+
+    /**
+     * Coupe brutalement toutes les connexions ouvertes
+     */
+    public void couperTout() {
+        for (Socket socket : sockets) {
+            fermer(socket);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serveur.close();
+        couperTout();
+    }
+
+    // ==================== RELAIS ====================
+
+    private void accepter() {
+        while (!serveur.isClosed()) {
+            try {
+                Socket client = serveur.accept();
+                if (refus) {
+                    fermer(client);
+                    continue;
+                }
+                Socket cible;
+                try {
+                    cible = new Socket(hoteCible, portCible);
+                } catch (IOException e) {
+                    fermer(client);    // Base injoignable : le client voit la connexion se fermer
+                    throw e;
+                }
+                sockets.add(client);
+                sockets.add(cible);
+                demarrer("bibliotrack-proxy-montant", () -> relayer(client, cible));
+                demarrer("bibliotrack-proxy-descendant", () -> relayer(cible, client));
+            } catch (IOException e) {
+                if (!serveur.isClosed()) {
+                    System.err.println("Relais: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Copie un sens de la connexion en appliquant latence et coupures ; ferme les deux côtés à la fin
+    private void relayer(Socket source, Socket destination) {
+        byte[] tampon = new byte[TAILLE_TAMPON];
+        try (InputStream entree = source.getInputStream();
+             OutputStream sortie = destination.getOutputStream()) {
+            for (int lus = entree.read(tampon); lus >= 0; lus = entree.read(tampon)) {
+                if (latenceMillis > 0) {
+                    Thread.sleep(latenceMillis);
+                }
+                if (ThreadLocalRandom.current().nextDouble() < probaCoupure) {
+                    break;
+                }
+                sortie.write(tampon, 0, lus);
+                sortie.flush();
+            }
+        } catch (IOException e) {
+            // Connexion fermée par l'un des côtés ou par couperTout()
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            fermer(source);
+            fermer(destination);
+        }
+    }
+
+    private void fermer(Socket socket) {
+        sockets.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Déjà fermée
+        }
+    }
+
+    private static void demarrer(String nom, Runnable tache) {
+        Thread t = new Thread(tache, nom);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Lance le relais en ligne de commande
+     * @param args port local, hôte cible, port cible, latence en ms, probabilité de coupure par paquet
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: ProxyPannes portLocal hoteCible portCible [latenceMs] [probaCoupure]");
+            System.exit(1);
+        }
+        ProxyPannes proxy = new ProxyPannes(Integer.parseInt(args[0]), args[1], Integer.parseInt(args[2]));
+        proxy.setLatenceMillis(args.length > 3 ? Long.parseLong(args[3]) : 0);
+        proxy.setProbaCoupure(args.length > 4 ? Double.parseDouble(args[4]) : 0);
+        System.out.println("Relais 127.0.0.1:" + proxy.getPort() + " -> " + args[1] + ":" + args[2]);
+        Thread.currentThread().join();
+    }
+}
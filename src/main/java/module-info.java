@@ -1,18 +1,12 @@
 module com.bibliotrack.controller {
     requires javafx.controls;
     requires javafx.fxml;
-    requires javafx.web;
 
     requires org.controlsfx.controls;
-    requires com.dlsc.formsfx;
     requires net.synedra.validatorfx;
     requires org.kordamp.ikonli.javafx;
-    requires org.kordamp.bootstrapfx.core;
-    requires eu.hansolo.tilesfx;
-    requires com.almasb.fxgl.all;
     requires java.sql;
 
     opens com.bibliotrack.controller to javafx.fxml;
-    opens com.bibliotrack.model to javafx.base;
     exports com.bibliotrack.controller;
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.bibliotrack.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CriteresDesherbageTest {
+    private static final LocalDate CREATION = LocalDate.of(2010, 1, 1);
+    private static final LocalDate DERNIER_EMPRUNT = LocalDate.of(2020, 6, 30);
+
+    /**
+     * Requête factice : retient la valeur liée à chaque indice de paramètre
+     */
+    private static PreparedStatement requete(Map<Integer, Object> parametres) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, methode, args) -> switch (methode.getName()) {
+                    case "setString", "setDate" -> {
+                        assertNull(parametres.put((Integer) args[0], args[1]), "paramètre " + args[0] + " lié deux fois");
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(methode.getName());
+                });
+    }
+
+    // Valeurs attendues pour chaque marqueur de la clause, d'après la colonne qui le précède
+    private static List<Object> attendues(String clause, CriteresDesherbage criteres) {
+        List<Object> valeurs = new ArrayList<>();
+        List<Exemplaire.EtatExemplaire> etats = new ArrayList<>(criteres.getEtats());
+        for (int i = clause.indexOf('?'); i >= 0; i = clause.indexOf('?', i + 1)) {
+            String avant = clause.substring(0, i);
+            int etat = avant.lastIndexOf("e.etat IN");
+            int creation = avant.lastIndexOf("e.date_creation <");
+            int emprunt = avant.lastIndexOf("em.date_emprunt >=");
+            int categorie = avant.lastIndexOf("l.categorie =");
+            int colonne = Math.max(Math.max(etat, creation), Math.max(emprunt, categorie));
+            if (colonne == etat) {
+                valeurs.add(etats.remove(0).getLibelle());
+            } else if (colonne == creation) {
+                valeurs.add(Date.valueOf(criteres.getCreeAvant()));
+            } else if (colonne == emprunt) {
+                valeurs.add(Date.valueOf(criteres.getNonEmprunteDepuis()));
+            } else {
+                valeurs.add(criteres.getCategorie().getLibelle());
+            }
+        }
+        return valeurs;
+    }
+
+    @Test
+    void lieLesParametresDansLOrdreDesMarqueursPourToutesLesCombinaisons() throws Exception {
+        List<EnumSet<Exemplaire.EtatExemplaire>> choixEtats = List.of(
+                EnumSet.noneOf(Exemplaire.EtatExemplaire.class),
+                EnumSet.of(Exemplaire.EtatExemplaire.MAUVAIS),
+                EnumSet.of(Exemplaire.EtatExemplaire.NEUF, Exemplaire.EtatExemplaire.MOYEN,
+                        Exemplaire.EtatExemplaire.MAUVAIS));
+        for (EnumSet<Exemplaire.EtatExemplaire> etats : choixEtats) {
+            for (int combinaison = 0; combinaison < 8; combinaison++) {
+                CriteresDesherbage criteres = new CriteresDesherbage();
+                criteres.setEtats(etats);
+                criteres.setCreeAvant((combinaison & 1) != 0 ? CREATION : null);
+                criteres.setNonEmprunteDepuis((combinaison & 2) != 0 ? DERNIER_EMPRUNT : null);
+                criteres.setCategorie((combinaison & 4) != 0 ? Livre.Categorie.ROMAN : null);
+
+                String clause = criteres.clauseWhere();
+                Map<Integer, Object> parametres = new TreeMap<>();
+                int suivant = criteres.parametrer(requete(parametres), 3);
+
+                List<Object> attendues = attendues(clause, criteres);
+                assertEquals(3 + attendues.size(), suivant, criteres.toString());
+                assertEquals(attendues, new ArrayList<>(parametres.values()), criteres.toString());
+                assertEquals(IntStream.range(3, suivant).boxed().toList(), new ArrayList<>(parametres.keySet()),
+                        criteres.toString());
+            }
+        }
+    }
+
+    @Test
+    void neFiltreRienSansCritere() throws Exception {
+        CriteresDesherbage criteres = new CriteresDesherbage();
+        Map<Integer, Object> parametres = new TreeMap<>();
+
+        assertEquals(" WHERE 1 = 1", criteres.clauseWhere());
+        assertEquals(1, criteres.parametrer(requete(parametres), 1));
+        assertTrue(parametres.isEmpty());
+        assertEquals("tous les exemplaires", criteres.toString());
+    }
+}
@@ -0,0 +1,163 @@
+package com.bibliotrack.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileReservationsTest {
+    private static final int ISBN = 1000;
+
+    private static Reservation reservation(int id, int isbn) {
+        Reservation reservation = new Reservation(isbn, id);
+        reservation.setIdReservation(id);
+        return reservation;
+    }
+
+    @Test
+    void attribueDansLOrdreDArrivee() {
+        FileReservations file = new FileReservations();
+        for (int id = 1; id <= 3; id++) {
+            file.ajouter(reservation(id, ISBN));
+        }
+
+        assertEquals(1, file.attribuer(ISBN).getIdReservation());
+        assertEquals(2, file.attribuer(ISBN).getIdReservation());
+        assertEquals(3, file.attribuer(ISBN).getIdReservation());
+        assertNull(file.attribuer(ISBN));
+        assertNull(file.attribuer(ISBN + 1));
+    }
+
+    @Test
+    void ignoreLesReservationsAnnulees() {
+        FileReservations file = new FileReservations();
+        for (int id = 1; id <= 3; id++) {
+            file.ajouter(reservation(id, ISBN));
+        }
+
+        Reservation annulee = file.annuler(ISBN, 1);
+        assertNotNull(annulee);
+        assertEquals(Reservation.StatutReservation.ANNULEE, annulee.getStatut());
+        assertNull(file.annuler(ISBN, 1), "une réservation ne s'annule qu'une fois");
+
+        Reservation attribuee = file.attribuer(ISBN);
+        assertEquals(2, attribuee.getIdReservation());
+        assertEquals(Reservation.StatutReservation.ATTRIBUEE, attribuee.getStatut());
+        assertNull(file.annuler(ISBN, 2), "une réservation attribuée ne s'annule plus");
+        assertEquals(List.of(3), identifiants(file.getFileAttente(ISBN)));
+    }
+
+    @Test
+    void uneAttributionAnnuleeRepasseEnTete() {
+        FileReservations file = new FileReservations();
+        file.ajouter(reservation(1, ISBN));
+        file.ajouter(reservation(2, ISBN));
+
+        Reservation premiere = file.attribuer(ISBN);
+        file.remettre(premiere);
+
+        assertEquals(Reservation.StatutReservation.EN_ATTENTE, premiere.getStatut());
+        assertEquals(List.of(1, 2), identifiants(file.getFileAttente(ISBN)));
+        assertSame(premiere, file.attribuer(ISBN));
+    }
+
+    /**
+     * Des milliers de réservations sur quelques titres, attribuées et annulées depuis plusieurs fils
+     * à la fois : aucune n'est attribuée deux fois ni perdue, et aucune n'est servie avant une
+     * réservation plus ancienne du même titre restée en attente.
+     */
+    @Test
+    void attributionsEtAnnulationsConcurrentes() throws Exception {
+        int titres = 8;
+        int parTitre = 1000;
+        int fils = 8;
+        FileReservations file = new FileReservations();
+        for (int id = 0; id < titres * parTitre; id++) {
+            file.ajouter(reservation(id, ISBN + id % titres));  // Identifiants croissants dans chaque file
+        }
+
+        Map<Integer, Integer> attribuees = new ConcurrentHashMap<>();   // Réservation -> nombre d'attributions
+        Set<Integer> annulees = ConcurrentHashMap.newKeySet();
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService executeur = Executors.newFixedThreadPool(fils);
+        try {
+            List<Future<?>> taches = new ArrayList<>();
+            for (int f = 0; f < fils; f++) {
+                boolean retours = f % 2 == 0;
+                taches.add(executeur.submit(() -> {
+                    depart.await();
+                    ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+                    for (int i = 0; i < titres * parTitre / 2; i++) {
+                        int isbn = ISBN + aleatoire.nextInt(titres);
+                        if (retours) {
+                            Reservation r = file.attribuer(isbn);
+                            if (r != null) {
+                                attribuees.merge(r.getIdReservation(), 1, Integer::sum);
+                            }
+                        } else {
+                            int id = aleatoire.nextInt(parTitre) * titres + (isbn - ISBN);
+                            Reservation r = file.annuler(isbn, id);
+                            if (r != null) {
+                                assertTrue(annulees.add(id), "annulée deux fois: " + id);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            depart.countDown();
+            for (Future<?> tache : taches) {
+                tache.get();
+            }
+        } finally {
+            executeur.shutdownNow();
+        }
+
+        Set<Integer> enAttente = new HashSet<>();
+        for (int t = 0; t < titres; t++) {
+            List<Integer> attente = identifiants(file.getFileAttente(ISBN + t));
+            enAttente.addAll(attente);
+
+            // Équité : tout ce qui a été attribué sur ce titre précède ce qui attend encore
+            int plusAncienEnAttente = attente.isEmpty() ? Integer.MAX_VALUE : attente.get(0);
+            for (int id : attribuees.keySet()) {
+                if (id % titres == t) {
+                    assertTrue(id < plusAncienEnAttente,
+                            "réservation " + id + " servie avant " + plusAncienEnAttente);
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, Integer> attribution : attribuees.entrySet()) {
+            assertEquals(1, attribution.getValue(), "attribuée plusieurs fois: " + attribution.getKey());
+            assertFalse(annulees.contains(attribution.getKey()), "attribuée et annulée: " + attribution.getKey());
+            assertFalse(enAttente.contains(attribution.getKey()), "attribuée et en attente: " + attribution.getKey());
+        }
+        for (int id : annulees) {
+            assertFalse(enAttente.contains(id), "annulée et en attente: " + id);
+        }
+        assertEquals(titres * parTitre, attribuees.size() + annulees.size() + enAttente.size(),
+                "réservations perdues");
+        assertFalse(attribuees.isEmpty());
+        assertFalse(annulees.isEmpty());
+    }
+
+    private static List<Integer> identifiants(List<Reservation> reservations) {
+        List<Integer> ids = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            ids.add(reservation.getIdReservation());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,89 @@
+package com.bibliotrack.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Timeout(30)
+class ReseauSuccursalesTest {
+
+    private static Succursale succursale(String code, int delaiSecondes) {
+        return new Succursale(code, "Bibliothèque " + code, "jdbc:mysql://" + code + "/bibliodb", "root", "",
+                delaiSecondes);
+    }
+
+    private static ReseauSuccursales reseau(long delaiMillis, String... codes) {
+        List<Succursale> succursales = new ArrayList<>();
+        for (String code : codes) {
+            succursales.add(succursale(code, 0));
+        }
+        return new ReseauSuccursales(succursales, delaiMillis);
+    }
+
+    @Test
+    void fusionneLesReponsesTrieesDansLOrdreCommun() {
+        Map<String, List<Integer>> reponses = Map.of(
+                "centre", List.of(1, 4, 9),
+                "nord", List.of(),
+                "sud", List.of(2, 3, 4, 10));
+
+        ReseauSuccursales.ResultatReseau<Integer> resultat = reseau(5000, "centre", "nord", "sud")
+                .interroger(s -> reponses.get(s.getCode()), Comparator.<Integer>naturalOrder());
+
+        assertTrue(resultat.isComplet());
+        assertEquals(List.of(1, 2, 3, 4, 4, 9, 10), resultat.getResultats());
+    }
+
+    @Test
+    void rendUnResultatPartielQuandUneSuccursaleEchoue() {
+        ReseauSuccursales.ResultatReseau<String> resultat = reseau(5000, "centre", "nord", "sud").interroger(s -> {
+            if (s.getCode().equals("nord")) {
+                throw new SQLException("Base injoignable");
+            }
+            return List.of(s.getCode() + "-1", s.getCode() + "-2");
+        }, Comparator.<String>naturalOrder());
+
+        assertFalse(resultat.isComplet());
+        assertEquals(Map.of("nord", "Base injoignable"), resultat.getEchecs());
+        assertEquals(List.of("centre-1", "centre-2", "sud-1", "sud-2"), resultat.getResultats());
+    }
+
+    @Test
+    void abandonneUneSuccursaleLenteAuDelaiDuReseau() {
+        ReseauSuccursales reseau = reseau(300, "centre", "lente");
+
+        long debut = System.nanoTime();
+        ReseauSuccursales.ResultatReseau<Integer> resultat = reseau.interroger(s -> {
+            if (s.getCode().equals("lente")) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return List.of(s.getCode().length());
+        }, Comparator.<Integer>naturalOrder());
+        long dureeMillis = (System.nanoTime() - debut) / 1_000_000;
+
+        assertTrue(dureeMillis < 5000, "durée " + dureeMillis + " ms");
+        assertEquals(Map.of("lente", "Délai dépassé"), resultat.getEchecs());
+        assertEquals(List.of(6), resultat.getResultats());
+    }
+
+    @Test
+    void borneLeDelaiDesSuccursalesParCeluiDuReseau() {
+        ReseauSuccursales reseau = new ReseauSuccursales(
+                List.of(succursale("centre", 0), succursale("nord", 10), succursale("sud", 1)), 2500);
+
+        assertEquals(List.of(3, 3, 1), reseau.getSuccursales().stream().map(Succursale::getDelaiSecondes).toList());
+        assertEquals(1, reseau.rang(succursale("nord", 0)));
+        assertEquals(-1, reseau.rang(succursale("ouest", 0)));
+    }
+}
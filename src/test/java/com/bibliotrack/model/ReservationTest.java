@@ -0,0 +1,312 @@
+package com.bibliotrack.model;
+
+import com.bibliotrack.model.resilience.AccesBaseException;
+import com.bibliotrack.model.resilience.AccesResilient;
+import com.bibliotrack.model.resilience.Disjoncteur;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Attribution d'un exemplaire rendu, sur une base factice partagée par plusieurs postes.
+ * La file en mémoire étant propre au processus, chaque essai travaille sur son propre ISBN.
+ */
+class ReservationTest {
+    private static final LocalDateTime MATIN = LocalDateTime.of(2024, 3, 15, 9, 0);
+
+    @TempDir
+    static Path audit;
+
+    private BaseFactice base;
+
+    @BeforeAll
+    static void journalTemporaire() {
+        System.setProperty("bibliotrack.audit.dir", audit.toString());
+    }
+
+    @BeforeEach
+    void installerBase() {
+        base = new BaseFactice();
+        AccesResilient.setInstance(new AccesResilient(base::connexion, 1, 0, 0, 4, 1000, new Disjoncteur(100, 1000)));
+        Reservation.getFileAttente();   // File de ce poste chargée avant les réservations des autres postes
+    }
+
+    @AfterEach
+    void retirerBase() {
+        AccesResilient.setInstance(null);
+    }
+
+    // Emprunt en cours d'un nouvel exemplaire du titre
+    private Emprunt emprunt(int isbn) {
+        int numero = base.exemplaires.size() + 1;
+        base.exemplaires.put(numero, isbn);
+        base.disponibles.put(numero, false);
+        int id = base.empruntsEnCours.size() + 100;
+        base.empruntsEnCours.add(id);
+        Emprunt emprunt = new Emprunt();
+        emprunt.setIdEmprunt(id);
+        emprunt.setNumeroExemplaire(numero);
+        return emprunt;
+    }
+
+    @Test
+    void sertDAbordLaReservationPriseAUnAutrePoste() throws SQLException {
+        int isbn = 1001;
+        int autrePoste = base.reserver(isbn, 7, MATIN);
+        Reservation ici = new Reservation(isbn, 8);
+        ici.ajouterReservation();
+
+        Emprunt premier = emprunt(isbn);
+        Reservation attribuee = premier.enregistrerRetour();
+
+        assertNotNull(attribuee);
+        assertEquals(autrePoste, attribuee.getIdReservation());
+        assertEquals(7, attribuee.getIdLecteur());
+        assertEquals(Reservation.StatutReservation.ATTRIBUEE, attribuee.getStatut());
+        assertEquals("attribuee", base.reservations.get(autrePoste).statut);
+        assertEquals(premier.getNumeroExemplaire(), base.reservations.get(autrePoste).numeroExemplaire);
+        assertFalse(base.disponibles.get(premier.getNumeroExemplaire()), "exemplaire mis de côté");
+        assertEquals(Reservation.StatutReservation.EN_ATTENTE, ici.getStatut());
+
+        Emprunt second = emprunt(isbn);
+        assertSame(ici, second.enregistrerRetour(), "réservation de ce poste reprise de sa file");
+        assertEquals(Reservation.StatutReservation.ATTRIBUEE, ici.getStatut());
+        assertTrue(Reservation.getFileAttente().getFileAttente(isbn).isEmpty());
+    }
+
+    @Test
+    void laisseLExemplaireEnRayonSiPersonneNAttendEnBase() throws SQLException {
+        int isbn = 1002;
+        Reservation annuleeAilleurs = new Reservation(isbn, 8);
+        annuleeAilleurs.ajouterReservation();
+        base.reservations.get(annuleeAilleurs.getIdReservation()).statut = "annulee";
+
+        Emprunt emprunt = emprunt(isbn);
+        base.disponibles.put(emprunt.getNumeroExemplaire(), true);     // Déclencheur after_emprunt_update
+
+        assertNull(emprunt.enregistrerRetour());
+        assertFalse(base.empruntsEnCours.contains(emprunt.getIdEmprunt()));
+        assertTrue(base.disponibles.get(emprunt.getNumeroExemplaire()));
+        assertEquals("annulee", base.reservations.get(annuleeAilleurs.getIdReservation()).statut);
+    }
+
+    @Test
+    void sauteUneReservationEnCoursDAttributionParUnAutreRetour() throws SQLException {
+        int isbn = 1003;
+        int verrouillee = base.reserver(isbn, 7, MATIN);
+        int suivante = base.reserver(isbn, 8, MATIN.plusHours(1));
+        base.verrouillees.add(verrouillee);
+
+        Reservation attribuee = emprunt(isbn).enregistrerRetour();
+
+        assertEquals(suivante, attribuee.getIdReservation());
+        assertEquals("en attente", base.reservations.get(verrouillee).statut);
+    }
+
+    @Test
+    void remetLaReservationEnAttenteSiLeRetourEchoue() throws SQLException {
+        int isbn = 1004;
+        Reservation ici = new Reservation(isbn, 8);
+        ici.ajouterReservation();
+        base.commitRefuse = true;
+
+        Emprunt emprunt = emprunt(isbn);
+        AccesBaseException erreur = assertThrows(AccesBaseException.class, emprunt::enregistrerRetour);
+
+        assertEquals(AccesBaseException.Nature.REQUETE_REFUSEE, erreur.getNature());
+        assertEquals("en attente", base.reservations.get(ici.getIdReservation()).statut);
+        assertTrue(base.empruntsEnCours.contains(emprunt.getIdEmprunt()));
+        assertEquals(Reservation.StatutReservation.EN_ATTENTE, ici.getStatut());
+        assertNull(ici.getNumeroExemplaire());
+        assertEquals(List.of(ici), Reservation.getFileAttente().getFileAttente(isbn));
+    }
+
+    /**
+     * Base factice limitée aux requêtes du retour et des réservations. Les modifications d'une
+     * transaction sont annulées par rollback ; les lignes de {@link #verrouillees} sont tenues
+     * par la transaction d'un autre poste.
+     */
+    private static class BaseFactice {
+        private final Map<Integer, Integer> exemplaires = new HashMap<>();       // Numéro -> ISBN
+        private final Map<Integer, Boolean> disponibles = new HashMap<>();
+        private final Set<Integer> empruntsEnCours = new HashSet<>();
+        private final Map<Integer, Ligne> reservations = new HashMap<>();
+        private final Set<Integer> verrouillees = new HashSet<>();
+        private boolean commitRefuse;
+
+        private static class Ligne {
+            final int id;
+            final int isbn;
+            final int idLecteur;
+            final LocalDateTime date;
+            String statut = "en attente";
+            Integer numeroExemplaire;
+
+            Ligne(int id, int isbn, int idLecteur, LocalDateTime date) {
+                this.id = id;
+                this.isbn = isbn;
+                this.idLecteur = idLecteur;
+                this.date = date;
+            }
+
+            Map<String, Object> colonnes() {
+                return Map.of("id_reservation", id, "isbn", isbn, "id_lecteur", idLecteur,
+                        "date_reservation", Timestamp.valueOf(date));
+            }
+        }
+
+        // Réservation prise directement en base, comme par un autre poste
+        synchronized int reserver(int isbn, int idLecteur, LocalDateTime date) {
+            int id = reservations.size() + 1;
+            reservations.put(id, new Ligne(id, isbn, idLecteur, date));
+            return id;
+        }
+
+        Connection connexion() {
+            List<Runnable> annulations = new ArrayList<>();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, methode, args) -> switch (methode.getName()) {
+                        case "prepareStatement" -> requete((String) args[0], annulations);
+                        case "commit" -> {
+                            if (commitRefuse) {
+                                throw new SQLException("Commit refusé");
+                            }
+                            annulations.clear();
+                            yield null;
+                        }
+                        case "rollback" -> {
+                            for (int i = annulations.size() - 1; i >= 0; i--) {
+                                annulations.get(i).run();
+                            }
+                            annulations.clear();
+                            yield null;
+                        }
+                        case "setAutoCommit", "close" -> null;
+                        default -> throw new UnsupportedOperationException(methode.getName());
+                    });
+        }
+
+        private PreparedStatement requete(String sql, List<Runnable> annulations) {
+            Map<Integer, Object> parametres = new HashMap<>();
+            List<Map<String, Object>> cles = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, methode, args) -> switch (methode.getName()) {
+                        case "setInt", "setString", "setTimestamp" -> parametres.put((Integer) args[0], args[1]);
+                        case "executeQuery" -> resultat(lire(sql, parametres));
+                        case "executeUpdate" -> {
+                            int lignes = modifier(sql, parametres, annulations);
+                            if (sql.startsWith("INSERT")) {
+                                cles.add(Map.of("1", reservations.size()));
+                            }
+                            yield lignes;
+                        }
+                        case "getGeneratedKeys" -> resultat(cles);
+                        case "close" -> null;
+                        default -> throw new UnsupportedOperationException(methode.getName());
+                    });
+        }
+
+        private synchronized List<Map<String, Object>> lire(String sql, Map<Integer, Object> p) {
+            if (sql.startsWith("SELECT isbn FROM EXEMPLAIRE")) {
+                Integer isbn = exemplaires.get((Integer) p.get(1));
+                return isbn == null ? List.of() : List.of(Map.of("isbn", isbn));
+            }
+            if (sql.startsWith("SELECT * FROM RESERVATION WHERE statut = ?")) {
+                return enAttente(r -> true);
+            }
+            if (sql.startsWith("SELECT id_reservation, id_lecteur, date_reservation FROM RESERVATION")) {
+                assertTrue(sql.contains("SKIP LOCKED"));
+                List<Map<String, Object>> premiere = enAttente(r -> r.isbn == (Integer) p.get(1)
+                        && !verrouillees.contains(r.id));
+                return premiere.isEmpty() ? premiere : premiere.subList(0, 1);
+            }
+            throw new UnsupportedOperationException(sql);
+        }
+
+        private List<Map<String, Object>> enAttente(Predicate<Ligne> filtre) {
+            return reservations.values().stream()
+                    .filter(r -> r.statut.equals("en attente") && filtre.test(r))
+                    .sorted(Comparator.comparing((Ligne r) -> r.date).thenComparingInt(r -> r.id))
+                    .map(Ligne::colonnes)
+                    .toList();
+        }
+
+        private synchronized int modifier(String sql, Map<Integer, Object> p, List<Runnable> annulations) {
+            if (sql.startsWith("UPDATE EMPRUNT SET date_retour_effectif")) {
+                int id = (Integer) p.get(3);
+                if (!empruntsEnCours.remove(id)) {
+                    return 0;
+                }
+                annulations.add(() -> empruntsEnCours.add(id));
+                return 1;
+            }
+            if (sql.startsWith("INSERT INTO RESERVATION")) {
+                reserver((Integer) p.get(1), (Integer) p.get(2), ((Timestamp) p.get(3)).toLocalDateTime());
+                return 1;
+            }
+            if (sql.startsWith("UPDATE RESERVATION SET statut = ?, numero_exemplaire = ?")) {
+                Ligne ligne = reservations.get((Integer) p.get(4));
+                String statut = ligne.statut;
+                ligne.statut = (String) p.get(1);
+                ligne.numeroExemplaire = (Integer) p.get(2);
+                annulations.add(() -> {
+                    ligne.statut = statut;
+                    ligne.numeroExemplaire = null;
+                });
+                return 1;
+            }
+            if (sql.startsWith("UPDATE RESERVATION SET statut = ? WHERE id_reservation = ? AND statut = ?")) {
+                Ligne ligne = reservations.get((Integer) p.get(2));
+                if (ligne == null || !ligne.statut.equals(p.get(3))) {
+                    return 0;
+                }
+                ligne.statut = (String) p.get(1);
+                return 1;
+            }
+            if (sql.startsWith("UPDATE EXEMPLAIRE SET disponible = FALSE")) {
+                int numero = (Integer) p.get(1);
+                boolean avant = disponibles.put(numero, false);
+                annulations.add(() -> disponibles.put(numero, avant));
+                return 1;
+            }
+            throw new UnsupportedOperationException(sql);
+        }
+
+        private static ResultSet resultat(List<Map<String, Object>> lignes) {
+            Iterator<Map<String, Object>> suivantes = lignes.iterator();
+            Object[] courante = new Object[1];
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, methode, args) -> switch (methode.getName()) {
+                        case "next" -> {
+                            courante[0] = suivantes.hasNext() ? suivantes.next() : null;
+                            yield courante[0] != null;
+                        }
+                        case "getInt", "getTimestamp" -> ((Map<?, ?>) courante[0]).get(String.valueOf(args[0]));
+                        case "close" -> null;
+                        default -> throw new UnsupportedOperationException(methode.getName());
+                    });
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.bibliotrack.model.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalAuditTest {
+
+    @TempDir
+    Path repertoire;
+
+    private static EvenementAudit evenement(int cle) {
+        return new EvenementAudit(Instant.ofEpochMilli(1_700_000_000_000L + cle), "test", "exemplaire",
+                EvenementAudit.Operation.MODIFICATION, String.valueOf(cle), "etat=bon", "etat=mauvais");
+    }
+
+    @Test
+    void relitLesEvenementsDUnSegmentScelle() throws IOException {
+        try (JournalAudit journal = new JournalAudit(repertoire, 64 * 1024)) {
+            for (int i = 0; i < 100; i++) {
+                journal.enregistrer(evenement(i));
+            }
+            journal.sceller();
+
+            List<Path> segments = journal.segmentsScelles();
+            assertEquals(1, segments.size());
+            List<EvenementAudit> relus = JournalAudit.lireSegment(segments.get(0));
+            assertEquals(100, relus.size());
+            assertEquals("42", relus.get(42).getCle());
+            assertEquals("etat=mauvais", relus.get(42).getImageApres());
+            assertEquals(evenement(42).getHorodatage(), relus.get(42).getHorodatage());
+        }
+    }
+
+    @Test
+    void changeDeSegmentQuandIlEstPlein() throws IOException {
+        try (JournalAudit journal = new JournalAudit(repertoire, 1024)) {
+            for (int i = 0; i < 50; i++) {
+                journal.enregistrer(evenement(i));
+            }
+            journal.sceller();
+
+            int total = 0;
+            for (Path segment : journal.segmentsScelles()) {
+                total += JournalAudit.lireSegment(segment).size();
+            }
+            assertTrue(journal.segmentsScelles().size() > 1);
+            assertEquals(50, total);
+        }
+    }
+
+    @Test
+    void unSegmentExpedieNestPlusPropose() throws IOException {
+        try (JournalAudit journal = new JournalAudit(repertoire, 64 * 1024)) {
+            journal.enregistrer(evenement(1));
+            journal.sceller();
+            Path segment = journal.segmentsScelles().get(0);
+            JournalAudit.lireSegment(segment);
+
+            journal.supprimerSegment(segment);
+
+            assertTrue(journal.segmentsScelles().isEmpty());
+            assertFalse(Files.exists(segment));
+        }
+    }
+
+    @Test
+    void unSegmentMarqueExpedieEstPurgeAlaReouverture() throws IOException {
+        Path segment;
+        try (JournalAudit journal = new JournalAudit(repertoire, 64 * 1024)) {
+            journal.enregistrer(evenement(1));
+            journal.sceller();
+            segment = journal.segmentsScelles().get(0);
+        }
+        // Suppression restée en suspens, comme sous Windows tant que le fichier est projeté
+        Files.createFile(segment.resolveSibling(segment.getFileName() + ".expedie"));
+
+        try (JournalAudit journal = new JournalAudit(repertoire, 64 * 1024)) {
+            assertTrue(journal.segmentsScelles().isEmpty());
+            assertFalse(Files.exists(segment));
+        }
+    }
+
+    @Test
+    void ignoreUnEnregistrementCorrompu() throws IOException {
+        Path segment;
+        try (JournalAudit journal = new JournalAudit(repertoire, 64 * 1024)) {
+            journal.enregistrer(evenement(1));
+            journal.enregistrer(evenement(2));
+            journal.sceller();
+            segment = journal.segmentsScelles().get(0);
+        }
+        byte[] contenu = Files.readAllBytes(segment);
+        // En-tête de 16 octets, premier enregistrement de 72 octets : on altère le contenu du second
+        contenu[16 + 72 + 8 + 10] ^= 0x7F;
+        Files.write(segment, contenu);
+
+        List<EvenementAudit> relus = JournalAudit.lireSegment(segment);
+        assertEquals(1, relus.size());
+        assertEquals("1", relus.get(0).getCle());
+    }
+}
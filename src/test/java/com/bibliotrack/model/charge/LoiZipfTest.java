@@ -0,0 +1,49 @@
+package com.bibliotrack.model.charge;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoiZipfTest {
+
+    @Test
+    void sansExposantLesRangsSontEquiprobables() {
+        LoiZipf loi = new LoiZipf(10, 0);
+
+        assertEquals(0.1, loi.part(1), 1e-12);
+        assertEquals(0.5, loi.part(5), 1e-12);
+        assertEquals(1, loi.part(10), 1e-12);
+        assertEquals(1, loi.part(50), 1e-12, "au-delà de la taille, tous les tirages sont couverts");
+    }
+
+    @Test
+    void lesPartsSuiventLesPoidsDeZipf() {
+        LoiZipf loi = new LoiZipf(4, 1);
+        double total = 1 + 1 / 2.0 + 1 / 3.0 + 1 / 4.0;
+
+        assertEquals(1 / total, loi.part(1), 1e-12);
+        assertEquals((1 + 1 / 2.0) / total, loi.part(2), 1e-12);
+        assertEquals(1, loi.part(4), 1e-12);
+    }
+
+    @Test
+    void lesTiragesRespectentLaLoi() {
+        int taille = 10;
+        int tirages = 200_000;
+        LoiZipf loi = new LoiZipf(taille, 1);
+        int[] effectifs = new int[taille];
+        for (int i = 0; i < tirages; i++) {
+            effectifs[loi.tirer()]++;       // Hors bornes : ArrayIndexOutOfBoundsException
+        }
+
+        for (int rang = 0; rang < taille; rang++) {
+            double attendue = loi.part(rang + 1) - (rang == 0 ? 0 : loi.part(rang));
+            assertEquals(attendue, effectifs[rang] / (double) tirages, 0.01, "rang " + rang);
+        }
+    }
+
+    @Test
+    void refuseUneTailleNulle() {
+        assertThrows(IllegalArgumentException.class, () -> new LoiZipf(0, 1));
+    }
+}
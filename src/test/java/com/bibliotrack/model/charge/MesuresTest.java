@@ -0,0 +1,68 @@
+package com.bibliotrack.model.charge;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MesuresTest {
+
+    private static Mesures mesures(int... millis) {
+        Mesures mesures = new Mesures();
+        for (int duree : millis) {
+            mesures.enregistrer(duree * 1_000_000L, Mesures.Issue.REUSSITE);
+        }
+        return mesures;
+    }
+
+    @Test
+    void sansMesureLesQuantilesSontNuls() {
+        assertArrayEquals(new double[]{0, 0}, new Mesures().quantilesMillis(0.5, 1));
+    }
+
+    @Test
+    void uneSeuleMesureDonneTousLesQuantiles() {
+        assertArrayEquals(new double[]{7, 7, 7, 7}, mesures(7).quantilesMillis(0, 0.5, 0.99, 1));
+    }
+
+    @Test
+    void prendLeRangSuperieurDuQuantile() {
+        int[] durees = new int[100];
+        for (int i = 0; i < durees.length; i++) {
+            durees[i] = durees.length - i;      // 100 à 1 ms, dans le désordre
+        }
+
+        assertArrayEquals(new double[]{1, 50, 95, 99, 100},
+                mesures(durees).quantilesMillis(0, 0.50, 0.95, 0.99, 1));
+        assertArrayEquals(new double[]{2, 3}, mesures(1, 2, 3).quantilesMillis(0.5, 1));
+        assertArrayEquals(new double[]{2}, mesures(1, 2, 3).quantilesMillis(0.34));
+    }
+
+    @Test
+    void fusionneLesMesuresDesGuichets() {
+        Mesures total = new Mesures();
+        Mesures guichet = new Mesures();
+        for (int i = 1; i <= 1500; i++) {
+            guichet.enregistrer(i * 1_000_000L, i % 100 == 0 ? Mesures.Issue.INTERBLOCAGE : Mesures.Issue.REUSSITE);
+        }
+        guichet.enregistrer(0, Mesures.Issue.ECHEC);
+        guichet.ignorer();
+        Mesures autre = mesures(2000);
+        autre.enregistrer(0, Mesures.Issue.ATTENTE_DEPASSEE);
+        autre.enregistrer(0, Mesures.Issue.SANS_OBJET);
+        autre.enregistrer(0, Mesures.Issue.SATURATION);
+        autre.enregistrer(0, Mesures.Issue.CIRCUIT_OUVERT);
+        autre.enregistrer(0, Mesures.Issue.CIRCUIT_OUVERT);
+
+        total.fusionner(guichet);
+        total.fusionner(autre);
+
+        assertEquals(1507, total.getNombre(), "une opération ignorée n'a pas de durée");
+        assertEquals(1, total.getEchecs());
+        assertEquals(15, total.getInterblocages());
+        assertEquals(1, total.getAttentesDepassees());
+        assertEquals(1, total.getSaturations());
+        assertEquals(2, total.getCircuitsOuverts());
+        assertEquals(2, total.getSansObjet());
+        assertEquals(2000, total.quantilesMillis(1)[0]);
+    }
+}
@@ -0,0 +1,83 @@
+package com.bibliotrack.model.charge;
+
+import com.bibliotrack.model.charge.Scenario.Operation;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScenarioTest {
+
+    private static Properties configuration(String... lignes) {
+        Properties config = new Properties();
+        for (String ligne : lignes) {
+            String[] cleValeur = ligne.split("=", 2);
+            config.setProperty(cleValeur[0], cleValeur[1]);
+        }
+        return config;
+    }
+
+    @Test
+    void litLesScenariosDansLOrdreDeLaListe() {
+        List<Scenario> scenarios = Scenario.depuis(configuration(
+                "scenarios= soir , ,matin,",
+                "scenario.matin.clients=5",
+                "scenario.matin.duree=12",
+                "scenario.matin.pause=40",
+                "scenario.matin.retour=1",
+                "scenario.soir.consultation=3",
+                "scenario.soir.ajout=1"));
+
+        assertEquals(List.of("soir", "matin"), scenarios.stream().map(Scenario::getNom).toList());
+        Scenario matin = scenarios.get(1);
+        assertEquals(5, matin.getClients());
+        assertEquals(12, matin.getDureeSecondes());
+        assertEquals(40, matin.getPauseMillis());
+        Scenario soir = scenarios.get(0);
+        assertEquals(10, soir.getClients());
+        assertEquals(30, soir.getDureeSecondes());
+        assertEquals(0, soir.getPauseMillis());
+        assertEquals("soir : 10 guichets, 30 s, consultation 75 %, emprunt 0 %, retour 0 %, ajout 25 %",
+                soir.toString());
+    }
+
+    @Test
+    void joueLesScenariosParDefautSansListe() {
+        assertEquals(Scenario.parDefaut().size(), Scenario.depuis(new Properties()).size());
+        assertEquals(List.of("ouverture", "affluence", "arrivage"),
+                Scenario.depuis(configuration("scenarios= , ")).stream().map(Scenario::getNom).toList());
+    }
+
+    @Test
+    void refuseUnScenarioMalDecrit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Scenario.depuis(configuration("scenarios=vide")));
+        assertThrows(NumberFormatException.class,
+                () -> Scenario.depuis(configuration("scenarios=a", "scenario.a.retour=beaucoup")));
+        assertThrows(IllegalArgumentException.class, () -> new Scenario("court", 1, 1, 0, 1, 1));
+    }
+
+    @Test
+    void tireLesOperationsSelonLeursPoids() {
+        Scenario scenario = new Scenario("test", 1, 1, 0, 1, 0, 3, 0);
+        int tirages = 100_000;
+        Map<Operation, Integer> effectifs = new EnumMap<>(Operation.class);
+        for (int i = 0; i < tirages; i++) {
+            effectifs.merge(scenario.tirer(), 1, Integer::sum);
+        }
+
+        assertEquals(0.25, effectifs.get(Operation.CONSULTATION) / (double) tirages, 0.01);
+        assertEquals(0.75, effectifs.get(Operation.RETOUR) / (double) tirages, 0.01);
+        assertFalse(effectifs.containsKey(Operation.EMPRUNT));
+        assertFalse(effectifs.containsKey(Operation.AJOUT));
+
+        Scenario unique = new Scenario("arrivage", 1, 1, 0, 0, 0, 0, 2);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Operation.AJOUT, unique.tirer());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.bibliotrack.model.charge;
+
+import com.bibliotrack.model.resilience.AccesBaseException;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationCirculationTest {
+
+    private static Mesures.Issue issue(AccesBaseException.Nature nature) {
+        return SimulationCirculation.issue(new AccesBaseException(nature, null, null));
+    }
+
+    @Test
+    void classeLesEchecsSelonLeurNature() {
+        assertEquals(Mesures.Issue.INTERBLOCAGE, issue(AccesBaseException.Nature.CONFLIT));
+        assertEquals(Mesures.Issue.ATTENTE_DEPASSEE, issue(AccesBaseException.Nature.DELAI_DEPASSE));
+        assertEquals(Mesures.Issue.SATURATION, issue(AccesBaseException.Nature.SATURATION));
+        assertEquals(Mesures.Issue.CIRCUIT_OUVERT, issue(AccesBaseException.Nature.CIRCUIT_OUVERT));
+        assertEquals(Mesures.Issue.ECHEC, issue(AccesBaseException.Nature.BASE_INJOIGNABLE));
+        assertEquals(Mesures.Issue.ECHEC, issue(AccesBaseException.Nature.REQUETE_REFUSEE));
+    }
+
+    @Test
+    void reconnaitLesErreursDeVerrousDeMySQL() {
+        assertEquals(Mesures.Issue.INTERBLOCAGE, SimulationCirculation.issue(AccesBaseException.depuis(
+                new SQLTransactionRollbackException("Deadlock found when trying to get lock", "40001", 1213))));
+        assertEquals(Mesures.Issue.ATTENTE_DEPASSEE, SimulationCirculation.issue(AccesBaseException.depuis(
+                new SQLException("Lock wait timeout exceeded", "HY000", 1205))));
+    }
+}
@@ -0,0 +1,112 @@
+package com.bibliotrack.model.inventaire;
+
+import com.bibliotrack.model.Exemplaire.EtatExemplaire;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventaireTest {
+
+    @TempDir
+    Path repertoire;
+
+    // Trois exemplaires de deux titres ; le 20 est emprunté
+    private static Inventaire exemple() {
+        return new Inventaire(Instant.ofEpochMilli(1_700_000_000_000L), 3,
+                new int[]{10, 20, 300},
+                new int[]{978_001, 978_002, 978_001},
+                new byte[]{
+                        Inventaire.coder(EtatExemplaire.NEUF, true),
+                        Inventaire.coder(EtatExemplaire.BON, false),
+                        Inventaire.coder(EtatExemplaire.MAUVAIS, true)});
+    }
+
+    private Path ecrire(Inventaire inventaire) throws IOException {
+        Path fichier = repertoire.resolve("inventaire.bin");
+        inventaire.ecrire(fichier);
+        return fichier;
+    }
+
+    @Test
+    void relitCeQuiAEteEcrit() throws IOException {
+        Inventaire relu = Inventaire.lire(ecrire(exemple()));
+
+        assertEquals(3, relu.getTaille());
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_000L), relu.getHorodatage());
+        assertEquals(300, relu.getNumero(2));
+        assertEquals(978_002, relu.getIsbn(1));
+        assertEquals(EtatExemplaire.MAUVAIS, relu.getEtat(2));
+        assertFalse(relu.isDisponible(1));
+        assertEquals(0, EcartsInventaire.comparer(exemple(), relu).getModifies().length);
+    }
+
+    @Test
+    void detecteUnDictionnaireAltere() throws IOException {
+        Path fichier = ecrire(exemple());
+        byte[] contenu = Files.readAllBytes(fichier);
+        contenu[20 + 3] ^= 1;      // Premier ISBN du dictionnaire, après l'en-tête et l'effectif
+        Files.write(fichier, contenu);
+
+        IOException erreur = assertThrows(IOException.class, () -> Inventaire.lire(fichier));
+        assertTrue(erreur.getMessage().contains("corrompu"));
+    }
+
+    @Test
+    void refuseUnEffectifSansRapportAvecLaTailleDuFichier() throws IOException {
+        Path fichier = ecrire(exemple());
+        byte[] contenu = Files.readAllBytes(fichier);
+        ByteBuffer.wrap(contenu).putInt(16 + 4 + 2 * 4, Integer.MAX_VALUE);     // Nombre d'exemplaires
+        Files.write(fichier, contenu);
+
+        assertThrows(IOException.class, () -> Inventaire.lire(fichier));
+
+        ByteBuffer.wrap(contenu).putInt(16, Integer.MAX_VALUE);      // Nombre d'ISBN
+        Files.write(fichier, contenu);
+        assertThrows(IOException.class, () -> Inventaire.lire(fichier));
+    }
+
+    @Test
+    void compareLeRayonnageSansDependreDesNumerosScannes() throws IOException {
+        Path liste = repertoire.resolve("rayon.txt");
+        Files.write(liste, List.of("300;bon", "2000000000", "2000000000", "", "15"));
+
+        EcartsInventaire ecarts = EcartsInventaire.comparerRayonnage(exemple(), liste);
+
+        assertArrayEquals(new int[]{10}, ecarts.getManquants());   // Le 20 est emprunté : pas attendu
+        assertArrayEquals(new int[]{15, 2_000_000_000}, ecarts.getEnTrop());
+        assertArrayEquals(new int[]{300}, ecarts.getModifies());
+    }
+
+    @Test
+    void retientLeDernierEtatLuPourUnNumeroScanne() throws IOException {
+        Path liste = repertoire.resolve("rayon.txt");
+        Files.write(liste, List.of("300;bon", "70000", "10;bon", "300", "256", "300;mauvais", "10;neuf", "256"));
+
+        EcartsInventaire ecarts = EcartsInventaire.comparerRayonnage(exemple(), liste);
+
+        assertArrayEquals(new int[0], ecarts.getManquants());
+        assertArrayEquals(new int[]{256, 70000}, ecarts.getEnTrop());
+        assertArrayEquals(new int[0], ecarts.getModifies());
+    }
+
+    @Test
+    void remplaceLInstantanePrecedentSansLaisserDeFichierTemporaire() throws IOException {
+        Path fichier = ecrire(exemple());
+        Inventaire vide = new Inventaire(Instant.ofEpochMilli(1_800_000_000_000L), 0, new int[0], new int[0], new byte[0]);
+
+        vide.ecrire(fichier);
+
+        assertEquals(0, Inventaire.lire(fichier).getTaille());
+        try (var fichiers = Files.list(repertoire)) {
+            assertEquals(List.of(fichier), fichiers.toList());
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.bibliotrack.model.notification;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Timeout(30)
+class CampagneRappelsTest {
+    private static final LocalDate JOUR = LocalDate.of(2024, 3, 15);
+
+    @TempDir
+    Path repertoire;
+
+    // Ligne lue par la requête de la campagne, dans l'ordre des colonnes utilisées
+    private record Emprunt(int idLecteur, String nom, String email, int idEmprunt, int numero, LocalDate retour) {
+    }
+
+    private static Emprunt emprunt(int idLecteur, int idEmprunt, LocalDate retour) {
+        return new Emprunt(idLecteur, "Lecteur " + idLecteur, "lecteur" + idLecteur + "@exemple.org",
+                idEmprunt, 1000 + idEmprunt, retour);
+    }
+
+    /**
+     * Requête factice : rend les emprunts des lecteurs compris entre les deux bornes liées
+     */
+    private static PreparedStatement requete(List<Emprunt> emprunts) {
+        int[] bornes = new int[3];
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, methode, args) -> switch (methode.getName()) {
+                    case "setInt" -> {
+                        bornes[(Integer) args[0]] = (Integer) args[1];
+                        yield null;
+                    }
+                    case "executeQuery" -> resultat(emprunts.stream()
+                            .filter(e -> e.idLecteur() > bornes[1] && e.idLecteur() <= bornes[2]).iterator());
+                    default -> throw new UnsupportedOperationException(methode.getName());
+                });
+    }
+
+    private static ResultSet resultat(Iterator<Emprunt> lignes) {
+        Emprunt[] courante = new Emprunt[1];
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, methode, args) -> switch (methode.getName()) {
+                    case "next" -> {
+                        courante[0] = lignes.hasNext() ? lignes.next() : null;
+                        yield courante[0] != null;
+                    }
+                    case "getInt" -> switch ((String) args[0]) {
+                        case "id_lecteur" -> courante[0].idLecteur();
+                        case "id_emprunt" -> courante[0].idEmprunt();
+                        case "numero_exemplaire" -> courante[0].numero();
+                        default -> throw new SQLException("Colonne inconnue: " + args[0]);
+                    };
+                    case "getString" -> switch ((String) args[0]) {
+                        case "nom" -> courante[0].nom();
+                        case "email" -> courante[0].email();
+                        case "titre" -> "Titre " + courante[0].idEmprunt();
+                        default -> throw new SQLException("Colonne inconnue: " + args[0]);
+                    };
+                    case "getTimestamp" -> Timestamp.valueOf(courante[0].retour().atStartOfDay());
+                    case "close" -> null;
+                    default -> throw new UnsupportedOperationException(methode.getName());
+                });
+    }
+
+    // Source rendant des rappels déjà regroupés
+    private static CampagneRappels.SourceRappels source(List<Rappel> rappels) {
+        Iterator<Rappel> suivants = rappels.iterator();
+        return () -> suivants.hasNext() ? suivants.next() : null;
+    }
+
+    private static List<Rappel> rappels(int nombre) {
+        List<Rappel> rappels = new ArrayList<>();
+        for (int id = 1; id <= nombre; id++) {
+            Rappel rappel = new Rappel(id, "Lecteur " + id, "lecteur" + id + "@exemple.org");
+            rappel.ajouter(new Rappel.Ligne(id, 1000 + id, "Titre " + id, JOUR.plusDays(2)));
+            rappels.add(rappel);
+        }
+        return rappels;
+    }
+
+    /**
+     * Registre factice : retient les lecteurs prévenus, comme la table NOTIFICATION
+     */
+    private static class Registre implements CampagneRappels.RegistreEnvois {
+        private final BitSet prevenus = new BitSet();
+
+        @Override
+        public synchronized void enregistrer(Rappel rappel) {
+            prevenus.set(rappel.getIdLecteur());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // Nombre de messages du fichier mbox
+    private static long messages(Path boite) throws IOException {
+        try (var lignes = Files.lines(boite)) {
+            return lignes.filter(ligne -> ligne.startsWith("From bibliotrack ")).count();
+        }
+    }
+
+    @Test
+    void regroupeLesEmpruntsDUnLecteurMemeDUneTrancheALAutre() throws SQLException {
+        int dernier = 2 * CampagneRappels.TRANCHE_LECTEURS + 1;
+        List<Emprunt> emprunts = List.of(
+                emprunt(3, 1, JOUR.minusDays(4)),
+                emprunt(3, 2, JOUR.plusDays(1)),
+                emprunt(CampagneRappels.TRANCHE_LECTEURS, 3, JOUR.plusDays(2)),
+                emprunt(CampagneRappels.TRANCHE_LECTEURS + 1, 4, JOUR.minusDays(1)),
+                emprunt(CampagneRappels.TRANCHE_LECTEURS + 1, 5, JOUR),
+                emprunt(CampagneRappels.TRANCHE_LECTEURS + 1, 6, JOUR.plusDays(3)),
+                emprunt(dernier, 7, JOUR.plusDays(3)));
+
+        CampagneRappels.LectureTranches lecture = new CampagneRappels.LectureTranches(requete(emprunts), dernier);
+        List<Rappel> rappels = new ArrayList<>();
+        for (Rappel rappel = lecture.suivant(); rappel != null; rappel = lecture.suivant()) {
+            rappels.add(rappel);
+        }
+
+        assertEquals(List.of(3, CampagneRappels.TRANCHE_LECTEURS, CampagneRappels.TRANCHE_LECTEURS + 1, dernier),
+                rappels.stream().map(Rappel::getIdLecteur).toList());
+        assertEquals(List.of(4, 5, 6), rappels.get(2).getLignes().stream().map(Rappel.Ligne::getIdEmprunt).toList());
+
+        Message message = rappels.get(0).rediger(JOUR);
+        assertEquals("Emprunts en retard (1)", message.getSujet());
+        assertTrue(message.getCorps().contains("En retard :\n - Titre 1"));
+        assertTrue(message.getCorps().contains("À rendre prochainement :\n - Titre 2"));
+    }
+
+    @Test
+    void uneNouvelleExecutionNePrevientPasDeuxFoisUnLecteur() throws IOException, SQLException {
+        Path boite = repertoire.resolve("rappels.mbox");
+        Registre registre = new Registre();
+        try (TransportFichier transport = new TransportFichier(boite)) {
+            CampagneRappels campagne = new CampagneRappels(transport, 4, 0);
+
+            CampagneRappels.Bilan premiere = campagne.diffuser(source(rappels(200)), new BitSet(), registre, JOUR);
+            assertEquals(200, premiere.getEnvoyes());
+            assertEquals(200, registre.prevenus.cardinality());
+
+            CampagneRappels.Bilan seconde = campagne.diffuser(source(rappels(250)), registre.prevenus, registre, JOUR);
+            assertEquals(250, seconde.getLecteurs());
+            assertEquals(200, seconde.getDejaPrevenus());
+            assertEquals(50, seconde.getEnvoyes());
+        }
+        assertEquals(250, messages(boite));
+    }
+
+    @Test
+    void respecteLeDebitMaximalTousFilsConfondus() throws IOException, SQLException {
+        try (TransportFichier transport = new TransportFichier(repertoire.resolve("rappels.mbox"))) {
+            CampagneRappels campagne = new CampagneRappels(transport, 4, 50);
+
+            long debut = System.nanoTime();
+            CampagneRappels.Bilan bilan = campagne.diffuser(source(rappels(21)), new BitSet(), new Registre(), JOUR);
+            long dureeMillis = (System.nanoTime() - debut) / 1_000_000;
+
+            assertEquals(21, bilan.getEnvoyes());
+            // Le premier part aussitôt, les vingt suivants à 20 ms d'intervalle
+            assertTrue(dureeMillis >= 380, "durée " + dureeMillis + " ms");
+        }
+    }
+
+    @Test
+    void compteLesEchecsSansInterrompreLaCampagne() throws SQLException {
+        List<Rappel> rappels = rappels(300);
+        rappels.set(9, new Rappel(10, "Lecteur\r\nBcc: tous@exemple.org", "lecteur10@exemple.org"));
+        rappels.get(9).ajouter(new Rappel.Ligne(10, 1010, "Titre 10", JOUR));
+        Map<String, Exception> pannes = Map.of(
+                "lecteur20@exemple.org", new IOException("Boîte pleine"),
+                "lecteur30@exemple.org", new IllegalStateException("Erreur du transport"),
+                "lecteur40@exemple.org", new IllegalStateException("Erreur du transport"));
+        List<Message> remis = new ArrayList<>();
+        TransportMessages transport = new TransportMessages() {
+            @Override
+            public void envoyer(Message message) throws IOException {
+                Exception panne = pannes.get(message.getDestinataire());
+                if (panne instanceof IOException e) {
+                    throw e;
+                } else if (panne != null) {
+                    throw (RuntimeException) panne;
+                }
+                synchronized (remis) {
+                    remis.add(message);
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Registre registre = new Registre();
+
+        CampagneRappels.Bilan bilan = new CampagneRappels(transport, 2, 0)
+                .diffuser(source(rappels), new BitSet(), registre, JOUR);
+
+        assertEquals(4, bilan.getEchecs());
+        assertEquals(296, bilan.getEnvoyes());
+        assertEquals(296, remis.size());
+        assertEquals(296, registre.prevenus.cardinality());
+        for (int id : new int[]{10, 20, 30, 40}) {
+            assertFalse(registre.prevenus.get(id), "lecteur " + id + " enregistré comme prévenu");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.bibliotrack.model.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageTest {
+
+    @Test
+    void refuseUnRetourALaLigneDansLesEnTetes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Message("lecteur@exemple.org", "Lecteur\r\nBcc: tous@exemple.org", "Rappel", ""));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Message("lecteur@exemple.org", "Lecteur", "Rappel\nX-Autre: 1", ""));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Message("lecteur@exemple.org>\r\nRCPT TO:<tous@exemple.org", "Lecteur", "Rappel", ""));
+        assertThrows(IllegalArgumentException.class, () -> new Message("", "Lecteur", "Rappel", ""));
+    }
+
+    @Test
+    void metLeNomEntreGuillemets() {
+        String enTetes = new Message("jean@exemple.org", "Dupont, \"Jean\"", "Rappel", "").enTetes(true);
+
+        assertTrue(enTetes.startsWith("To: \"Dupont, \\\"Jean\\\"\" <jean@exemple.org>\r\n"), enTetes);
+        assertTrue(enTetes.contains("Content-Transfer-Encoding: 8bit\r\n"));
+    }
+
+    @Test
+    void encodeLeCorpsEnQuotedPrintable() {
+        String longue = "é".repeat(40) + " fin ";
+        Message message = new Message("lecteur@exemple.org", "Lecteur", "Rappel", "Bonjour Zoé,\n= 3 \n" + longue);
+
+        List<String> lignes = message.lignesQuotedPrintable();
+
+        assertTrue(message.enTetes(false).contains("Content-Transfer-Encoding: quoted-printable\r\n"));
+        assertEquals("Bonjour Zo=C3=A9,", lignes.get(0));
+        assertEquals("=3D 3=20", lignes.get(1));
+        StringBuilder relue = new StringBuilder();
+        for (String ligne : lignes.subList(2, lignes.size())) {
+            assertTrue(ligne.length() <= 76, ligne);
+            assertTrue(ligne.chars().allMatch(c -> c >= 32 && c < 127), ligne);
+            relue.append(ligne.endsWith("=") ? ligne.substring(0, ligne.length() - 1) : ligne);
+        }
+        assertEquals(longue, decoder(relue.toString()));
+    }
+
+    // Décodage quoted-printable d'une ligne logique
+    private static String decoder(String ligne) {
+        byte[] octets = new byte[ligne.length()];
+        int n = 0;
+        for (int i = 0; i < ligne.length(); i++) {
+            char c = ligne.charAt(i);
+            if (c == '=') {
+                octets[n++] = (byte) Integer.parseInt(ligne.substring(i + 1, i + 3), 16);
+                i += 2;
+            } else {
+                octets[n++] = (byte) c;
+            }
+        }
+        return new String(octets, 0, n, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,88 @@
+package com.bibliotrack.model.recommandation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompteurEntiersTest {
+
+    // Clés tombant dans la même case d'une table de 8 cases, trouvées avec la même dispersion que la table
+    private static int[] clesEnCollision(int nombre) {
+        int[] cles = new int[nombre];
+        int n = 0;
+        for (int cle = 1; n < nombre; cle++) {
+            if (((cle * 0x9E3779B9) >>> 7 & 7) == 3) {
+                cles[n++] = cle;
+            }
+        }
+        return cles;
+    }
+
+    @Test
+    void distingueLesClesEnCollision() {
+        CompteurEntiers compteur = new CompteurEntiers(4);
+        int[] cles = clesEnCollision(4);
+
+        for (int i = 0; i < cles.length; i++) {
+            assertEquals(i + 1, compteur.incrementer(cles[i], i + 1));
+        }
+        assertEquals(10, compteur.incrementer(cles[2], 7));
+
+        assertEquals(4, compteur.taille());
+        assertEquals(1, compteur.get(cles[0]));
+        assertEquals(2, compteur.get(cles[1]));
+        assertEquals(10, compteur.get(cles[2]));
+        assertEquals(4, compteur.get(cles[3]));
+        assertEquals(0, compteur.get(clesEnCollision(5)[4]));
+    }
+
+    @Test
+    void conserveLesCompteursEnSAgrandissant() {
+        CompteurEntiers compteur = new CompteurEntiers(4);
+        long octetsInitiaux = compteur.octets();
+        Map<Integer, Integer> attendus = new HashMap<>();
+        Random aleatoire = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int cle = aleatoire.nextInt(5_000) - 2_500;     // Clés négatives et nulle comprises
+            attendus.merge(cle, 1, Integer::sum);
+            compteur.incrementer(cle, 1);
+        }
+
+        assertTrue(compteur.octets() > octetsInitiaux);
+        assertEquals(attendus.size(), compteur.taille());
+        for (Map.Entry<Integer, Integer> attendu : attendus.entrySet()) {
+            assertEquals(attendu.getValue(), compteur.get(attendu.getKey()), "clé " + attendu.getKey());
+        }
+        int[] cles = compteur.cles();
+        Arrays.sort(cles);
+        assertArrayEquals(attendus.keySet().stream().mapToInt(Integer::intValue).sorted().toArray(), cles);
+    }
+
+    @Test
+    void refuseLaCleReservee() {
+        CompteurEntiers compteur = new CompteurEntiers(4);
+
+        assertThrows(IllegalArgumentException.class, () -> compteur.incrementer(Integer.MIN_VALUE, 1));
+        assertEquals(0, compteur.taille());
+    }
+
+    @Test
+    void rendLesMeilleuresClesParValeurDecroissanteSansLaCleExclue() {
+        CompteurEntiers compteur = new CompteurEntiers(4);
+        int[] valeurs = {5, 40, 12, 3, 41, 27, 8, 19, 33, 1};
+        for (int cle = 0; cle < valeurs.length; cle++) {
+            compteur.incrementer(100 + cle, valeurs[cle]);
+        }
+
+        assertArrayEquals(new int[]{104, 101, 108, 105}, compteur.meilleures(4, -1));
+        assertArrayEquals(new int[]{101, 108, 105, 107}, compteur.meilleures(4, 104));
+        assertArrayEquals(new int[]{104}, compteur.meilleures(1, 101));
+        assertEquals(valeurs.length - 1, compteur.meilleures(50, 109).length);
+        assertEquals(103, compteur.meilleures(50, 109)[valeurs.length - 2]);  // Plus faible valeur restante : 3
+    }
+}
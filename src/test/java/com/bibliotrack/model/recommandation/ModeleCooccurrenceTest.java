@@ -0,0 +1,139 @@
+package com.bibliotrack.model.recommandation;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModeleCooccurrenceTest {
+
+    @Test
+    void neCompteQuUneFoisUnLivreEmprunteDeNouveauParLeMemeLecteur() {
+        ModeleCooccurrence modele = new ModeleCooccurrence();
+        modele.enregistrer(1, 100);
+        modele.enregistrer(1, 200);
+        modele.enregistrer(1, 100);
+        modele.enregistrer(1, 200);
+        modele.enregistrer(2, 100);
+        modele.enregistrer(2, 200);
+
+        assertEquals(2, modele.getLecteursCommuns(100, 200));
+        assertEquals(2, modele.getLecteursCommuns(200, 100));
+        assertEquals(0, modele.getLecteursCommuns(100, 100));
+        assertEquals(2, modele.getNombrePaires());
+        assertEquals(2, modele.getNombreLecteurs());
+    }
+
+    @Test
+    void rejouerLesMemesEmpruntsNeChangeRien() {
+        ModeleCooccurrence modele = new ModeleCooccurrence();
+        int[][] emprunts = {{1, 100}, {1, 200}, {1, 300}, {2, 200}, {2, 300}};
+        for (int[] emprunt : emprunts) {
+            modele.enregistrer(emprunt[0], emprunt[1]);
+        }
+        int[] avant = modele.recommander(300, 5);
+
+        for (int[] emprunt : emprunts) {
+            modele.enregistrer(emprunt[0], emprunt[1]);
+        }
+
+        assertArrayEquals(avant, modele.recommander(300, 5));
+        assertEquals(2, modele.getLecteursCommuns(200, 300));
+        assertEquals(1, modele.getLecteursCommuns(100, 300));
+        assertEquals(6, modele.getNombrePaires());
+    }
+
+    @Test
+    void ignoreLesLivresAuDelaDeLaLimiteDHistorique() {
+        ModeleCooccurrence modele = new ModeleCooccurrence();
+        for (int isbn = 1; isbn <= ModeleCooccurrence.LIMITE_HISTORIQUE; isbn++) {
+            modele.enregistrer(1, isbn);
+        }
+        modele.enregistrer(1, 100_000);
+
+        assertEquals(1, modele.getLecteursCommuns(1, ModeleCooccurrence.LIMITE_HISTORIQUE));
+        assertEquals(0, modele.getLecteursCommuns(1, 100_000));
+        assertEquals(ModeleCooccurrence.LIMITE_HISTORIQUE, modele.getNombreLivres());
+
+        // Un autre lecteur n'est pas concerné par la limite du premier
+        modele.enregistrer(2, 1);
+        modele.enregistrer(2, 100_000);
+        assertEquals(1, modele.getLecteursCommuns(1, 100_000));
+    }
+
+    @Test
+    void invalideLeCacheDUnLivreDontLesCompteursChangent() {
+        ModeleCooccurrence modele = new ModeleCooccurrence();
+        modele.enregistrer(1, 100);
+        modele.enregistrer(1, 200);
+        assertArrayEquals(new int[]{200}, modele.recommander(100, 3));
+
+        for (int lecteur = 2; lecteur <= 3; lecteur++) {
+            modele.enregistrer(lecteur, 100);
+            modele.enregistrer(lecteur, 300);
+        }
+
+        assertArrayEquals(new int[]{300, 200}, modele.recommander(100, 3));
+        assertArrayEquals(new int[]{300}, modele.recommander(100, 1));
+        assertArrayEquals(new int[]{100}, modele.recommander(300, 3));
+        assertArrayEquals(new int[0], modele.recommander(999, 3));
+    }
+
+    @Test
+    void recommandeAuDelaDeLaTailleDuCache() {
+        ModeleCooccurrence modele = new ModeleCooccurrence();
+        for (int lecteur = 1; lecteur <= 15; lecteur++) {
+            modele.enregistrer(lecteur, 1);
+            for (int isbn = 100; isbn < 100 + lecteur; isbn++) {
+                modele.enregistrer(lecteur, isbn);
+            }
+        }
+
+        int[] recommandes = modele.recommander(1, 12);
+
+        assertEquals(12, recommandes.length);
+        assertEquals(100, recommandes[0]);      // Emprunté par les 15 lecteurs
+        assertEquals(111, recommandes[11]);     // Emprunté par les 4 derniers
+    }
+
+    @Test
+    void laReconstructionEnParalleleDonneLeMemeModele() throws SQLException {
+        List<int[]> emprunts = List.of(new int[]{1, 100}, new int[]{1, 200}, new int[]{1, 100},
+                new int[]{2, 100}, new int[]{2, 300}, new int[]{2, 200}, new int[]{3, 300}, new int[]{4, 200},
+                new int[]{4, 300});
+        ModeleCooccurrence incremental = new ModeleCooccurrence();
+        for (int[] emprunt : emprunts) {
+            incremental.enregistrer(emprunt[0], emprunt[1]);
+        }
+
+        Iterator<int[]> suivants = emprunts.iterator();
+        int[][] courant = new int[1][];
+        ModeleCooccurrence reconstruit = Recommandations.construire(new Recommandations.SourceEmprunts() {
+            public boolean suivant() {
+                courant[0] = suivants.hasNext() ? suivants.next() : null;
+                return courant[0] != null;
+            }
+
+            public int getIdLecteur() {
+                return courant[0][0];
+            }
+
+            public int getIsbn() {
+                return courant[0][1];
+            }
+        }, 3);
+
+        assertEquals(incremental.getNombrePaires(), reconstruit.getNombrePaires());
+        for (int isbn : new int[]{100, 200, 300}) {
+            for (int autre : new int[]{100, 200, 300}) {
+                assertEquals(incremental.getLecteursCommuns(isbn, autre), reconstruit.getLecteursCommuns(isbn, autre));
+            }
+        }
+        // Le lecteur 1 a déjà emprunté le 100 : le rejouer après reconstruction est sans effet
+        reconstruit.enregistrer(1, 100);
+        assertEquals(2, reconstruit.getLecteursCommuns(100, 200));
+    }
+}
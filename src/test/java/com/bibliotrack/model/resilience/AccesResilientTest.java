@@ -0,0 +1,181 @@
+package com.bibliotrack.model.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccesResilientTest {
+
+    // Connexion factice : seule la fermeture est attendue de l'accès
+    private static Connection connexion() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, methode, args) -> {
+                    if (methode.getName().equals("close")) {
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(methode.getName());
+                });
+    }
+
+    private static SQLException coupure() {
+        return new SQLTransientConnectionException("Communications link failure", "08S01");
+    }
+
+    /**
+     * Fournisseur qui échoue selon un scénario, puis ouvre des connexions factices
+     */
+    private static class Fournisseur implements AccesResilient.FournisseurConnexion {
+        private final Deque<Boolean> pannes = new ArrayDeque<>();   // true : l'ouverture échoue
+        private final AtomicInteger ouvertures = new AtomicInteger();
+        private volatile boolean enPanne;
+
+        Fournisseur echouer(int fois) {
+            for (int i = 0; i < fois; i++) {
+                pannes.add(true);
+            }
+            return this;
+        }
+
+        @Override
+        public Connection ouvrir() throws SQLException {
+            ouvertures.incrementAndGet();
+            if (enPanne || Boolean.TRUE.equals(pannes.poll())) {
+                throw coupure();
+            }
+            return connexion();
+        }
+    }
+
+    private static AccesResilient acces(Fournisseur fournisseur, Disjoncteur disjoncteur) {
+        return new AccesResilient(fournisseur, 3, 1, 5, 4, 1000, disjoncteur);
+    }
+
+    @Test
+    void retenteUneLectureQuandLaConnexionEchoue() throws AccesBaseException {
+        Fournisseur fournisseur = new Fournisseur().echouer(2);
+        AccesResilient acces = acces(fournisseur, new Disjoncteur(5, 60_000));
+
+        DonneesLues<String> lues = acces.lire("cle", conn -> "données");
+
+        assertEquals("données", lues.getDonnees());
+        assertFalse(lues.isPerimees());
+        assertEquals(3, fournisseur.ouvertures.get());
+    }
+
+    @Test
+    void servLeCacheMarquePerimeQuandLaBaseNeRepondPlus() throws AccesBaseException {
+        Fournisseur fournisseur = new Fournisseur();
+        AccesResilient acces = acces(fournisseur, new Disjoncteur(100, 60_000));
+        DonneesLues<String> premieres = acces.lire("cle", conn -> "données");
+
+        fournisseur.enPanne = true;
+        DonneesLues<String> relues = acces.lire("cle", conn -> "autres données");
+
+        assertTrue(relues.isPerimees());
+        assertEquals("données", relues.getDonnees());
+        assertEquals(premieres.getDateLecture(), relues.getDateLecture());
+        assertEquals(AccesBaseException.Nature.BASE_INJOIGNABLE, relues.getCause().getNature());
+
+        AccesBaseException erreur = assertThrows(AccesBaseException.class,
+                () -> acces.lire("autre cle", conn -> "données"));
+        assertEquals(AccesBaseException.Nature.BASE_INJOIGNABLE, erreur.getNature());
+    }
+
+    @Test
+    void neRetentePasUneEcritureDejaEnvoyee() {
+        AccesResilient acces = acces(new Fournisseur(), new Disjoncteur(5, 60_000));
+        AtomicInteger executions = new AtomicInteger();
+
+        AccesBaseException erreur = assertThrows(AccesBaseException.class, () -> acces.ecrire(conn -> {
+            executions.incrementAndGet();
+            throw coupure();
+        }));
+
+        assertEquals(AccesBaseException.Nature.BASE_INJOIGNABLE, erreur.getNature());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void retenteUneEcritureQuandLaConnexionNAPasPuEtreEtablie() throws AccesBaseException {
+        Fournisseur fournisseur = new Fournisseur().echouer(1);
+        AccesResilient acces = acces(fournisseur, new Disjoncteur(5, 60_000));
+        AtomicInteger executions = new AtomicInteger();
+
+        assertEquals(Integer.valueOf(1), acces.ecrire(conn -> executions.incrementAndGet()));
+        assertEquals(2, fournisseur.ouvertures.get());
+    }
+
+    @Test
+    void uneRequeteRefuseeNEstNiRetenteeNiCompteeCommePanne() {
+        Disjoncteur disjoncteur = new Disjoncteur(1, 60_000);
+        AccesResilient acces = acces(new Fournisseur(), disjoncteur);
+        AtomicInteger executions = new AtomicInteger();
+
+        AccesBaseException erreur = assertThrows(AccesBaseException.class, () -> acces.lire("cle", conn -> {
+            executions.incrementAndGet();
+            throw new SQLSyntaxErrorException("You have an error in your SQL syntax", "42000", 1064);
+        }));
+
+        assertEquals(AccesBaseException.Nature.REQUETE_REFUSEE, erreur.getNature());
+        assertEquals(1, executions.get());
+        assertEquals(Disjoncteur.Etat.FERME, disjoncteur.getEtat());
+    }
+
+    @Test
+    void refuseAussitotQuandLeDisjoncteurEstOuvert() {
+        Fournisseur fournisseur = new Fournisseur();
+        fournisseur.enPanne = true;
+        Disjoncteur disjoncteur = new Disjoncteur(3, 60_000);
+        AccesResilient acces = acces(fournisseur, disjoncteur);
+
+        assertThrows(AccesBaseException.class, () -> acces.lire("cle", conn -> "données"));
+        assertEquals(Disjoncteur.Etat.OUVERT, disjoncteur.getEtat());
+        assertEquals(3, fournisseur.ouvertures.get());
+
+        AccesBaseException erreur = assertThrows(AccesBaseException.class, () -> acces.lire("cle", conn -> "données"));
+        assertEquals(AccesBaseException.Nature.CIRCUIT_OUVERT, erreur.getNature());
+        assertEquals(3, fournisseur.ouvertures.get(), "aucune connexion tentée circuit ouvert");
+    }
+
+    @Test
+    void borneLeNombreDAccesSimultanes() throws Exception {
+        AccesResilient acces = new AccesResilient(new Fournisseur(), 2, 1, 5, 1, 20, new Disjoncteur(5, 60_000));
+        CountDownLatch entre = new CountDownLatch(1);
+        CountDownLatch libere = new CountDownLatch(1);
+        ExecutorService executeur = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> occupant = executeur.submit(() -> acces.ecrire(conn -> {
+                entre.countDown();
+                try {
+                    libere.await();
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                }
+                return "fini";
+            }));
+            entre.await();
+
+            AccesBaseException erreur = assertThrows(AccesBaseException.class, () -> acces.lire("cle", conn -> "données"));
+            assertEquals(AccesBaseException.Nature.SATURATION, erreur.getNature());
+
+            libere.countDown();
+            assertEquals("fini", occupant.get());
+            assertEquals("données", acces.lire("cle", conn -> "données").getDonnees());
+        } finally {
+            executeur.shutdownNow();
+        }
+    }
+}
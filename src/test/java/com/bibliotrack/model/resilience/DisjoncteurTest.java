@@ -0,0 +1,71 @@
+package com.bibliotrack.model.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DisjoncteurTest {
+    private static final long OUVERTURE = 50;
+
+    private static Disjoncteur ouvert() {
+        Disjoncteur disjoncteur = new Disjoncteur(3, OUVERTURE);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(disjoncteur.autoriser());
+            disjoncteur.echec();
+        }
+        return disjoncteur;
+    }
+
+    @Test
+    void sOuvreAuSeuilDEchecsConsecutifs() {
+        Disjoncteur disjoncteur = new Disjoncteur(3, OUVERTURE);
+        disjoncteur.echec();
+        disjoncteur.echec();
+        disjoncteur.succes();   // Un succès remet le compte à zéro
+        disjoncteur.echec();
+        disjoncteur.echec();
+        assertEquals(Disjoncteur.Etat.FERME, disjoncteur.getEtat());
+        assertTrue(disjoncteur.autoriser());
+
+        disjoncteur.echec();
+        assertEquals(Disjoncteur.Etat.OUVERT, disjoncteur.getEtat());
+        assertFalse(disjoncteur.autoriser());
+    }
+
+    @Test
+    void laissePasserUnSeulEssaiApresLaDureeDOuverture() throws InterruptedException {
+        Disjoncteur disjoncteur = ouvert();
+        Thread.sleep(OUVERTURE + 20);
+
+        assertTrue(disjoncteur.autoriser());
+        assertEquals(Disjoncteur.Etat.SEMI_OUVERT, disjoncteur.getEtat());
+        assertFalse(disjoncteur.autoriser(), "un seul essai à la fois");
+
+        disjoncteur.succes();
+        assertEquals(Disjoncteur.Etat.FERME, disjoncteur.getEtat());
+        assertTrue(disjoncteur.autoriser());
+    }
+
+    @Test
+    void lEchecDeLEssaiRouvrePourUneNouvelleDuree() throws InterruptedException {
+        Disjoncteur disjoncteur = ouvert();
+        Thread.sleep(OUVERTURE + 20);
+
+        assertTrue(disjoncteur.autoriser());
+        disjoncteur.echec();
+        assertEquals(Disjoncteur.Etat.OUVERT, disjoncteur.getEtat());
+        assertFalse(disjoncteur.autoriser());
+    }
+
+    @Test
+    void unEssaiAbandonneEstRetenteAussitot() throws InterruptedException {
+        Disjoncteur disjoncteur = ouvert();
+        Thread.sleep(OUVERTURE + 20);
+
+        assertTrue(disjoncteur.autoriser());
+        disjoncteur.abandon();
+        assertEquals(Disjoncteur.Etat.OUVERT, disjoncteur.getEtat());
+        assertTrue(disjoncteur.autoriser());
+        assertEquals(Disjoncteur.Etat.SEMI_OUVERT, disjoncteur.getEtat());
+    }
+}